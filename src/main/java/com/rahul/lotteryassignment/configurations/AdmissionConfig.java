@@ -0,0 +1,27 @@
+package com.rahul.lotteryassignment.configurations;
+
+import com.rahul.lotteryassignment.service.AdmissionControl;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for admission control.
+ * Requests generating lines are priced by their number of lines against a token bucket per
+ * client and a global in-flight budget, and refused at once with 429 or 503 when over either.
+ */
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig {
+
+    /**
+     * @return the admission control of line generating requests
+     */
+    @Bean
+    public AdmissionControl admissionControl(AdmissionProperties properties) {
+        return new AdmissionControl(properties.getLinesPerSecond(),
+                properties.getBurstLines(),
+                properties.getMaxInFlightLines(),
+                properties.getMaxClients());
+    }
+}
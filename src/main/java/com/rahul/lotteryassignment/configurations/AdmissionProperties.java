@@ -0,0 +1,20 @@
+package com.rahul.lotteryassignment.configurations;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Settings of the admission control of line generating requests, bound from {@code lottery.admission.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "lottery.admission")
+public class AdmissionProperties {
+
+    private long linesPerSecond = 1_000_000; //Lines each client may request per second on average
+    private long burstLines = 5_000_000; //Lines a client may request at once, also the largest request
+    private long maxInFlightLines = 20_000_000; //Lines all running requests may generate together
+    private int maxClients = 100_000; //Clients tracked before idle ones are forgotten
+}
@@ -0,0 +1,32 @@
+package com.rahul.lotteryassignment.configurations;
+
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.service.IdempotencyCache;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for idempotent ticket requests.
+ * Results of requests sent with an {@code Idempotency-Key} header are kept for
+ * {@code lottery.idempotency.ttl-ms}, up to {@code lottery.idempotency.max-entries} keys and
+ * {@code lottery.idempotency.max-bytes} of tickets.
+ */
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+
+    private static final long TICKET_OVERHEAD_BYTES = 128; //Ticket, its state and the cache entry, besides the lines
+
+    /**
+     * A kept ticket is weighed as one byte per line, an upper bound since the snapshot may share
+     * its lines with the stored ticket or hold none at all when they are sequence lines.
+     *
+     * @return the cache of created and updated tickets by client and idempotency key
+     */
+    @Bean
+    public IdempotencyCache<Ticket> idempotencyCache(IdempotencyProperties properties) {
+        return new IdempotencyCache<>(properties.getTtlMs(), properties.getMaxEntries(), properties.getMaxBytes(),
+                ticket -> TICKET_OVERHEAD_BYTES + ticket.getLineCount());
+    }
+}
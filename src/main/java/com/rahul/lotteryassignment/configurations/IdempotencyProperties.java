@@ -0,0 +1,19 @@
+package com.rahul.lotteryassignment.configurations;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Settings of the idempotency key cache, bound from {@code lottery.idempotency.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "lottery.idempotency")
+public class IdempotencyProperties {
+
+    private long ttlMs = 3_600_000; //Time the result of a request is kept for retries with its key
+    private int maxEntries = 1_000_000; //Largest number of keys kept, the oldest are forgotten first
+    private long maxBytes = 268_435_456; //Largest estimated memory of the tickets kept, the oldest are forgotten first
+}
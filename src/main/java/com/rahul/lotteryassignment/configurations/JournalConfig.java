@@ -0,0 +1,68 @@
+package com.rahul.lotteryassignment.configurations;
+
+import com.rahul.lotteryassignment.persistence.FileTicketJournal;
+import com.rahul.lotteryassignment.persistence.JournalReplayer;
+import com.rahul.lotteryassignment.persistence.TicketJournal;
+import com.rahul.lotteryassignment.persistence.TicketSnapshotter;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import com.rahul.lotteryassignment.service.SeededLineGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * Configuration class for ticket persistence.
+ * When {@code lottery.journal.enabled} is set, the journal is replayed into the store before the
+ * application starts serving requests, and snapshots of the store periodically replace the
+ * journal segments they cover.
+ */
+@Configuration
+@EnableConfigurationProperties(JournalProperties.class)
+public class JournalConfig {
+
+    /**
+     * Opens the journal and restores the tickets recorded in it.
+     *
+     * @return the file backed journal, closed with the application context
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "lottery.journal", name = "enabled", havingValue = "true")
+    public FileTicketJournal fileTicketJournal(JournalProperties properties,
+                                               TicketStore ticketStore,
+                                               SeededLineGenerator seededLineGenerator) throws IOException {
+        FileTicketJournal journal = new FileTicketJournal(properties.getDirectory(),
+                properties.getSyncMode(),
+                properties.getFlushIntervalMs(),
+                properties.getBatchBytes());
+        journal.recover(new JournalReplayer(ticketStore, seededLineGenerator, properties.getReplayThreads()));
+        journal.start();
+        return journal;
+    }
+
+    /**
+     * Schedules periodic snapshots of the store that compact the journal.
+     *
+     * @return the snapshotter, stopped with the application context before the journal is closed
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "lottery.journal", name = "enabled", havingValue = "true")
+    public TicketSnapshotter ticketSnapshotter(JournalProperties properties,
+                                               TicketStore ticketStore,
+                                               FileTicketJournal fileTicketJournal) {
+        TicketSnapshotter snapshotter = new TicketSnapshotter(ticketStore, fileTicketJournal);
+        snapshotter.start(properties.getSnapshotIntervalMs());
+        return snapshotter;
+    }
+
+    /**
+     * @return a journal that records nothing when persistence is disabled
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "lottery.journal", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public TicketJournal noTicketJournal() {
+        return TicketJournal.NONE;
+    }
+}
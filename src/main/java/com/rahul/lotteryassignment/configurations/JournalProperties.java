@@ -0,0 +1,26 @@
+package com.rahul.lotteryassignment.configurations;
+
+import com.rahul.lotteryassignment.constant.JournalSyncMode;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Settings of the ticket journal, bound from {@code lottery.journal.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "lottery.journal")
+public class JournalProperties {
+
+    private boolean enabled = false; //Whether ticket changes are journaled and replayed on startup
+    private Path directory = Path.of("data"); //Directory holding the journal segments and snapshots
+    private JournalSyncMode syncMode = JournalSyncMode.SYNC; //How records are made durable
+    private long flushIntervalMs = 5; //Maximum time a record waits before being written
+    private int batchBytes = 1 << 20; //Pending bytes that trigger an early write
+    private long snapshotIntervalMs = 600_000; //Delay between snapshots that compact the journal, 0 disables them
+    private int replayThreads = Runtime.getRuntime().availableProcessors(); //Threads applying records on startup
+}
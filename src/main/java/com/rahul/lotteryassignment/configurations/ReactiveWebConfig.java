@@ -0,0 +1,25 @@
+package com.rahul.lotteryassignment.configurations;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the reactive variant of the API, active when the application runs as a
+ * reactive web application, as it does with the {@code reactive} profile.
+ * Tomcat stays on the classpath for the servlet variant, so Reactor Netty is chosen explicitly:
+ * its event loops serve every connection, where Tomcat would tie a thread to each request.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig {
+
+    /**
+     * @return the Reactor Netty server, configured from the {@code server.*} properties
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,23 @@
+package com.rahul.lotteryassignment.configurations;
+
+import com.rahul.lotteryassignment.service.TicketResponseCache;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the response cache.
+ * The JSON of checked tickets is kept for reads, up to {@code lottery.response-cache.max-bytes}.
+ */
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheConfig {
+
+    /**
+     * @return the cache of serialized checked tickets
+     */
+    @Bean
+    public TicketResponseCache ticketResponseCache(ResponseCacheProperties properties) {
+        return new TicketResponseCache(properties.getMaxBytes());
+    }
+}
@@ -0,0 +1,17 @@
+package com.rahul.lotteryassignment.configurations;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Settings of the cache of checked ticket responses, bound from {@code lottery.response-cache.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "lottery.response-cache")
+public class ResponseCacheProperties {
+
+    private long maxBytes = 64L << 20; //Largest size of the cached JSON of all checked tickets
+}
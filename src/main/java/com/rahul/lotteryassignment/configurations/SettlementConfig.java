@@ -0,0 +1,51 @@
+package com.rahul.lotteryassignment.configurations;
+
+import com.rahul.lotteryassignment.repository.TicketStore;
+import com.rahul.lotteryassignment.service.TicketService;
+import com.rahul.lotteryassignment.service.TicketSettlement;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration class for draw settlement.
+ * An unfinished settlement is resumed once the store has been restored from the journal, and
+ * further runs follow every {@code lottery.settlement.interval-ms} or on request. The checkpoint
+ * is kept with the journal, and not at all when tickets are not persisted, as no run could then
+ * be resumed after a restart.
+ */
+@Configuration
+@EnableConfigurationProperties(SettlementProperties.class)
+public class SettlementConfig {
+
+    /**
+     * @return the settlement job, stopped with the application context before the journal is closed
+     */
+    @Bean(destroyMethod = "close")
+    public TicketSettlement ticketSettlement(SettlementProperties properties,
+                                             JournalProperties journalProperties,
+                                             TicketService ticketService,
+                                             TicketStore ticketStore) {
+        TicketSettlement settlement = new TicketSettlement(ticketService, ticketStore,
+                checkpointFile(properties, journalProperties),
+                properties.getChunkSize(),
+                properties.getParallelism(),
+                properties.getMaxDutyCycle());
+        settlement.start(properties.getIntervalMs());
+        return settlement;
+    }
+
+    /**
+     * @return the configured checkpoint file, or the one in the journal directory, {@code null} without a journal
+     */
+    private static Path checkpointFile(SettlementProperties properties, JournalProperties journalProperties) {
+        if (!journalProperties.isEnabled()) {
+            return null;
+        }
+        return properties.getCheckpointFile() != null
+                ? properties.getCheckpointFile()
+                : journalProperties.getDirectory().resolve("settlement.checkpoint");
+    }
+}
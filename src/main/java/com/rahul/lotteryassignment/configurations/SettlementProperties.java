@@ -0,0 +1,23 @@
+package com.rahul.lotteryassignment.configurations;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Settings of the draw settlement job, bound from {@code lottery.settlement.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "lottery.settlement")
+public class SettlementProperties {
+
+    private long intervalMs = 0; //Delay between the end of a settlement run and the start of the next, 0 disables them
+    private int chunkSize = 4096; //Tickets checked between two checkpoints
+    private int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2); //Threads checking tickets
+    private double maxDutyCycle = 0.5; //Largest share of wall time spent checking, the rest is left to requests
+    private Path checkpointFile; //Progress of an unfinished run, settlement.checkpoint in the journal directory if not set
+}
@@ -0,0 +1,34 @@
+package com.rahul.lotteryassignment.configurations;
+
+import com.fasterxml.jackson.databind.Module;
+import com.rahul.lotteryassignment.controller.TicketBinaryHttpMessageConverter;
+import com.rahul.lotteryassignment.json.LotteryJsonModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Configuration class for the response formats.
+ * The binary ticket format is added after the default converters, so JSON stays the answer to
+ * requests accepting any type and the binary form is only sent when asked for. JSON responses
+ * use the hand-written serializers of {@link LotteryJsonModule}.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * @return the serializers of responses, tickets and lines, registered with Spring's object mapper
+     */
+    @Bean
+    public Module lotteryJsonModule() {
+        return new LotteryJsonModule();
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new TicketBinaryHttpMessageConverter());
+    }
+}
@@ -0,0 +1,21 @@
+package com.rahul.lotteryassignment.constant;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * <p>
+ * Enums for the outcome of checking one ticket in a bulk status check.
+ */
+public enum CheckStatus {
+    /**
+     * The ticket was checked by this request: its lines were sorted and it is now frozen.
+     */
+    CHECKED,
+    /**
+     * The ticket had already been checked and was left unchanged.
+     */
+    ALREADY_CHECKED,
+    /**
+     * No ticket exists with the requested ID.
+     */
+    NOT_FOUND
+}
@@ -0,0 +1,21 @@
+package com.rahul.lotteryassignment.constant;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * <p>
+ * Enums for the lifecycle of a draw. A draw only moves forward through these states.
+ */
+public enum DrawStatus {
+    /**
+     * The draw receives new tickets and lines. Only the latest draw is open.
+     */
+    OPEN,
+    /**
+     * A later draw was opened: the tickets of this draw are frozen and can be settled.
+     */
+    CLOSED,
+    /**
+     * The tickets of this closed draw were dropped from the store.
+     */
+    PURGED
+}
@@ -16,6 +16,15 @@ public enum ErrorCode {
     INVALID_INPUT("ERR-002", "Invalid Input"),
     NOT_MODIFIABLE("ERR-003", "Not Modifiable"),
     TICKET_NOT_CREATED("ERR-004", "Ticket Not Created"),
+    NOT_PERSISTED("ERR-005", "Change Not Persisted"),
+    NOT_CHECKED("ERR-006", "Ticket Not Checked"),
+    SETTLEMENT_RUNNING("ERR-007", "Settlement Already Running"),
+    DRAW_CLOSED("ERR-008", "Draw Closed"),
+    DRAW_NOT_FOUND("ERR-009", "Draw Not Found"),
+    DRAW_OPEN("ERR-010", "Draw Still Open"),
+    IDEMPOTENCY_KEY_REUSED("ERR-011", "Idempotency Key Reused"),
+    RATE_LIMITED("ERR-012", "Rate Limit Exceeded"),
+    OVERLOADED("ERR-013", "Server Overloaded"),
     INTERNAL_SERVER_ERROR("ERR-500", "Unexpected Error");
 
     private final String code;
@@ -0,0 +1,23 @@
+package com.rahul.lotteryassignment.constant;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * <p>
+ * Enums for how the ticket journal makes records durable, configured through
+ * {@code lottery.journal.sync-mode}.
+ */
+public enum JournalSyncMode {
+    /**
+     * Records are written to the file in batches but never forced to disk by the application.
+     */
+    NONE,
+    /**
+     * Batches are forced to disk in the background; requests do not wait for it.
+     */
+    ASYNC,
+    /**
+     * Batches are forced to disk and every request waits until its record is durable
+     * (group commit: one fsync covers all records written during the batch interval).
+     */
+    SYNC
+}
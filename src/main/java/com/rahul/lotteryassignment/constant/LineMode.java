@@ -0,0 +1,18 @@
+package com.rahul.lotteryassignment.constant;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * <p>
+ * Enums for selecting how ticket lines are drawn, configured through {@code lottery.lines.mode}.
+ */
+public enum LineMode {
+    /**
+     * Lines are drawn from a thread-local random generator and stored on the ticket.
+     */
+    RANDOM,
+    /**
+     * Lines are derived from the server seed, the ticket ID and the line position, so they can be
+     * replayed for audits and are recomputed on demand instead of being stored.
+     */
+    SEEDED
+}
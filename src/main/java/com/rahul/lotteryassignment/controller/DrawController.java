@@ -0,0 +1,116 @@
+package com.rahul.lotteryassignment.controller;
+
+import com.rahul.lotteryassignment.dto.Draw;
+import com.rahul.lotteryassignment.dto.LotteryApiResponse;
+import com.rahul.lotteryassignment.service.DrawService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * REST controller for managing draws.
+ */
+@Tag(name = "Draw API", description = "APIs for closing and purging draws")
+@RestController
+@RequestMapping("/draw")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class DrawController {
+
+    private final DrawService drawService;
+
+    public DrawController(DrawService drawService) {
+        this.drawService = drawService;
+    }
+
+    /**
+     * Retrieves all draws that were not purged.
+     *
+     * @return Draws, oldest first
+     */
+    @Operation(summary = "Get all draws", description = "Retrieves all draws that were not purged, oldest first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Draws retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping
+    public ResponseEntity<LotteryApiResponse<List<Draw>>> getAllDraws() {
+        return ResponseEntity.ok(LotteryApiResponse.success("Draws retrieved successfully!", drawService.getDraws()));
+    }
+
+    /**
+     * Retrieves the open draw.
+     *
+     * @return The draw receiving new tickets
+     */
+    @Operation(summary = "Get the current draw", description = "Retrieves the open draw receiving new tickets.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Draw retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/current")
+    public ResponseEntity<LotteryApiResponse<Draw>> getCurrentDraw() {
+        return ResponseEntity.ok(LotteryApiResponse.success("Draw retrieved successfully!", drawService.getCurrentDraw()));
+    }
+
+    /**
+     * Retrieves a draw by its number.
+     *
+     * @param id Draw number
+     * @return Draw details
+     */
+    @Operation(summary = "Get draw by ID", description = "Retrieves the state and size of a draw.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Draw retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Draw not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<LotteryApiResponse<Draw>> getDrawById(@PathVariable long id) {
+        return ResponseEntity.ok(LotteryApiResponse.success("Draw retrieved successfully!", drawService.getDraw(id)));
+    }
+
+    /**
+     * Closes the open draw and opens the next one.
+     *
+     * @return The closed draw
+     */
+    @Operation(summary = "Close the current draw", description = "Freezes the tickets of the open draw for settlement and opens the next draw.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Draw closed successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/close")
+    public ResponseEntity<LotteryApiResponse<Draw>> closeCurrentDraw() {
+        return ResponseEntity.ok(LotteryApiResponse.success("Draw closed successfully!", drawService.closeCurrentDraw()));
+    }
+
+    /**
+     * Drops a closed draw with all its tickets.
+     *
+     * @param id Draw number
+     * @return The purged draw
+     */
+    @Operation(summary = "Purge a draw", description = "Drops a closed draw together with all its tickets.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Draw purged successfully"),
+            @ApiResponse(responseCode = "404", description = "Draw not found"),
+            @ApiResponse(responseCode = "409", description = "Draw still open"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<LotteryApiResponse<Draw>> purgeDraw(@PathVariable long id) {
+        return ResponseEntity.ok(LotteryApiResponse.success("Draw purged successfully!", drawService.purgeDraw(id)));
+    }
+}
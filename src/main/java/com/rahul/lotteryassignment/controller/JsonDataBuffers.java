@@ -0,0 +1,206 @@
+package com.rahul.lotteryassignment.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rahul.lotteryassignment.dto.LotteryApiResponse;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.json.LotteryJsonModule;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Writes JSON responses of the reactive API as streams of buffers, each produced only when the
+ * connection asks for it, so a large response never sits in memory whole and a slow client
+ * only holds back its own stream.
+ * <p>
+ * A single generator writes the whole response into a reusable buffer, whose bytes are
+ * handed out whenever a part is complete: a ticket {@value #LINES_PER_BUFFER} lines at a time,
+ * a list whenever {@value #BUFFER_BYTES} bytes of elements have been written, and newline
+ * delimited JSON per batch. The JSON is the same the blocking API writes for the same response.
+ * </p>
+ */
+final class JsonDataBuffers implements AutoCloseable {
+
+    static final int LINES_PER_BUFFER = 4096;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int ELEMENTS_PER_WRITE = 64; //List elements written at a time
+
+    private final ByteArrayBuilder bytes = new ByteArrayBuilder(); //Grows with the response, small ones stay small
+    private final JsonGenerator generator;
+    private final DataBufferFactory bufferFactory;
+
+    private JsonDataBuffers(ObjectMapper objectMapper, DataBufferFactory bufferFactory) {
+        try {
+            this.generator = objectMapper.createGenerator(bytes);
+            this.generator.setRootValueSeparator(null); // Values of newline delimited JSON are separated by newlines only
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.bufferFactory = bufferFactory;
+    }
+
+    /**
+     * Writes a response carrying a ticket, its lines read from a single snapshot as requested.
+     *
+     * @param response Response whose data is the ticket
+     */
+    static Flux<DataBuffer> ticket(ObjectMapper objectMapper, DataBufferFactory bufferFactory, LotteryApiResponse<Ticket> response) {
+        Ticket ticket = response.getData().snapshot();
+        int lineCount = ticket.getLineCount();
+        return Flux.using(() -> new JsonDataBuffers(objectMapper, bufferFactory),
+                json -> Flux.generate(() -> -1, (Integer from, SynchronousSink<DataBuffer> sink) -> {
+                    try {
+                        int next = json.ticketPart(response, ticket, from);
+                        sink.next(json.take());
+                        if (next == lineCount) {
+                            sink.complete();
+                        }
+                        return next;
+                    } catch (IOException e) {
+                        sink.error(e);
+                        return from;
+                    }
+                }),
+                JsonDataBuffers::close);
+    }
+
+    /**
+     * Writes the next part of a ticket response: the head and the first lines, further lines, or
+     * the last lines and the tail.
+     *
+     * @param from Position of the first line of the part, negative for the first part
+     * @return Position after the last line written
+     */
+    private int ticketPart(LotteryApiResponse<Ticket> response, Ticket ticket, int from) throws IOException {
+        int lineCount = ticket.getLineCount();
+        if (from < 0) {
+            head(response);
+            generator.writeStartObject();
+            generator.writeNumberField("id", ticket.getId());
+            generator.writeFieldName("lines");
+            generator.writeStartArray(null, lineCount);
+            from = 0;
+        }
+        int length = Math.min(LINES_PER_BUFFER, lineCount - from);
+        LotteryJsonModule.writeLines(generator, ticket, from, length);
+        from += length;
+        if (from == lineCount) {
+            generator.writeEndArray();
+            generator.writeBooleanField("checked", ticket.isChecked());
+            generator.writeEndObject();
+            tail(response);
+        }
+        return from;
+    }
+
+    /**
+     * Writes a response whose data is a list of the elements, written as they arrive.
+     *
+     * @param response Response giving the message and timestamp, without data
+     * @param elements Elements of the list, requested as the buffers are consumed
+     */
+    static Flux<DataBuffer> list(ObjectMapper objectMapper, DataBufferFactory bufferFactory,
+                                 LotteryApiResponse<?> response, Flux<?> elements) {
+        return Flux.using(() -> new JsonDataBuffers(objectMapper, bufferFactory),
+                json -> Flux.concat(
+                        Mono.fromCallable(() -> {
+                            json.head(response);
+                            json.generator.writeStartArray();
+                            return json.takeIfFull();
+                        }),
+                        elements.buffer(ELEMENTS_PER_WRITE).concatMap(batch -> Mono.fromCallable(() -> {
+                            for (Object element : batch) {
+                                json.generator.writeObject(element);
+                            }
+                            return json.takeIfFull();
+                        })),
+                        Mono.fromCallable(() -> {
+                            json.generator.writeEndArray();
+                            json.tail(response);
+                            return json.take();
+                        })),
+                JsonDataBuffers::close);
+    }
+
+    /**
+     * Writes a whole response in one buffer, for responses known to be small.
+     */
+    static Flux<DataBuffer> value(ObjectMapper objectMapper, DataBufferFactory bufferFactory, Object value) {
+        return Flux.using(() -> new JsonDataBuffers(objectMapper, bufferFactory),
+                json -> Mono.fromCallable(() -> {
+                    json.generator.writeObject(value);
+                    return json.take();
+                }),
+                JsonDataBuffers::close);
+    }
+
+    /**
+     * Writes newline delimited JSON, one buffer per batch, so each batch reaches the client once ready.
+     *
+     * @param batches Batches of values, each written as one line per value
+     */
+    static Flux<DataBuffer> lines(ObjectMapper objectMapper, DataBufferFactory bufferFactory,
+                                  Flux<? extends Collection<?>> batches) {
+        return Flux.using(() -> new JsonDataBuffers(objectMapper, bufferFactory),
+                json -> batches.concatMap(batch -> Mono.fromCallable(() -> {
+                    for (Object value : batch) {
+                        json.generator.writeObject(value);
+                        json.generator.writeRaw('\n');
+                    }
+                    return json.take();
+                })),
+                JsonDataBuffers::close);
+    }
+
+    /**
+     * Opens the response object up to the value of its data.
+     */
+    private void head(LotteryApiResponse<?> response) throws IOException {
+        generator.writeStartObject();
+        generator.writeBooleanField("success", response.isSuccess());
+        generator.writeStringField("message", response.getMessage());
+        generator.writeFieldName("data");
+    }
+
+    /**
+     * Closes the response object after its data, the timestamp formatted as the object mapper does.
+     */
+    private void tail(LotteryApiResponse<?> response) throws IOException {
+        generator.writeFieldName("timestamp");
+        generator.writeObject(response.getTimestamp());
+        generator.writeEndObject();
+    }
+
+    /**
+     * @return The bytes written so far, or {@code null} while they do not fill a buffer
+     */
+    private DataBuffer takeIfFull() throws IOException {
+        generator.flush();
+        return bytes.size() >= BUFFER_BYTES ? take() : null;
+    }
+
+    private DataBuffer take() throws IOException {
+        generator.flush();
+        DataBuffer buffer = bufferFactory.wrap(bytes.toByteArray());
+        bytes.reset();
+        return buffer;
+    }
+
+    @Override
+    public void close() {
+        try {
+            generator.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
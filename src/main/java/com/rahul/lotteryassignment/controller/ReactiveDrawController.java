@@ -0,0 +1,130 @@
+package com.rahul.lotteryassignment.controller;
+
+import com.rahul.lotteryassignment.dto.Draw;
+import com.rahul.lotteryassignment.dto.LotteryApiResponse;
+import com.rahul.lotteryassignment.service.DrawService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Reactive REST controller for managing draws, serving the API of {@link DrawController} on
+ * WebFlux when the application runs as a reactive web application (profile {@code reactive}).
+ * <p>
+ * Reads only touch the in-memory store and run on the event loop. Closing and purging a draw
+ * wait for the journal and for the writes in flight on the draw, so they run on the bounded
+ * elastic scheduler.
+ * </p>
+ */
+@Tag(name = "Draw API", description = "APIs for closing and purging draws")
+@RestController
+@RequestMapping("/draw")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveDrawController {
+
+    private final DrawService drawService;
+    private final Scheduler writeScheduler; //Runs changes, which may block on the journal
+
+    public ReactiveDrawController(DrawService drawService) {
+        this.drawService = drawService;
+        this.writeScheduler = Schedulers.boundedElastic();
+    }
+
+    /**
+     * Retrieves all draws that were not purged.
+     *
+     * @see DrawController#getAllDraws
+     */
+    @Operation(summary = "Get all draws", description = "Retrieves all draws that were not purged, oldest first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Draws retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping
+    public Mono<ResponseEntity<LotteryApiResponse<List<Draw>>>> getAllDraws() {
+        return Mono.fromCallable(() -> ResponseEntity.ok(LotteryApiResponse.success("Draws retrieved successfully!", drawService.getDraws())));
+    }
+
+    /**
+     * Retrieves the open draw.
+     *
+     * @see DrawController#getCurrentDraw
+     */
+    @Operation(summary = "Get the current draw", description = "Retrieves the open draw receiving new tickets.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Draw retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/current")
+    public Mono<ResponseEntity<LotteryApiResponse<Draw>>> getCurrentDraw() {
+        return Mono.fromCallable(() -> ResponseEntity.ok(LotteryApiResponse.success("Draw retrieved successfully!", drawService.getCurrentDraw())));
+    }
+
+    /**
+     * Retrieves a draw by its number.
+     *
+     * @see DrawController#getDrawById
+     */
+    @Operation(summary = "Get draw by ID", description = "Retrieves the state and size of a draw.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Draw retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Draw not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<LotteryApiResponse<Draw>>> getDrawById(@PathVariable long id) {
+        return Mono.fromCallable(() -> ResponseEntity.ok(LotteryApiResponse.success("Draw retrieved successfully!", drawService.getDraw(id))));
+    }
+
+    /**
+     * Closes the open draw and opens the next one.
+     *
+     * @see DrawController#closeCurrentDraw
+     */
+    @Operation(summary = "Close the current draw", description = "Freezes the tickets of the open draw for settlement and opens the next draw.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Draw closed successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/close")
+    public Mono<ResponseEntity<LotteryApiResponse<Draw>>> closeCurrentDraw() {
+        return write(() -> ResponseEntity.ok(LotteryApiResponse.success("Draw closed successfully!", drawService.closeCurrentDraw())));
+    }
+
+    /**
+     * Drops a closed draw with all its tickets.
+     *
+     * @see DrawController#purgeDraw
+     */
+    @Operation(summary = "Purge a draw", description = "Drops a closed draw together with all its tickets.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Draw purged successfully"),
+            @ApiResponse(responseCode = "404", description = "Draw not found"),
+            @ApiResponse(responseCode = "409", description = "Draw still open"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<LotteryApiResponse<Draw>>> purgeDraw(@PathVariable long id) {
+        return write(() -> ResponseEntity.ok(LotteryApiResponse.success("Draw purged successfully!", drawService.purgeDraw(id))));
+    }
+
+    private <T> Mono<T> write(Callable<T> change) {
+        return Mono.fromCallable(change).subscribeOn(writeScheduler);
+    }
+}
@@ -0,0 +1,456 @@
+package com.rahul.lotteryassignment.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.dto.LinePage;
+import com.rahul.lotteryassignment.dto.LotteryApiResponse;
+import com.rahul.lotteryassignment.dto.RawJson;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.dto.TicketSummary;
+import com.rahul.lotteryassignment.exception.CustomException;
+import com.rahul.lotteryassignment.service.AdmissionControl;
+import com.rahul.lotteryassignment.service.IdempotencyCache;
+import com.rahul.lotteryassignment.service.ReactiveTicketService;
+import com.rahul.lotteryassignment.service.TicketResponseCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Reactive REST controller for managing lottery tickets, serving the API of {@link TicketController}
+ * on WebFlux when the application runs as a reactive web application (profile {@code reactive}).
+ * <p>
+ * Requests are served on the event loop through {@link ReactiveTicketService}, and responses
+ * carrying tickets or lists of them are written as streams of buffers produced as the connection
+ * drains them, so a slow client holds a connection and a few buffers instead of a thread.
+ * Parameters, status codes and JSON are those of the blocking controller. The compact binary
+ * form is only served for single tickets.
+ * </p>
+ */
+@Tag(name = "Lottery Ticket API", description = "APIs for managing lottery tickets")
+@RestController
+@RequestMapping("/ticket")
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTicketController {
+
+    private static final int STREAM_BATCH_SIZE = 64; //Tickets written per buffer of GET /ticket/stream
+
+    private final ReactiveTicketService ticketService;
+    private final IdempotencyCache<Ticket> idempotencyCache; //Results of requests sent with an idempotency key
+    private final AdmissionControl admissionControl; //Line budgets of requests generating lines
+    private final TicketResponseCache responseCache; //JSON of checked tickets
+    private final ObjectMapper objectMapper;
+    private final TicketBinaryHttpMessageConverter binaryConverter = new TicketBinaryHttpMessageConverter();
+
+    public ReactiveTicketController(ReactiveTicketService ticketService, IdempotencyCache<Ticket> idempotencyCache,
+                                    AdmissionControl admissionControl, TicketResponseCache responseCache,
+                                    ObjectMapper objectMapper) {
+        this.ticketService = ticketService;
+        this.idempotencyCache = idempotencyCache;
+        this.admissionControl = admissionControl;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Creates a new ticket with the specified number of lines.
+     *
+     * @see TicketController#createTicket
+     */
+    @Operation(summary = "Create a new ticket", description = "Creates a ticket with the specified number of lines. "
+            + "Retries with the same Idempotency-Key header return the ticket created by the first request.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Ticket created successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
+            @ApiResponse(responseCode = "422", description = "Idempotency key used for a different request"),
+            @ApiResponse(responseCode = "429", description = "Line rate of the client exceeded"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Too many lines being generated")
+    })
+    @PostMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createTicket(
+            @RequestParam("numberOfLines")
+            @Min(value = 1, message = "Number of lines must be at least 1") int numberOfLines,
+            @RequestHeader(value = TicketRequests.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            ServerWebExchange exchange) {
+        Mono<Ticket> created = admitted(exchange.getRequest(), numberOfLines, () -> ticketService.createTicket(numberOfLines));
+        return idempotent(exchange.getRequest(), idempotencyKey, "POST /ticket?numberOfLines=" + numberOfLines, created)
+                .switchIfEmpty(Mono.error(() -> new CustomException(ErrorCode.TICKET_NOT_CREATED,
+                        "Unable to create ticket!",
+                        HttpStatus.INTERNAL_SERVER_ERROR)))
+                .map(ticket -> ticketResponse(exchange, HttpStatus.CREATED, "Ticket created successfully!", ticket));
+    }
+
+    /**
+     * Creates many tickets in one request and streams their IDs back as newline delimited JSON,
+     * each chunk of tickets created once the client has read the IDs of the previous one.
+     *
+     * @see TicketController#createTickets
+     */
+    @Operation(summary = "Create tickets in a batch", description = "Creates up to " + TicketRequests.MAX_BATCH_SIZE
+            + " tickets, either count tickets with the same number of lines or one ticket per number of lines given.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Tickets created, IDs streamed"),
+            @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
+            @ApiResponse(responseCode = "429", description = "Line rate of the client exceeded"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Too many lines being generated")
+    })
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<DataBuffer>> createTickets(
+            @RequestParam(value = "count", required = false) Integer count,
+            @RequestParam("numberOfLines") List<Integer> numberOfLines,
+            ServerWebExchange exchange) {
+        int[] lineCounts = TicketRequests.batchLineCounts(count, numberOfLines);
+        long lines = Arrays.stream(lineCounts).asLongStream().sum();
+        // Admitted when the body is subscribed and released when it ends, fails or is cancelled,
+        // so a response dropped before it is written holds no lines
+        Flux<List<Long>> ids = Flux.using(() -> admit(exchange.getRequest(), lines),
+                permit -> ticketService.createTickets(lineCounts).map(tickets -> tickets.stream().map(Ticket::getId).toList()),
+                AdmissionControl.Permit::close);
+        return ResponseEntity.status(HttpStatus.CREATED).contentType(MediaType.APPLICATION_NDJSON)
+                .body(JsonDataBuffers.lines(objectMapper, exchange.getResponse().bufferFactory(), ids));
+    }
+
+    /**
+     * Retrieves all tickets in the system, or one page of them when a cursor or limit is given.
+     * All tickets are written as the store is read, never collected in memory.
+     *
+     * @see TicketController#getAllTickets
+     */
+    @Operation(summary = "Get all tickets", description = "Retrieves a list of all tickets in the system. "
+            + "With a cursor or limit, returns one page in ascending ID order together with the cursor of the next page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tickets retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
+            @ApiResponse(responseCode = "404", description = "No tickets found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllTickets(
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "limit", required = false)
+            @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = TicketRequests.MAX_PAGE_SIZE, message = "Limit must be at most " + TicketRequests.MAX_PAGE_SIZE) Integer limit,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields,
+            ServerWebExchange exchange) {
+        Set<String> projection = TicketRequests.projection(view, fields);
+        if (cursor != null || limit != null) {
+            return ticketService.getTicketPage(cursor, limit != null ? limit : TicketRequests.DEFAULT_PAGE_SIZE)
+                    .map(page -> json(exchange, LotteryApiResponse.success("Tickets retrieved successfully!",
+                            projection == null ? page : page.map(ticket -> new TicketSummary(ticket, projection)))));
+        }
+        return ticketService.getTicketPage(null, 1)
+                .filter(first -> !first.getTickets().isEmpty())
+                .switchIfEmpty(Mono.error(() -> new CustomException(ErrorCode.TICKET_NOT_FOUND,
+                        "No tickets found!",
+                        HttpStatus.NOT_FOUND)))
+                .map(first -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(JsonDataBuffers.list(
+                        objectMapper, exchange.getResponse().bufferFactory(),
+                        LotteryApiResponse.success("Tickets retrieved successfully!", null),
+                        project(ticketService.streamTickets(null), projection))));
+    }
+
+    /**
+     * Streams all tickets as newline delimited JSON, one ticket per line, in ascending ID order,
+     * reading the store only as fast as the client reads the response.
+     *
+     * @see TicketController#streamTickets
+     */
+    @Operation(summary = "Stream all tickets", description = "Streams every ticket as newline delimited JSON in ascending ID order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tickets streamed successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<DataBuffer>> streamTickets(
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields,
+            ServerWebExchange exchange) {
+        Set<String> projection = TicketRequests.projection(view, fields);
+        Flux<List<Object>> batches = project(ticketService.streamTickets(cursor), projection).buffer(STREAM_BATCH_SIZE);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(JsonDataBuffers.lines(objectMapper, exchange.getResponse().bufferFactory(), batches));
+    }
+
+    /**
+     * Retrieves a ticket by its ID. Checked tickets carry an ETag, and their full view is served
+     * from the response cache unless it is streamed for its size.
+     *
+     * @see TicketController#getTicketById
+     */
+    @Operation(summary = "Get ticket by ID", description = "Retrieves a specific ticket using its ID. "
+            + "Checked tickets carry an ETag, and If-None-Match with it returns 304 Not Modified. "
+            + "Accept: " + TicketBinaryHttpMessageConverter.MEDIA_TYPE_VALUE + " returns the compact binary form.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ticket retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Checked ticket not modified"),
+            @ApiResponse(responseCode = "404", description = "Ticket not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getTicketById(
+            @PathVariable Long id,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields,
+            ServerWebExchange exchange) {
+        Set<String> projection = TicketRequests.projection(view, fields);
+        boolean binary = TicketBinaryHttpMessageConverter.isNegotiated(exchange.getRequest().getHeaders().getAccept());
+        exchange.getResponse().getHeaders().setVary(List.of(HttpHeaders.ACCEPT));
+        return ticketService.getTicketById(id).map(ticket -> {
+            String message = "Ticket retrieved successfully!";
+            if (projection != null) {
+                return json(exchange, LotteryApiResponse.success(message, new TicketSummary(ticket, projection)));
+            }
+            if (!ticket.isChecked()) {
+                return binary ? binary(exchange, message, ticket) : ticketResponse(exchange, HttpStatus.OK, message, ticket);
+            }
+            String eTag = "\"" + ticket.getId() + "-" + ticket.getVersion() + (binary ? "-bin" : "") + "\"";
+            if (exchange.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            ResponseEntity<Flux<DataBuffer>> response = binary ? binary(exchange, message, ticket)
+                    : ticket.getLineCount() > JsonDataBuffers.LINES_PER_BUFFER ? ticketResponse(exchange, HttpStatus.OK, message, ticket)
+                    : json(exchange, LotteryApiResponse.success(message, responseCache.get(ticket, this::toJson)));
+            return ResponseEntity.ok().headers(response.getHeaders()).eTag(eTag).body(response.getBody());
+        });
+    }
+
+    /**
+     * Retrieves one page of the lines of a ticket.
+     *
+     * @see TicketController#getTicketLines
+     */
+    @Operation(summary = "Get a page of ticket lines", description = "Retrieves the lines of a ticket from an offset. "
+            + "Sorted pages are available once the ticket status has been checked.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lines retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
+            @ApiResponse(responseCode = "404", description = "Ticket not found"),
+            @ApiResponse(responseCode = "409", description = "Ticket not checked yet"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{id}/lines")
+    public Mono<ResponseEntity<LotteryApiResponse<LinePage>>> getTicketLines(
+            @PathVariable Long id,
+            @RequestParam(value = "offset", defaultValue = "0")
+            @Min(value = 0, message = "Offset must not be negative") int offset,
+            @RequestParam(value = "limit", defaultValue = "" + TicketRequests.DEFAULT_LINE_PAGE_SIZE)
+            @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = TicketRequests.MAX_LINE_PAGE_SIZE, message = "Limit must be at most " + TicketRequests.MAX_LINE_PAGE_SIZE) int limit,
+            @RequestParam(value = "sorted", defaultValue = "false") boolean sorted) {
+        return ticketService.getLinePage(id, offset, limit, sorted)
+                .map(page -> ResponseEntity.ok(LotteryApiResponse.success("Lines retrieved successfully!", page)));
+    }
+
+    /**
+     * Adds lines to an existing ticket.
+     *
+     * @see TicketController#addLinesToTicket
+     */
+    @Operation(summary = "Add lines to ticket", description = "Adds additional lines to an existing ticket. "
+            + "Retries with the same Idempotency-Key header return the ticket as updated by the first request.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ticket updated successfully"),
+            @ApiResponse(responseCode = "404", description = "Ticket not found"),
+            @ApiResponse(responseCode = "422", description = "Idempotency key used for a different request"),
+            @ApiResponse(responseCode = "429", description = "Line rate of the client exceeded"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Too many lines being generated")
+    })
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addLinesToTicket(
+            @PathVariable Long id,
+            @RequestParam("numberOfLines")
+            @Min(value = 1, message = "Number of lines must be at least 1") int numberOfLines,
+            @RequestHeader(value = TicketRequests.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            ServerWebExchange exchange) {
+        Mono<Ticket> updated = admitted(exchange.getRequest(), numberOfLines, () -> ticketService.addLines(id, numberOfLines));
+        return idempotent(exchange.getRequest(), idempotencyKey, "PUT /ticket/" + id + "?numberOfLines=" + numberOfLines, updated)
+                .switchIfEmpty(Mono.error(() -> new CustomException(ErrorCode.TICKET_NOT_FOUND,
+                        "Ticket not found for ID: " + id,
+                        HttpStatus.NOT_FOUND)))
+                .map(ticket -> ticketResponse(exchange, HttpStatus.OK, "Ticket updated successfully!", ticket));
+    }
+
+    /**
+     * Checks the status of a ticket and sorts its lines by result.
+     *
+     * @see TicketController#checkTicketStatus
+     */
+    @Operation(summary = "Check ticket status", description = "Checks the status of a ticket and sorts its lines by result.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ticket status retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Lines not found for ticket"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PutMapping("/status/{id}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> checkTicketStatus(@PathVariable Long id, ServerWebExchange exchange) {
+        return ticketService.checkTicketStatus(id)
+                .filter(ticket -> ticket.getLineCount() > 0)
+                .switchIfEmpty(Mono.error(() -> new CustomException(ErrorCode.TICKET_NOT_FOUND,
+                        "Lines not found for ticket ID: " + id,
+                        HttpStatus.NOT_FOUND)))
+                .map(ticket -> ticketResponse(exchange, HttpStatus.OK, "Ticket status retrieved successfully!", ticket));
+    }
+
+    /**
+     * Checks many tickets in one request and streams a result per ticket back as newline delimited
+     * JSON, each chunk of tickets checked once the client has read the results of the previous one.
+     *
+     * @see TicketController#checkTicketStatuses
+     */
+    @Operation(summary = "Check ticket statuses in bulk", description = "Checks a list of tickets, a range of ticket IDs "
+            + "or all unchecked tickets, and streams the outcome for each ticket.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tickets checked, results streamed"),
+            @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PutMapping(value = "/status", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<DataBuffer>> checkTicketStatuses(
+            @RequestParam(value = "ids", required = false) List<Long> ids,
+            @RequestParam(value = "fromId", required = false) Long fromId,
+            @RequestParam(value = "toId", required = false) Long toId,
+            @RequestParam(value = "unchecked", defaultValue = "false") boolean unchecked,
+            ServerWebExchange exchange) {
+        TicketRequests.validateSelection(ids, fromId, toId, unchecked);
+        Flux<Long> selected = ids != null ? Flux.fromIterable(ids)
+                : unchecked ? ticketService.uncheckedTicketIds(null)
+                : ticketService.ticketIdsBetween(fromId, toId);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(JsonDataBuffers.lines(objectMapper, exchange.getResponse().bufferFactory(), ticketService.checkTickets(selected)));
+    }
+
+    /**
+     * Runs a request once per idempotency key of its client. Requests with a key wait on a worker
+     * thread for a first request with the same key that is still running.
+     */
+    private Mono<Ticket> idempotent(ServerHttpRequest httpRequest, String key, String request, Mono<Ticket> action) {
+        if (key == null) {
+            return action;
+        }
+        return Mono.fromCallable(() -> idempotencyCache.execute(client(httpRequest), key, request, action::block))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Runs a request generating lines once admitted, returning its lines to the budget when it ends.
+     */
+    private Mono<Ticket> admitted(ServerHttpRequest request, long lines, Supplier<Mono<Ticket>> action) {
+        return Mono.using(() -> admit(request, lines), permit -> action.get(), AdmissionControl.Permit::close);
+    }
+
+    /**
+     * Admits a request generating lines against the budget of its client.
+     */
+    private AdmissionControl.Permit admit(ServerHttpRequest request, long lines) {
+        return admissionControl.admit(client(request), lines);
+    }
+
+    /**
+     * @return The client sending a request, identified by the {@code X-Client-Id} header set by the
+     * gateway or else by the remote address
+     */
+    private static String client(ServerHttpRequest request) {
+        String client = request.getHeaders().getFirst(TicketRequests.CLIENT_ID);
+        if (client == null) {
+            InetSocketAddress address = request.getRemoteAddress();
+            client = address == null ? null
+                    : address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+        }
+        return client;
+    }
+
+    /**
+     * Projects tickets to the requested fields, or leaves them whole.
+     */
+    private static Flux<Object> project(Flux<Ticket> tickets, Set<String> projection) {
+        return tickets.map(ticket -> projection == null ? ticket : new TicketSummary(ticket, projection));
+    }
+
+    /**
+     * A response carrying a ticket, written a part of its lines at a time.
+     */
+    private ResponseEntity<Flux<DataBuffer>> ticketResponse(ServerWebExchange exchange, HttpStatus status, String message, Ticket ticket) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(JsonDataBuffers.ticket(
+                objectMapper, exchange.getResponse().bufferFactory(), LotteryApiResponse.success(message, ticket)));
+    }
+
+    /**
+     * A small response written in one buffer.
+     */
+    private ResponseEntity<Flux<DataBuffer>> json(ServerWebExchange exchange, LotteryApiResponse<?> response) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(JsonDataBuffers.value(objectMapper, exchange.getResponse().bufferFactory(), response));
+    }
+
+    /**
+     * A response carrying a ticket in the compact binary form, one byte per line.
+     */
+    private ResponseEntity<Flux<DataBuffer>> binary(ServerWebExchange exchange, String message, Ticket ticket) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + ticket.getLineCount());
+        try {
+            binaryConverter.write(LotteryApiResponse.success(message, ticket), TicketBinaryHttpMessageConverter.MEDIA_TYPE,
+                    new HttpOutputMessage() {
+                        private final HttpHeaders headers = new HttpHeaders();
+
+                        @Override
+                        public OutputStream getBody() {
+                            return bytes;
+                        }
+
+                        @Override
+                        public HttpHeaders getHeaders() {
+                            return headers;
+                        }
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ResponseEntity.ok().contentType(TicketBinaryHttpMessageConverter.MEDIA_TYPE)
+                .body(Flux.just(exchange.getResponse().bufferFactory().wrap(bytes.toByteArray())));
+    }
+
+    /**
+     * Serializes a ticket for the response cache.
+     */
+    private RawJson toJson(Ticket ticket) {
+        try {
+            return RawJson.of(objectMapper.writeValueAsBytes(ticket));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.rahul.lotteryassignment.controller;
+
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.dto.LotteryApiResponse;
+import com.rahul.lotteryassignment.dto.SettlementProgress;
+import com.rahul.lotteryassignment.exception.CustomException;
+import com.rahul.lotteryassignment.service.TicketSettlement;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * REST controller for settling draws.
+ */
+@Tag(name = "Settlement API", description = "APIs for settling the unchecked tickets of closed draws")
+@RestController
+@RequestMapping("/settlement")
+public class SettlementController {
+
+    private final TicketSettlement settlement;
+
+    public SettlementController(TicketSettlement settlement) {
+        this.settlement = settlement;
+    }
+
+    /**
+     * Starts settling every ticket of the closed draws in the background.
+     *
+     * @return Progress of the last run
+     */
+    @Operation(summary = "Start a settlement", description = "Checks every unchecked ticket of the closed draws, in the background.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Settlement started"),
+            @ApiResponse(responseCode = "409", description = "Settlement already running"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping
+    public ResponseEntity<LotteryApiResponse<SettlementProgress>> startSettlement() {
+        if (!settlement.trigger()) {
+            throw new CustomException(ErrorCode.SETTLEMENT_RUNNING,
+                    "A settlement is already running!",
+                    HttpStatus.CONFLICT);
+        }
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(LotteryApiResponse.success("Settlement started!", settlement.progress()));
+    }
+
+    /**
+     * Retrieves the progress and throughput of the current or last settlement.
+     *
+     * @return Settlement progress
+     */
+    @Operation(summary = "Get settlement progress", description = "Retrieves the progress and throughput of the current or last settlement.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Progress retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping
+    public ResponseEntity<LotteryApiResponse<SettlementProgress>> getSettlementProgress() {
+        return ResponseEntity.ok(LotteryApiResponse.success("Settlement progress retrieved successfully!", settlement.progress()));
+    }
+}
@@ -0,0 +1,250 @@
+package com.rahul.lotteryassignment.controller;
+
+import com.rahul.lotteryassignment.dto.LotteryApiResponse;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.dto.TicketPage;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Writes responses carrying tickets in a compact binary form, for clients sending
+ * {@code Accept: application/vnd.lottery.ticket}.
+ * <p>
+ * Each line is sent as its one byte code (see {@link com.rahul.lotteryassignment.dto.Line}), from
+ * which the numbers and the result follow, instead of the dozens of bytes of its JSON. The codes
+ * are copied from the ticket's segments into the output a chunk at a time, so no {@code Line}
+ * is created and memory use does not depend on the size of the ticket. All numbers are big-endian:
+ * </p>
+ * <pre>
+ * response: byte version (1), byte success (0 or 1), short message length, message in UTF-8 (at most
+ *           32767 bytes, cut before a character that would not fit),
+ *           long timestamp in epoch milliseconds, byte payload kind, payload
+ * payload:  0 none | 1 ticket | 2 int count, count tickets | 3 int count, count tickets, byte has next, long next cursor
+ * ticket:   long id, byte checked (0 or 1), int line count, one byte code per line in ticket order
+ * </pre>
+ * <p>
+ * Responses without tickets, such as errors, are sent with payload kind 0. Responses carrying
+ * other data, like summaries or draws, have no binary form and must be requested as JSON.
+ * </p>
+ */
+public class TicketBinaryHttpMessageConverter extends AbstractHttpMessageConverter<LotteryApiResponse<?>> {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.lottery.ticket";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+    public static final byte VERSION = 1;
+    public static final byte NONE = 0;
+    public static final byte TICKET = 1;
+    public static final byte TICKETS = 2;
+    public static final byte PAGE = 3;
+
+    private static final int CHUNK_SIZE = 1 << 16; //Bytes written to the output at a time
+    private static final int MAX_MESSAGE_BYTES = Short.MAX_VALUE; //Longest message sent, well within a chunk
+
+    public TicketBinaryHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    /**
+     * Tells which form content negotiation gives a ticket response, as the JSON converter is
+     * registered before this one. Each form takes the quality of the most specific media range of
+     * the {@code Accept} header including it. The binary form is chosen when its quality is higher
+     * than that of JSON, or the same but from a more specific range or one listed first; JSON wins
+     * when both come from the same range, such as {@code *}{@code /*}.
+     *
+     * @param accept Media ranges of the {@code Accept} header, empty when it is absent
+     * @return {@code true} if the response is written in the binary form
+     */
+    public static boolean isNegotiated(List<MediaType> accept) {
+        Range binary = Range.of(accept, MEDIA_TYPE);
+        Range json = Range.of(accept, MediaType.APPLICATION_JSON);
+        if (binary == null || binary.quality == 0) {
+            return false;
+        }
+        if (json == null) {
+            return true;
+        }
+        if (binary.quality != json.quality) {
+            return binary.quality > json.quality;
+        }
+        return binary.specificity > json.specificity
+                || binary.specificity == json.specificity && binary.position < json.position;
+    }
+
+    /**
+     * Media range of an {@code Accept} header deciding the quality of a media type.
+     */
+    private record Range(double quality, int specificity, int position) {
+
+        /**
+         * @return The most specific range including the media type, the first of equally specific
+         * ones, or {@code null} if none does
+         */
+        private static Range of(List<MediaType> accept, MediaType mediaType) {
+            Range best = null;
+            for (int i = 0; i < accept.size(); i++) {
+                MediaType range = accept.get(i);
+                if (range.includes(mediaType)) {
+                    int specificity = range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+                    if (best == null || specificity > best.specificity) {
+                        best = new Range(range.getQualityValue(), specificity, i);
+                    }
+                }
+            }
+            return best;
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return LotteryApiResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false; // Requests carry no ticket bodies
+    }
+
+    @Override
+    protected LotteryApiResponse<?> readInternal(Class<? extends LotteryApiResponse<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Binary tickets are only written", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(LotteryApiResponse<?> response, HttpOutputMessage outputMessage) throws IOException {
+        Object data = response.getData();
+        byte kind = kindOf(data);
+        Writer writer = new Writer(outputMessage.getBody());
+        byte[] message = response.getMessage() == null ? new byte[0] : response.getMessage().getBytes(StandardCharsets.UTF_8);
+        int messageLength = messageLength(message);
+        writer.reserve(12 + messageLength).put(VERSION).put((byte) (response.isSuccess() ? 1 : 0))
+                .putShort((short) messageLength).put(message, 0, messageLength)
+                .putLong(response.getTimestamp().toEpochMilli()).put(kind);
+        switch (kind) {
+            case TICKET -> writeTicket(writer, (Ticket) data);
+            case TICKETS -> writeTickets(writer, (Collection<?>) data);
+            case PAGE -> {
+                TicketPage<?> page = (TicketPage<?>) data;
+                writeTickets(writer, page.getTickets());
+                Long nextCursor = page.getNextCursor();
+                writer.reserve(9).put((byte) (nextCursor != null ? 1 : 0)).putLong(nextCursor != null ? nextCursor : 0);
+            }
+            default -> {
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * @return Number of bytes of the UTF-8 message sent, at most {@link #MAX_MESSAGE_BYTES} and
+     * never ending inside a multibyte character
+     */
+    private static int messageLength(byte[] message) {
+        int length = Math.min(message.length, MAX_MESSAGE_BYTES);
+        while (length < message.length && (message[length] & 0xC0) == 0x80) {
+            length--; // Continuation byte, the character it belongs to starts earlier
+        }
+        return length;
+    }
+
+    /**
+     * @throws HttpMessageNotWritableException if the data has no binary form
+     */
+    private static byte kindOf(Object data) {
+        if (data == null) {
+            return NONE;
+        }
+        if (data instanceof Ticket) {
+            return TICKET;
+        }
+        if (data instanceof Collection<?> tickets && tickets.stream().allMatch(Ticket.class::isInstance)) {
+            return TICKETS;
+        }
+        if (data instanceof TicketPage<?> page && page.getTickets().stream().allMatch(Ticket.class::isInstance)) {
+            return PAGE;
+        }
+        throw new HttpMessageNotWritableException(data.getClass().getSimpleName()
+                + " has no binary form, request " + MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    private static void writeTickets(Writer writer, Collection<?> tickets) throws IOException {
+        writer.reserve(4).putInt(tickets.size());
+        for (Object ticket : tickets) {
+            writeTicket(writer, (Ticket) ticket);
+        }
+    }
+
+    /**
+     * Writes a ticket, reading its state once so the count and codes agree even if it is changed meanwhile.
+     */
+    private static void writeTicket(Writer writer, Ticket ticket) throws IOException {
+        Ticket snapshot = ticket.snapshot();
+        int lineCount = snapshot.getLineCount();
+        writer.reserve(13).putLong(snapshot.getId()).put((byte) (snapshot.isChecked() ? 1 : 0)).putInt(lineCount);
+        for (int from = 0; from < lineCount; ) {
+            int length = Math.min(writer.available(), lineCount - from);
+            if (length == 0) {
+                writer.drain();
+                continue;
+            }
+            writer.codes(snapshot, from, length);
+            from += length;
+        }
+    }
+
+    /**
+     * Buffers the response in one chunk written to the output whenever it fills up.
+     */
+    private static final class Writer {
+
+        private final OutputStream output;
+        private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+
+        private Writer(OutputStream output) {
+            this.output = output;
+        }
+
+        /**
+         * @return The chunk, with room for at least {@code bytes} more
+         */
+        private ByteBuffer reserve(int bytes) throws IOException {
+            if (chunk.remaining() < bytes) {
+                drain();
+            }
+            if (chunk.remaining() < bytes) {
+                throw new IllegalArgumentException(bytes + " bytes do not fit in a chunk");
+            }
+            return chunk;
+        }
+
+        private int available() {
+            return chunk.remaining();
+        }
+
+        private void codes(Ticket ticket, int from, int length) {
+            ticket.copyLineCodes(from, chunk.array(), chunk.position(), length);
+            chunk.position(chunk.position() + length);
+        }
+
+        private void drain() throws IOException {
+            output.write(chunk.array(), 0, chunk.position());
+            chunk.clear();
+        }
+
+        private void flush() throws IOException {
+            drain();
+            output.flush();
+        }
+    }
+}
@@ -1,56 +1,115 @@
 package com.rahul.lotteryassignment.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.dto.LinePage;
 import com.rahul.lotteryassignment.dto.LotteryApiResponse;
+import com.rahul.lotteryassignment.dto.RawJson;
 import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.dto.TicketCheckResult;
+import com.rahul.lotteryassignment.dto.TicketPage;
+import com.rahul.lotteryassignment.dto.TicketSummary;
 import com.rahul.lotteryassignment.exception.CustomException;
+import com.rahul.lotteryassignment.service.AdmissionControl;
+import com.rahul.lotteryassignment.service.IdempotencyCache;
+import com.rahul.lotteryassignment.service.TicketResponseCache;
 import com.rahul.lotteryassignment.service.TicketService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
 
 /**
  * @author Rahul Kumar, reader.rahul@gmail.com
  * REST controller for managing lottery tickets.
+ * Serves the API when the application runs as a servlet web application, the default; see
+ * {@link ReactiveTicketController} for the reactive one.
  */
 @Tag(name = "Lottery Ticket API", description = "APIs for managing lottery tickets")
 @RestController
 @RequestMapping("/ticket")
 @Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class TicketController {
 
     private final TicketService ticketService;
+    private final IdempotencyCache<Ticket> idempotencyCache; //Results of requests sent with an idempotency key
+    private final AdmissionControl admissionControl; //Line budgets of requests generating lines
+    private final TicketResponseCache responseCache; //JSON of checked tickets
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter streamWriter; //Writes streamed tickets without separators or a flush after each one
 
-    public TicketController(TicketService ticketService) {
+    public TicketController(TicketService ticketService, IdempotencyCache<Ticket> idempotencyCache,
+                            AdmissionControl admissionControl, TicketResponseCache responseCache,
+                            ObjectMapper objectMapper) {
         this.ticketService = ticketService;
+        this.idempotencyCache = idempotencyCache;
+        this.admissionControl = admissionControl;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+        this.streamWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
     }
 
     /**
      * Creates a new ticket with the specified number of lines.
      *
-     * @param numberOfLines Number of lines (must be greater than or equal to 1)
+     * @param numberOfLines  Number of lines (must be greater than or equal to 1)
+     * @param idempotencyKey Key of the request, so a retry returns the ticket created first instead of another one
      * @return Created ticket with details
      */
-    @Operation(summary = "Create a new ticket", description = "Creates a ticket with the specified number of lines.")
+    @Operation(summary = "Create a new ticket", description = "Creates a ticket with the specified number of lines. "
+            + "Retries with the same Idempotency-Key header return the ticket created by the first request.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Ticket created successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
-            @ApiResponse(responseCode = "500", description = "Internal server error")
+            @ApiResponse(responseCode = "422", description = "Idempotency key used for a different request"),
+            @ApiResponse(responseCode = "429", description = "Line rate of the client exceeded"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Too many lines being generated")
     })
     @PostMapping
     public ResponseEntity<LotteryApiResponse<Ticket>> createTicket(
             @RequestParam("numberOfLines")
-            @Min(value = 1, message = "Number of lines must be at least 1") int numberOfLines) {
-        Ticket ticket = ticketService.createTicket(numberOfLines);
+            @Min(value = 1, message = "Number of lines must be at least 1") int numberOfLines,
+            @RequestHeader(value = TicketRequests.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            HttpServletRequest request) {
+        Ticket ticket = idempotencyCache.execute(client(request), idempotencyKey, "POST /ticket?numberOfLines=" + numberOfLines, () -> {
+            try (AdmissionControl.Permit permit = admit(request, numberOfLines)) {
+                return ticketService.createTicket(numberOfLines);
+            }
+        });
         if (ticket == null) {
             throw new CustomException(ErrorCode.TICKET_NOT_CREATED,
                     "Unable to create ticket!",
@@ -62,18 +121,85 @@ public class TicketController {
     }
 
     /**
-     * Retrieves all tickets in the system.
+     * Creates many tickets in one request and streams their IDs back as newline delimited JSON,
+     * one ID per line, as each chunk of tickets is stored.
      *
-     * @return List of all tickets
+     * @param count         Number of tickets when a single line count is given (default 1)
+     * @param numberOfLines Lines per ticket: one value for all tickets, or one value per ticket
+     * @return Chunked stream of the created ticket IDs
      */
-    @Operation(summary = "Get all tickets", description = "Retrieves a list of all tickets in the system.")
+    @Operation(summary = "Create tickets in a batch", description = "Creates up to " + TicketRequests.MAX_BATCH_SIZE
+            + " tickets, either count tickets with the same number of lines or one ticket per number of lines given.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Tickets created, IDs streamed"),
+            @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
+            @ApiResponse(responseCode = "429", description = "Line rate of the client exceeded"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Too many lines being generated")
+    })
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> createTickets(
+            @RequestParam(value = "count", required = false) Integer count,
+            @RequestParam("numberOfLines") List<Integer> numberOfLines,
+            HttpServletRequest request) {
+        int[] lineCounts = TicketRequests.batchLineCounts(count, numberOfLines);
+        AdmissionControl.Permit permit = admit(request, Arrays.stream(lineCounts).asLongStream().sum());
+        // The body runs later on another thread, or never on a timeout or an early failure, so the
+        // lines are also returned once the async request completes, whichever way it ends
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(permit, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                permit.close();
+            }
+        });
+        StreamingResponseBody body = output -> {
+            try (permit) {
+                ticketService.createTickets(lineCounts, tickets -> {
+                    StringBuilder ids = new StringBuilder(tickets.size() * 20);
+                    tickets.forEach(ticket -> ids.append(ticket.getId()).append('\n'));
+                    try {
+                        output.write(ids.toString().getBytes(StandardCharsets.US_ASCII));
+                        output.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.status(HttpStatus.CREATED).contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Retrieves all tickets in the system, or one page of them when a cursor or limit is given.
+     *
+     * @param cursor Cursor returned with the previous page, absent for the first page
+     * @param limit  Maximum number of tickets per page
+     * @param view   {@code full} (default) or {@code summary} to omit the lines
+     * @param fields Comma separated fields to return instead of a view
+     * @return List of all tickets, or a {@link TicketPage} in ascending ID order
+     */
+    @Operation(summary = "Get all tickets", description = "Retrieves a list of all tickets in the system. "
+            + "With a cursor or limit, returns one page in ascending ID order together with the cursor of the next page.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Tickets retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
             @ApiResponse(responseCode = "404", description = "No tickets found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping
-    public ResponseEntity<LotteryApiResponse<List<Ticket>>> getAllTickets() {
+    public ResponseEntity<LotteryApiResponse<?>> getAllTickets(
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "limit", required = false)
+            @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = TicketRequests.MAX_PAGE_SIZE, message = "Limit must be at most " + TicketRequests.MAX_PAGE_SIZE) Integer limit,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields) {
+        Set<String> projection = TicketRequests.projection(view, fields);
+        if (cursor != null || limit != null) {
+            TicketPage<Ticket> page = ticketService.getTicketPage(cursor, limit != null ? limit : TicketRequests.DEFAULT_PAGE_SIZE);
+            return ResponseEntity.ok(LotteryApiResponse.success("Tickets retrieved successfully!",
+                    projection == null ? page : page.map(ticket -> new TicketSummary(ticket, projection))));
+        }
         List<Ticket> tickets = ticketService.getAllTickets();
 
         if (CollectionUtils.isEmpty(tickets)) {
@@ -82,23 +208,69 @@ public class TicketController {
                     HttpStatus.NOT_FOUND);
         }
 
-        return ResponseEntity.ok(LotteryApiResponse.success("Tickets retrieved successfully!", tickets));
+        return ResponseEntity.ok(LotteryApiResponse.success("Tickets retrieved successfully!",
+                projection == null ? tickets : tickets.stream().map(ticket -> new TicketSummary(ticket, projection)).toList()));
     }
 
     /**
-     * Retrieves a ticket by its ID.
+     * Streams all tickets as newline delimited JSON, one ticket per line, in ascending ID order.
+     * Tickets are written to the response as the store is read, so memory use does not depend on the store size.
      *
-     * @param id Ticket ID
-     * @return The requested ticket
+     * @param cursor ID after which to start, absent to start at the first ticket
+     * @param view   {@code full} (default) or {@code summary} to omit the lines
+     * @param fields Comma separated fields to return instead of a view
+     * @return Chunked stream of tickets
+     */
+    @Operation(summary = "Stream all tickets", description = "Streams every ticket as newline delimited JSON in ascending ID order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tickets streamed successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTickets(
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields) {
+        Set<String> projection = TicketRequests.projection(view, fields);
+        StreamingResponseBody body = output -> {
+            try (Stream<Ticket> tickets = ticketService.streamTickets(cursor);
+                 JsonGenerator generator = streamWriter.createGenerator(output)) {
+                for (Ticket ticket : (Iterable<Ticket>) tickets::iterator) {
+                    streamWriter.writeValue(generator, projection == null ? ticket : new TicketSummary(ticket, projection));
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Retrieves a ticket by its ID. Checked tickets never change, so their full view carries an
+     * ETag and is served from the response cache, or answered with 304 when the client has it.
+     *
+     * @param id     Ticket ID
+     * @param view   {@code full} (default) or {@code summary} to omit the lines
+     * @param fields Comma separated fields to return instead of a view
+     * @return The requested ticket, or {@code null} once a 304 response was set
      */
-    @Operation(summary = "Get ticket by ID", description = "Retrieves a specific ticket using its ID.")
+    @Operation(summary = "Get ticket by ID", description = "Retrieves a specific ticket using its ID. "
+            + "Checked tickets carry an ETag, and If-None-Match with it returns 304 Not Modified. "
+            + "Accept: " + TicketBinaryHttpMessageConverter.MEDIA_TYPE_VALUE + " returns the compact binary form.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Ticket retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Checked ticket not modified"),
             @ApiResponse(responseCode = "404", description = "Ticket not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<LotteryApiResponse<Ticket>> getTicketById(@PathVariable Integer id) {
+    public ResponseEntity<LotteryApiResponse<?>> getTicketById(
+            @PathVariable Long id,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields,
+            WebRequest webRequest,
+            HttpServletResponse response) {
+        Set<String> projection = TicketRequests.projection(view, fields);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT); // Also on 304, which is answered without an entity
         Ticket ticket = ticketService.getTicketById(id);
 
         if (ticket == null) {
@@ -107,28 +279,81 @@ public class TicketController {
                     HttpStatus.NOT_FOUND);
         }
 
-        return ResponseEntity.ok(LotteryApiResponse.success("Ticket retrieved successfully!", ticket));
+        if (projection == null && ticket.isChecked()) {
+            boolean binary = acceptsBinary(webRequest);
+            String eTag = "\"" + ticket.getId() + "-" + ticket.getVersion() + (binary ? "-bin" : "") + "\"";
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(eTag).body(LotteryApiResponse.success(
+                    "Ticket retrieved successfully!", binary ? ticket : responseCache.get(ticket, this::toJson)));
+        }
+
+        return ResponseEntity.ok(LotteryApiResponse.success("Ticket retrieved successfully!",
+                projection == null ? ticket : new TicketSummary(ticket, projection)));
+    }
+
+    /**
+     * Retrieves one page of the lines of a ticket, for tickets too large to read at once.
+     *
+     * @param id     Ticket ID
+     * @param offset Position of the first line (default 0)
+     * @param limit  Maximum number of lines (default 1000)
+     * @param sorted Whether to return the lines sorted by result, only allowed once the ticket is checked
+     * @return The requested {@link LinePage}
+     */
+    @Operation(summary = "Get a page of ticket lines", description = "Retrieves the lines of a ticket from an offset. "
+            + "Sorted pages are available once the ticket status has been checked.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lines retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
+            @ApiResponse(responseCode = "404", description = "Ticket not found"),
+            @ApiResponse(responseCode = "409", description = "Ticket not checked yet"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{id}/lines")
+    public ResponseEntity<LotteryApiResponse<LinePage>> getTicketLines(
+            @PathVariable Long id,
+            @RequestParam(value = "offset", defaultValue = "0")
+            @Min(value = 0, message = "Offset must not be negative") int offset,
+            @RequestParam(value = "limit", defaultValue = "" + TicketRequests.DEFAULT_LINE_PAGE_SIZE)
+            @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = TicketRequests.MAX_LINE_PAGE_SIZE, message = "Limit must be at most " + TicketRequests.MAX_LINE_PAGE_SIZE) int limit,
+            @RequestParam(value = "sorted", defaultValue = "false") boolean sorted) {
+        LinePage page = ticketService.getLinePage(id, offset, limit, sorted);
+        return ResponseEntity.ok(LotteryApiResponse.success("Lines retrieved successfully!", page));
     }
 
     /**
      * Adds lines to an existing ticket.
      *
-     * @param id            Ticket ID
-     * @param numberOfLines Number of lines to add (minimum value: 1)
+     * @param id             Ticket ID
+     * @param numberOfLines  Number of lines to add (minimum value: 1)
+     * @param idempotencyKey Key of the request, so a retry returns the ticket as first updated instead of adding lines again
      * @return Updated ticket
      */
-    @Operation(summary = "Add lines to ticket", description = "Adds additional lines to an existing ticket.")
+    @Operation(summary = "Add lines to ticket", description = "Adds additional lines to an existing ticket. "
+            + "Retries with the same Idempotency-Key header return the ticket as updated by the first request.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Ticket updated successfully"),
             @ApiResponse(responseCode = "404", description = "Ticket not found"),
-            @ApiResponse(responseCode = "500", description = "Internal server error")
+            @ApiResponse(responseCode = "422", description = "Idempotency key used for a different request"),
+            @ApiResponse(responseCode = "429", description = "Line rate of the client exceeded"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Too many lines being generated")
     })
     @PutMapping("/{id}")
     public ResponseEntity<LotteryApiResponse<Ticket>> addLinesToTicket(
-            @PathVariable Integer id,
+            @PathVariable Long id,
             @RequestParam("numberOfLines")
-            @Min(value = 1, message = "Number of lines must be at least 1") int numberOfLines) {
-        Ticket ticket = ticketService.addLines(id, numberOfLines);
+            @Min(value = 1, message = "Number of lines must be at least 1") int numberOfLines,
+            @RequestHeader(value = TicketRequests.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            HttpServletRequest request) {
+        Ticket ticket = idempotencyCache.execute(client(request), idempotencyKey, "PUT /ticket/" + id + "?numberOfLines=" + numberOfLines, () -> {
+            try (AdmissionControl.Permit permit = admit(request, numberOfLines)) {
+                return ticketService.addLines(id, numberOfLines);
+            }
+        });
         if (ticket == null) {
             throw new CustomException(ErrorCode.TICKET_NOT_FOUND,
                     "Ticket not found for ID: " + id,
@@ -151,7 +376,7 @@ public class TicketController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PutMapping("/status/{id}")
-    public ResponseEntity<LotteryApiResponse<Ticket>> checkTicketStatus(@PathVariable Integer id) {
+    public ResponseEntity<LotteryApiResponse<Ticket>> checkTicketStatus(@PathVariable Long id) {
         Ticket ticket = ticketService.checkTicketStatus(id);
         if ((null == ticket) || CollectionUtils.isEmpty(ticket.getLines())) {
             throw new CustomException(ErrorCode.TICKET_NOT_FOUND,
@@ -161,8 +386,91 @@ public class TicketController {
 
         return ResponseEntity.ok(LotteryApiResponse.success("Ticket status retrieved successfully!", ticket));
     }
-}
 
+    /**
+     * @return {@code true} if content negotiation writes the ticket in the binary format, which has
+     * no use for cached JSON
+     */
+    private static boolean acceptsBinary(WebRequest webRequest) {
+        String[] accept = webRequest.getHeaderValues(HttpHeaders.ACCEPT);
+        try {
+            return accept != null && TicketBinaryHttpMessageConverter.isNegotiated(MediaType.parseMediaTypes(Arrays.asList(accept)));
+        } catch (InvalidMediaTypeException e) {
+            return false; // Refused by content negotiation whatever the variant
+        }
+    }
 
+    /**
+     * Serializes a ticket for the response cache.
+     */
+    private RawJson toJson(Ticket ticket) {
+        try {
+            return RawJson.of(objectMapper.writeValueAsBytes(ticket));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
+    /**
+     * Admits a request generating lines against the budget of its client.
+     *
+     * @return The reservation of the lines, to be closed once they are generated
+     */
+    private AdmissionControl.Permit admit(HttpServletRequest request, long lines) {
+        return admissionControl.admit(client(request), lines);
+    }
 
+    /**
+     * @return The client sending a request, identified by the {@code X-Client-Id} header set by the
+     * gateway or else by the remote address
+     */
+    private static String client(HttpServletRequest request) {
+        String client = request.getHeader(TicketRequests.CLIENT_ID);
+        return client != null ? client : request.getRemoteAddr();
+    }
+
+    /**
+     * Checks many tickets in one request and streams a result per ticket back as newline delimited
+     * JSON, as each chunk of tickets is checked. Exactly one selection must be given.
+     *
+     * @param ids       IDs of the tickets to check
+     * @param fromId    Lowest ID of a range of tickets to check, with {@code toId}
+     * @param toId      Highest ID of a range of tickets to check, with {@code fromId}
+     * @param unchecked {@code true} to check every ticket not checked yet
+     * @return Chunked stream of {@link TicketCheckResult}
+     */
+    @Operation(summary = "Check ticket statuses in bulk", description = "Checks a list of tickets, a range of ticket IDs "
+            + "or all unchecked tickets, and streams the outcome for each ticket.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tickets checked, results streamed"),
+            @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PutMapping(value = "/status", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> checkTicketStatuses(
+            @RequestParam(value = "ids", required = false) List<Long> ids,
+            @RequestParam(value = "fromId", required = false) Long fromId,
+            @RequestParam(value = "toId", required = false) Long toId,
+            @RequestParam(value = "unchecked", defaultValue = "false") boolean unchecked) {
+        TicketRequests.validateSelection(ids, fromId, toId, unchecked);
+        StreamingResponseBody body = output -> {
+            Stream<Long> selected = ids != null ? ids.stream()
+                    : unchecked ? ticketService.uncheckedTicketIds(null)
+                    : ticketService.ticketIdsBetween(fromId, toId);
+            try (JsonGenerator generator = streamWriter.createGenerator(output)) {
+                ticketService.checkTickets(selected, results -> {
+                    try {
+                        for (TicketCheckResult result : results) {
+                            streamWriter.writeValue(generator, result);
+                            generator.writeRaw('\n');
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
@@ -0,0 +1,106 @@
+package com.rahul.lotteryassignment.controller;
+
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.dto.TicketSummary;
+import com.rahul.lotteryassignment.exception.CustomException;
+import org.springframework.http.HttpStatus;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Limits, headers and parameter checks of the ticket API, shared by {@link TicketController} and
+ * {@link ReactiveTicketController} so both stacks accept and refuse the same requests.
+ */
+final class TicketRequests {
+
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_LINE_PAGE_SIZE = 10_000;
+    static final int DEFAULT_LINE_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 10_000; //Tickets created or IDs checked by one request
+
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String CLIENT_ID = "X-Client-Id"; //Set by the gateway, else clients are told apart by remote address
+
+    private TicketRequests() {
+    }
+
+    /**
+     * Expands the parameters of a batch into the number of lines of each ticket.
+     *
+     * @throws CustomException if the batch is empty, too large or asks for tickets without lines
+     */
+    static int[] batchLineCounts(Integer count, List<Integer> numberOfLines) {
+        if (numberOfLines.isEmpty() || numberOfLines.stream().anyMatch(lines -> lines == null || lines < 1)) {
+            throw invalidInput("Number of lines must be at least 1");
+        }
+        if (numberOfLines.size() > 1) {
+            if (count != null && count != numberOfLines.size()) {
+                throw invalidInput("Count must match the number of line counts given");
+            }
+            if (numberOfLines.size() > MAX_BATCH_SIZE) {
+                throw invalidInput("Batch size must be at most " + MAX_BATCH_SIZE);
+            }
+            return numberOfLines.stream().mapToInt(Integer::intValue).toArray();
+        }
+        int size = count != null ? count : 1;
+        if (size < 1 || size > MAX_BATCH_SIZE) {
+            throw invalidInput("Count must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        int[] lineCounts = new int[size];
+        Arrays.fill(lineCounts, numberOfLines.get(0));
+        return lineCounts;
+    }
+
+    /**
+     * Validates the selection of tickets of a bulk check.
+     *
+     * @throws CustomException unless exactly one valid selection is given
+     */
+    static void validateSelection(List<Long> ids, Long fromId, Long toId, boolean unchecked) {
+        int selections = (ids != null ? 1 : 0) + (fromId != null || toId != null ? 1 : 0) + (unchecked ? 1 : 0);
+        if (selections != 1) {
+            throw invalidInput("Exactly one of ids, fromId and toId, or unchecked=true must be given");
+        }
+        if (ids != null && (ids.isEmpty() || ids.size() > MAX_BATCH_SIZE || ids.contains(null))) {
+            throw invalidInput("Between 1 and " + MAX_BATCH_SIZE + " IDs must be given");
+        }
+        if ((fromId != null || toId != null) && (fromId == null || toId == null || fromId < 0 || fromId > toId)) {
+            throw invalidInput("A range needs both fromId and toId, with 0 <= fromId <= toId");
+        }
+    }
+
+    /**
+     * Resolves the fields requested through {@code view} or {@code fields}.
+     *
+     * @return The fields to return, or {@code null} for full tickets
+     * @throws CustomException if the view or a field is unknown
+     */
+    static Set<String> projection(String view, String fields) {
+        if (fields != null) {
+            Set<String> requested = Arrays.stream(fields.split(","))
+                    .map(String::trim)
+                    .filter(field -> !field.isEmpty())
+                    .collect(Collectors.toUnmodifiableSet());
+            if (requested.isEmpty() || !TicketSummary.FIELDS.containsAll(requested)) {
+                throw invalidInput("Fields must be a comma separated subset of " + TicketSummary.FIELDS);
+            }
+            return requested;
+        }
+        if (view == null || "full".equalsIgnoreCase(view)) {
+            return null;
+        }
+        if ("summary".equalsIgnoreCase(view)) {
+            return TicketSummary.SUMMARY_FIELDS;
+        }
+        throw invalidInput("View must be full or summary");
+    }
+
+    private static CustomException invalidInput(String message) {
+        return new CustomException(ErrorCode.INVALID_INPUT, message, HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,33 @@
+package com.rahul.lotteryassignment.dto;
+
+import com.rahul.lotteryassignment.constant.DrawStatus;
+import lombok.Getter;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * State of a draw and of the tickets it holds, read at one point in time.
+ */
+@Getter
+public class Draw {
+
+    private final long id; //Sequential number of the draw, starting at 1
+    private final long startId; //Lowest ticket ID of the draw; its tickets end where the next draw starts
+    private final DrawStatus status; //Lifecycle state of the draw
+    private final long ticketCount; //Tickets held by the draw
+    private final long lineCount; //Lines on all tickets of the draw
+
+    /**
+     * @param id          Number of the draw
+     * @param startId     Lowest ticket ID of the draw
+     * @param status      State of the draw
+     * @param ticketCount Tickets held by the draw
+     * @param lineCount   Lines on the tickets of the draw
+     */
+    public Draw(long id, long startId, DrawStatus status, long ticketCount, long lineCount) {
+        this.id = id;
+        this.startId = startId;
+        this.status = status;
+        this.ticketCount = ticketCount;
+        this.lineCount = lineCount;
+    }
+}
@@ -1,24 +1,56 @@
 package com.rahul.lotteryassignment.dto;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.Getter;
-import lombok.Setter;
 
-import java.util.Arrays;
 import java.util.List;
 
 /**
  * Represents a single Line in the lottery system.
  * Each line contains 3 numbers and a calculated result based on the rules.
+ * <p>
+ * There are only 27 possible lines, so every line is identified by a one byte base-3 code
+ * ({@code num1 * 9 + num2 * 3 + num3}) and instances are immutable flyweights shared from a
+ * precomputed table. Tickets store codes only and hand out these instances as views.
+ * </p>
  */
 @Getter
-@Setter
-public class Line {
+public final class Line {
 
+    /**
+     * Number of distinct lines, one per code.
+     */
+    public static final int CODE_COUNT = 27;
+    /**
+     * Every possible result, best first. The position of a result in this array is its rank.
+     */
+    private static final int[] RESULTS_DESCENDING = {10, 5, 1, 0};
+    public static final int RESULT_COUNT = RESULTS_DESCENDING.length;
+
+    private static final Line[] LINES = new Line[CODE_COUNT];
+    private static final byte[] RESULTS = new byte[CODE_COUNT];
+    private static final byte[] RANKS = new byte[CODE_COUNT];
 
-    private List<Integer> numbers;  //Numbers in the line (always 3 numbers)
-    private int result; //The result of this line based on lottery rules
+    static {
+        for (int code = 0; code < CODE_COUNT; code++) {
+            LINES[code] = new Line(code / 9, code / 3 % 3, code % 3);
+            RESULTS[code] = (byte) LINES[code].result;
+            for (int rank = 0; rank < RESULT_COUNT; rank++) {
+                if (RESULTS_DESCENDING[rank] == LINES[code].result) {
+                    RANKS[code] = (byte) rank;
+                }
+            }
+        }
+    }
+
+    private final List<Integer> numbers;  //Numbers in the line (always 3 numbers)
+    private final int result; //The result of this line based on lottery rules
+    @JsonIgnore
+    private final byte code; //Base-3 code of the numbers
 
     /**
      * @param num1 First number in the line (0-2)
@@ -27,13 +59,90 @@ public class Line {
      * @author Rahul Kumar, reader.rahul@gmail.com
      * Constructs a Line with three numbers and calculates its result.
      */
-    public Line(@Min(0) @Max(2) int num1, @Min(0) @Max(2) int num2, @Min(0) @Max(2) int num3) {
-        this.numbers = Arrays.asList(num1, num2, num3);
-        this.result = calculateResult();
+    private Line(int num1, int num2, int num3) {
+        this.numbers = List.of(num1, num2, num3);
+        this.code = (byte) encode(num1, num2, num3);
+        this.result = calculateResult(num1, num2, num3);
+    }
+
+    /**
+     * Returns the shared line for three numbers.
+     *
+     * @param num1 First number in the line (0-2)
+     * @param num2 Second number in the line (0-2)
+     * @param num3 Third number in the line (0-2)
+     * @return The line instance for these numbers
+     */
+    public static Line of(@Min(0) @Max(2) int num1, @Min(0) @Max(2) int num2, @Min(0) @Max(2) int num3) {
+        if ((num1 | num2 | num3) < 0 || num1 > 2 || num2 > 2 || num3 > 2) {
+            throw new IllegalArgumentException("Line numbers must be between 0 and 2");
+        }
+        return LINES[encode(num1, num2, num3)];
+    }
+
+    /**
+     * Returns the shared line for a code.
+     *
+     * @param code Base-3 code of the line (0-26)
+     * @return The line instance for this code
+     */
+    public static Line of(int code) {
+        return LINES[code];
+    }
+
+    /**
+     * Creates a line from its JSON representation.
+     *
+     * @param numbers The three numbers of the line
+     * @return The line instance for these numbers
+     */
+    @JsonCreator
+    static Line fromJson(@JsonProperty("numbers") List<Integer> numbers) {
+        if (numbers == null || numbers.size() != 3) {
+            throw new IllegalArgumentException("A line must contain exactly 3 numbers");
+        }
+        return of(numbers.get(0), numbers.get(1), numbers.get(2));
+    }
+
+    /**
+     * Encodes three numbers into a line code.
+     *
+     * @return Base-3 code of the numbers (0-26)
+     */
+    public static int encode(int num1, int num2, int num3) {
+        return num1 * 9 + num2 * 3 + num3;
+    }
+
+    /**
+     * Looks up the precomputed result of a line code.
+     *
+     * @param code Base-3 code of the line (0-26)
+     * @return The result of the line
+     */
+    public static int resultOf(int code) {
+        return RESULTS[code];
+    }
+
+    /**
+     * Looks up the rank of a line code's result, 0 being the best result.
+     *
+     * @param code Base-3 code of the line (0-26)
+     * @return Position of the line's result in descending result order
+     */
+    public static int rankOf(int code) {
+        return RANKS[code];
+    }
+
+    /**
+     * @param rank Position in descending result order (0 to {@link #RESULT_COUNT} - 1)
+     * @return The result with this rank
+     */
+    public static int resultOfRank(int rank) {
+        return RESULTS_DESCENDING[rank];
     }
 
     /**
-     * Calculates the result of this line based on lottery rules:
+     * Calculates the result of a line based on lottery rules:
      * - 10 points if the sum of numbers equals 2.
      * - 5 points if all numbers are the same.
      * - 1 point if the first number differs from the others.
@@ -41,11 +150,10 @@ public class Line {
      *
      * @return Calculated result for the line
      */
-    private int calculateResult() {
-        int sum = numbers.stream().mapToInt(Integer::intValue).sum();
-        if (sum == 2) return 10;
-        if (numbers.get(0).equals(numbers.get(1)) && numbers.get(1).equals(numbers.get(2))) return 5;// all are same
-        if (!numbers.get(0).equals(numbers.get(1)) && !numbers.get(0).equals(numbers.get(2)))
+    private static int calculateResult(int num1, int num2, int num3) {
+        if (num1 + num2 + num3 == 2) return 10;
+        if (num1 == num2 && num2 == num3) return 5;// all are same
+        if (num1 != num2 && num1 != num3)
             return 1;// 1st number different from 2nd and 3rd
         return 0;
     }
@@ -0,0 +1,36 @@
+package com.rahul.lotteryassignment.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * One page of the lines of a ticket.
+ */
+@Getter
+public class LinePage {
+
+    private final Long ticketId; //ID of the ticket owning the lines
+    private final int offset; //Position of the first line of this page on the ticket
+    private final int totalLines; //Number of lines on the ticket when the page was read
+    private final boolean sorted; //Whether the lines are in order of result, best first
+    private final List<Line> lines; //Lines of this page
+    private final Integer nextOffset; //Offset of the next page, or null on the last page
+
+    /**
+     * @param ticketId   ID of the ticket owning the lines
+     * @param offset     Position of the first line of this page
+     * @param totalLines Number of lines on the ticket
+     * @param sorted     Whether the lines are sorted by result
+     * @param lines      Lines of this page
+     */
+    public LinePage(Long ticketId, int offset, int totalLines, boolean sorted, List<Line> lines) {
+        this.ticketId = ticketId;
+        this.offset = offset;
+        this.totalLines = totalLines;
+        this.sorted = sorted;
+        this.lines = lines;
+        this.nextOffset = offset + lines.size() < totalLines ? offset + lines.size() : null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.rahul.lotteryassignment.dto;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Deterministic source of line codes for a ticket.
+ * <p>
+ * A ticket backed by a line sequence does not store its lines; the code of any line is
+ * recomputed from the ticket ID and the line position whenever it is needed.
+ * </p>
+ */
+public interface LineSequence {
+
+    /**
+     * Computes the code of one line.
+     *
+     * @param ticketId ID of the ticket owning the line
+     * @param index    Position of the line on the ticket
+     * @return Base-3 code of the line (0-26)
+     */
+    int codeAt(long ticketId, int index);
+
+    /**
+     * Identifies the codes of the sequence without revealing how they are computed, so that lines
+     * recorded as sequence lines are never recomputed from a different sequence.
+     *
+     * @return Value equal for sequences computing the same codes
+     */
+    long fingerprint();
+
+    /**
+     * Computes the codes of consecutive lines.
+     *
+     * @param ticketId  ID of the ticket owning the lines
+     * @param fromIndex Position of the first line
+     * @param codes     Array receiving the codes
+     * @param offset    First position to write in the array
+     * @param length    Number of lines to compute
+     */
+    default void fill(long ticketId, int fromIndex, byte[] codes, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            codes[offset + i] = (byte) codeAt(ticketId, fromIndex + i);
+        }
+    }
+}
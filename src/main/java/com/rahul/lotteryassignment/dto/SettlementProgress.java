@@ -0,0 +1,50 @@
+package com.rahul.lotteryassignment.dto;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Progress of the current or last draw settlement run.
+ */
+@Getter
+public class SettlementProgress {
+
+    /**
+     * Progress before any settlement has run.
+     */
+    public static final SettlementProgress NONE = new SettlementProgress(false, null, null, 0, 0, null, null);
+
+    private final boolean running; //Whether a run is in progress
+    private final Long upToId; //Highest ticket ID settled by the run, fixed when it started
+    private final Long cursor; //ID of the last ticket of the last completed chunk
+    private final long ticketsChecked; //Tickets checked by the run so far
+    private final long chunksCompleted; //Chunks checked and checkpointed by the run so far
+    private final Instant startedAt; //Start of the run, or of its resumption after a restart
+    private final Instant finishedAt; //End of the run, null while it is running
+    private final double ticketsPerSecond; //Tickets checked per second since the run started
+
+    /**
+     * @param running         Whether the run is in progress
+     * @param upToId          Highest ticket ID settled by the run
+     * @param cursor          ID of the last checkpointed ticket
+     * @param ticketsChecked  Tickets checked by the run
+     * @param chunksCompleted Chunks checkpointed by the run
+     * @param startedAt       Start of the run
+     * @param finishedAt      End of the run, {@code null} while it is running
+     */
+    public SettlementProgress(boolean running, Long upToId, Long cursor, long ticketsChecked, long chunksCompleted,
+                              Instant startedAt, Instant finishedAt) {
+        this.running = running;
+        this.upToId = upToId;
+        this.cursor = cursor;
+        this.ticketsChecked = ticketsChecked;
+        this.chunksCompleted = chunksCompleted;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        long elapsedMs = startedAt == null ? 0
+                : (finishedAt != null ? finishedAt : Instant.now()).toEpochMilli() - startedAt.toEpochMilli();
+        this.ticketsPerSecond = elapsedMs > 0 ? ticketsChecked * 1000.0 / elapsedMs : 0;
+    }
+}
@@ -1,34 +1,158 @@
 package com.rahul.lotteryassignment.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.RandomAccess;
 
 /**
  * @author Rahul Kumar, reader.rahul@gmail.com
  * Represents a Ticket in the lottery system.
  * Contains a unique ID, a list of Lines, and a flag to check if the ticket has been evaluated.
+ * <p>
+ * Lines are held as one byte codes (see {@link Line}) in segments of {@value #SEGMENT_SIZE} lines;
+ * {@link #getLines()} exposes them as a read-only list of shared {@link Line} instances. Only the
+ * last segment is ever grown or written by appends, and any range of lines is reached in time
+ * proportional to its length. Tickets whose lines come
+ * from a deterministic {@link LineSequence} store only the line count and recompute codes on
+ * demand until the lines have to be rearranged. A histogram of line results is kept up to date
+ * on every change, so summaries and sorting by result never need to compare lines.
+ * </p>
+ * <p>
+ * The lines, the histogram and the checked flag form an immutable, versioned state that every
+ * change replaces as a whole through a single volatile write. Readers load the state once and
+ * never block, and always see a state some change left behind: lines and counts never disagree,
+ * and a checked ticket is always sorted. Appends write past the line count of the current state
+ * into its last segment, which no reader of that state looks at, so they copy neither the lines
+ * nor the segments. {@link #snapshot()} freezes the current state into a read-only ticket for responses.
+ * </p>
+ * <p>
+ * Writers are not lock-free: changes come one at a time, under {@code TicketStore#update}. The
+ * journal must record the changes of a ticket in the order they are applied, and an append owns
+ * the free end of the last segment until it publishes, so concurrent writers could neither be
+ * journaled in order nor retried without copying that segment. The lock is only held to journal
+ * and publish a change; new lines are generated before it is taken.
+ * </p>
  */
-@Getter
-@Setter
+@JsonPropertyOrder({"id", "lines", "checked"})
 public class Ticket {
+    private static final byte[][] NO_SEGMENTS = new byte[0][];
+    private static final int SEGMENT_SHIFT = 16;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT; //Lines per segment, all segments but the last are full
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int CHUNK_SIZE = 4096; //Lines computed at a time when reading a sequence
+
     @NotNull
-    private Integer id; //Unique ID of the ticket
-    @NotNull
-    private List<Line> lines; //List of Lines on the ticket
-    private boolean checked; //Indicates whether the ticket status has been checked
+    @Getter
+    @Setter
+    private Long id; //Unique ID of the ticket
+    private volatile State state; //Current lines and status, replaced as a whole on every change
+    private final boolean readOnly; //Set on snapshots, which refuse all changes
 
     /**
-     * Default constructor. Generates a random ID for the ticket and initializes the lines list.
+     * Default constructor. Initializes an empty ticket without an ID.
      */
     public Ticket() {
-        this.id = ThreadLocalRandom.current().nextInt(1000, 9999 + 1);
-        this.lines = new ArrayList<>();
-        this.checked = false;
+        this.state = State.EMPTY;
+        this.readOnly = false;
+    }
+
+    /**
+     * Creates an empty ticket with the given ID.
+     *
+     * @param id Unique ID of the ticket
+     */
+    public Ticket(Long id) {
+        this();
+        this.id = id;
+    }
+
+    private Ticket(Long id, State state) {
+        this.id = id;
+        this.state = state;
+        this.readOnly = true;
+    }
+
+    /**
+     * Returns a read-only ticket holding the current state, which later changes to this ticket
+     * do not affect. Takes constant time, as the state is shared.
+     *
+     * @return The frozen ticket
+     */
+    public Ticket snapshot() {
+        return readOnly ? this : new Ticket(id, state);
+    }
+
+    /**
+     * @return Number of changes made to the ticket since it was created
+     */
+    @JsonIgnore
+    public long getVersion() {
+        return state.version;
+    }
+
+    /**
+     * @return Indicates whether the ticket status has been checked
+     */
+    public boolean isChecked() {
+        return state.checked;
+    }
+
+    /**
+     * Sets the checked flag without sorting the lines.
+     *
+     * @param checked Whether the ticket status has been checked
+     */
+    public void setChecked(boolean checked) {
+        State current = writable();
+        Draft draft = new Draft(current);
+        draft.checked = checked;
+        publish(current, draft);
+    }
+
+    /**
+     * Sorts the lines by result and marks the ticket checked in a single change, so no reader
+     * sees one without the other.
+     *
+     * @return {@code false} if the ticket was already checked and is left unchanged
+     */
+    public boolean check() {
+        State current = writable();
+        if (current.checked) {
+            return false;
+        }
+        Draft draft = new Draft(current);
+        draft.sortByResult(id);
+        draft.checked = true;
+        publish(current, draft);
+        return true;
+    }
+
+    /**
+     * @return Read-only view of the lines on the ticket, unaffected by later changes to the ticket
+     */
+    @NotNull
+    public List<Line> getLines() {
+        return new LineView(id, state);
+    }
+
+    /**
+     * Replaces all lines of the ticket.
+     *
+     * @param lines The new lines
+     */
+    public void setLines(List<Line> lines) {
+        State current = writable();
+        Draft draft = new Draft(current);
+        draft.clear();
+        draft.addLines(lines);
+        publish(current, draft);
     }
 
     /**
@@ -37,6 +161,405 @@ public class Ticket {
      * @param newLines List of lines to be added
      */
     public void addLines(List<Line> newLines) {
-        this.lines.addAll(newLines);
+        State current = writable();
+        Draft draft = new Draft(current);
+        draft.materialize(id);
+        draft.addLines(newLines);
+        publish(current, draft);
+    }
+
+    /**
+     * Adds new lines to the ticket from their codes.
+     *
+     * @param codes Line codes to be added
+     * @param count Number of codes to take from the start of the array
+     */
+    public void addLineCodes(byte[] codes, int count) {
+        State current = writable();
+        Draft draft = new Draft(current);
+        draft.materialize(id);
+        draft.appendCodes(codes, 0, count);
+        publish(current, draft);
+    }
+
+    /**
+     * Adds the next lines of a deterministic sequence without storing them.
+     *
+     * @param sequence Source of the line codes, keyed by this ticket's ID and the line position
+     * @param count    Number of lines to add
+     */
+    public void addSequenceLines(LineSequence sequence, int count) {
+        State current = writable();
+        Draft draft = new Draft(current);
+        if (draft.lineCount == 0) {
+            draft.lineSequence = sequence;
+        }
+        if (draft.lineSequence == sequence) {
+            int from = draft.lineCount;
+            draft.lineCount = Math.addExact(draft.lineCount, count);
+            byte[] chunk = new byte[Math.min(count, CHUNK_SIZE)];
+            for (int i = from; i < draft.lineCount; i += chunk.length) {
+                int length = Math.min(chunk.length, draft.lineCount - i);
+                sequence.fill(id, i, chunk, 0, length);
+                draft.countResults(chunk, 0, length);
+            }
+        } else {
+            byte[] chunk = new byte[Math.min(count, CHUNK_SIZE)];
+            for (int added = 0; added < count; added += chunk.length) {
+                int length = Math.min(chunk.length, count - added);
+                sequence.fill(id, draft.lineCount, chunk, 0, length);
+                draft.appendCodes(chunk, 0, length);
+            }
+        }
+        publish(current, draft);
+    }
+
+    /**
+     * Reorders the lines by result, best first, keeping lines with equal results in their
+     * original order. Runs in linear time as a counting sort over the result histogram.
+     */
+    public void sortLinesByResult() {
+        State current = writable();
+        Draft draft = new Draft(current);
+        draft.sortByResult(id);
+        publish(current, draft);
+    }
+
+    /**
+     * Returns the number of lines with a given result.
+     *
+     * @param result A line result (10, 5, 1 or 0)
+     * @return Number of lines on the ticket with this result
+     */
+    public int getResultCount(int result) {
+        int[] resultCounts = state.resultCounts;
+        for (int rank = 0; rank < Line.RESULT_COUNT; rank++) {
+            if (Line.resultOfRank(rank) == result) {
+                return resultCounts[rank];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return Best result of any line on the ticket, or {@code null} if it has no lines
+     */
+    @JsonIgnore
+    public Integer getBestResult() {
+        int[] resultCounts = state.resultCounts;
+        for (int rank = 0; rank < Line.RESULT_COUNT; rank++) {
+            if (resultCounts[rank] > 0) {
+                return Line.resultOfRank(rank);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Sum of the results of all lines on the ticket
+     */
+    @JsonIgnore
+    public long getTotalScore() {
+        int[] resultCounts = state.resultCounts;
+        long total = 0;
+        for (int rank = 0; rank < Line.RESULT_COUNT; rank++) {
+            total += (long) resultCounts[rank] * Line.resultOfRank(rank);
+        }
+        return total;
+    }
+
+    /**
+     * @return Number of lines on the ticket
+     */
+    @JsonIgnore
+    public int getLineCount() {
+        return state.lineCount;
+    }
+
+    /**
+     * Returns the code of a single line.
+     *
+     * @param index Position of the line on the ticket
+     * @return Base-3 code of the line
+     */
+    public int getLineCode(int index) {
+        return state.codeAt(id, index);
+    }
+
+    /**
+     * Returns a range of lines, taking time proportional to the length of the range only.
+     *
+     * @param fromIndex Position of the first line
+     * @param length    Number of lines
+     * @return Read-only list of the lines, unaffected by later changes to the ticket
+     */
+    public List<Line> getLines(int fromIndex, int length) {
+        byte[] codes = new byte[length];
+        copyLineCodes(fromIndex, codes, 0, length);
+        Line[] lines = new Line[length];
+        for (int i = 0; i < length; i++) {
+            lines[i] = Line.of(codes[i]);
+        }
+        return List.of(lines);
+    }
+
+    /**
+     * Copies the codes of consecutive lines.
+     *
+     * @param fromIndex Position of the first line
+     * @param codes     Array receiving the codes
+     * @param offset    First position to write in the array
+     * @param length    Number of lines to copy
+     */
+    public void copyLineCodes(int fromIndex, byte[] codes, int offset, int length) {
+        state.copyCodes(id, fromIndex, codes, offset, length);
+    }
+
+    /**
+     * @return {@code true} if the lines are recomputed from a sequence instead of being stored
+     */
+    @JsonIgnore
+    public boolean isSequenceBacked() {
+        return state.lineSequence != null;
+    }
+
+    /**
+     * @return The current state, if the ticket may be changed
+     */
+    private State writable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Ticket snapshot " + id + " is read-only");
+        }
+        return state;
+    }
+
+    /**
+     * Replaces the state the change started from with its result. Writers are serialized by the
+     * store, so the state cannot have moved on since the change read it.
+     */
+    private void publish(State current, Draft draft) {
+        assert state == current : "Ticket " + id + " was changed by two writers at once";
+        state = draft.toState(current.version + 1);
+    }
+
+    /**
+     * Allocates exactly enough segments for the given number of lines.
+     */
+    private static byte[][] allocateSegments(int count) {
+        byte[][] allocated = new byte[(count + SEGMENT_MASK) >>> SEGMENT_SHIFT][];
+        for (int segment = 0; segment < allocated.length; segment++) {
+            allocated[segment] = new byte[Math.min(SEGMENT_SIZE, count - (segment << SEGMENT_SHIFT))];
+        }
+        return allocated;
+    }
+
+    /**
+     * One version of the ticket. Never changes once published; only the codes past
+     * {@code lineCount} in the last segment may be written by the change producing the next version.
+     */
+    private static final class State {
+        private static final State EMPTY = new State(0, NO_SEGMENTS, 0, null, new int[Line.RESULT_COUNT], false);
+
+        private final long version; //Number of changes that led to this state
+        private final byte[][] segments; //Codes of the lines on the ticket, only the first lineCount are used
+        private final int lineCount; //Number of lines on the ticket
+        private final LineSequence lineSequence; //Source of all lines when they are not stored, otherwise null
+        private final int[] resultCounts; //Number of lines per result rank
+        private final boolean checked; //Indicates whether the ticket status has been checked
+
+        private State(long version, byte[][] segments, int lineCount, LineSequence lineSequence,
+                      int[] resultCounts, boolean checked) {
+            this.version = version;
+            this.segments = segments;
+            this.lineCount = lineCount;
+            this.lineSequence = lineSequence;
+            this.resultCounts = resultCounts;
+            this.checked = checked;
+        }
+
+        private int codeAt(Long id, int index) {
+            if (index >= lineCount) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return lineSequence != null
+                    ? lineSequence.codeAt(id, index)
+                    : segments[index >>> SEGMENT_SHIFT][index & SEGMENT_MASK];
+        }
+
+        private void copyCodes(Long id, int fromIndex, byte[] codes, int offset, int length) {
+            if (fromIndex < 0 || length < 0 || fromIndex + length > lineCount) {
+                throw new IndexOutOfBoundsException(fromIndex + length);
+            }
+            if (lineSequence != null) {
+                lineSequence.fill(id, fromIndex, codes, offset, length);
+                return;
+            }
+            while (length > 0) {
+                int position = fromIndex & SEGMENT_MASK;
+                int copied = Math.min(length, SEGMENT_SIZE - position);
+                System.arraycopy(segments[fromIndex >>> SEGMENT_SHIFT], position, codes, offset, copied);
+                fromIndex += copied;
+                offset += copied;
+                length -= copied;
+            }
+        }
+    }
+
+    /**
+     * Next state of the ticket while a change builds it. Starts out sharing the segments of the
+     * current state and copies the segment array before replacing any of its entries.
+     */
+    private static final class Draft {
+        private final State base;
+        private byte[][] segments;
+        private boolean segmentsCopied; //Whether segments may be modified without affecting the base state
+        private int lineCount;
+        private LineSequence lineSequence;
+        private final int[] resultCounts;
+        private boolean checked;
+
+        private Draft(State base) {
+            this.base = base;
+            this.segments = base.segments;
+            this.lineCount = base.lineCount;
+            this.lineSequence = base.lineSequence;
+            this.resultCounts = base.resultCounts.clone();
+            this.checked = base.checked;
+        }
+
+        private State toState(long version) {
+            return new State(version, segments, lineCount, lineSequence, resultCounts, checked);
+        }
+
+        private void clear() {
+            replaceSegments(NO_SEGMENTS);
+            lineCount = 0;
+            lineSequence = null;
+            Arrays.fill(resultCounts, 0);
+        }
+
+        private void addLines(List<Line> newLines) {
+            int total = Math.addExact(lineCount, newLines.size());
+            for (Line line : newLines) {
+                byte[] tail = writableTail(total - lineCount);
+                tail[lineCount++ & SEGMENT_MASK] = line.getCode();
+                resultCounts[Line.rankOf(line.getCode())]++;
+            }
+        }
+
+        /**
+         * Turns sequence backed lines into stored codes so they can be modified individually.
+         */
+        private void materialize(Long id) {
+            if (lineSequence != null) {
+                byte[][] stored = allocateSegments(lineCount);
+                for (int segment = 0; segment < stored.length; segment++) {
+                    lineSequence.fill(id, segment << SEGMENT_SHIFT, stored[segment], 0, stored[segment].length);
+                }
+                replaceSegments(stored);
+                lineSequence = null;
+            }
+        }
+
+        /**
+         * Counting sort over the result histogram into new segments.
+         */
+        private void sortByResult(Long id) {
+            int[] next = new int[Line.RESULT_COUNT]; //Next free position for each result rank
+            for (int rank = 1; rank < Line.RESULT_COUNT; rank++) {
+                next[rank] = next[rank - 1] + resultCounts[rank - 1];
+            }
+            byte[][] sorted = allocateSegments(lineCount);
+            byte[] chunk = new byte[Math.min(lineCount, CHUNK_SIZE)];
+            for (int from = 0; from < lineCount; from += chunk.length) {
+                int length = Math.min(chunk.length, lineCount - from);
+                base.copyCodes(id, from, chunk, 0, length);
+                for (int i = 0; i < length; i++) {
+                    int position = next[Line.rankOf(chunk[i])]++;
+                    sorted[position >>> SEGMENT_SHIFT][position & SEGMENT_MASK] = chunk[i];
+                }
+            }
+            replaceSegments(sorted);
+            lineSequence = null;
+        }
+
+        /**
+         * Appends stored line codes, copying into the last segment and starting new ones as it fills.
+         */
+        private void appendCodes(byte[] codes, int offset, int count) {
+            int total = Math.addExact(lineCount, count);
+            countResults(codes, offset, count);
+            while (lineCount < total) {
+                byte[] tail = writableTail(total - lineCount);
+                int position = lineCount & SEGMENT_MASK;
+                int copied = Math.min(total - lineCount, tail.length - position);
+                System.arraycopy(codes, offset, tail, position, copied);
+                lineCount += copied;
+                offset += copied;
+            }
+        }
+
+        /**
+         * Returns the segment receiving the next line, with room for at least one line. A partly
+         * used last segment grows geometrically up to {@value #SEGMENT_SIZE} lines, so small tickets
+         * stay small; earlier segments are never copied again.
+         *
+         * @param wanted Number of lines about to be appended
+         */
+        private byte[] writableTail(int wanted) {
+            int segment = lineCount >>> SEGMENT_SHIFT;
+            int position = lineCount & SEGMENT_MASK;
+            byte[] tail = segment < segments.length ? segments[segment] : null;
+            if (tail == null) {
+                tail = new byte[Math.min(wanted, SEGMENT_SIZE)];
+                setSegment(segment, tail);
+            } else if (position == tail.length) {
+                int capacity = Math.max(position + wanted, position + (position >> 1));
+                tail = Arrays.copyOf(tail, Math.min(capacity, SEGMENT_SIZE));
+                setSegment(segment, tail);
+            }
+            return tail;
+        }
+
+        private void setSegment(int segment, byte[] codes) {
+            if (!segmentsCopied || segment >= segments.length) {
+                replaceSegments(Arrays.copyOf(segments, Math.max(segments.length, segment + 1)));
+            }
+            segments[segment] = codes;
+        }
+
+        private void replaceSegments(byte[][] replacement) {
+            segments = replacement;
+            segmentsCopied = true;
+        }
+
+        private void countResults(byte[] codes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                resultCounts[Line.rankOf(codes[i])]++;
+            }
+        }
+    }
+
+    /**
+     * List view mapping the line codes of one state to their shared {@link Line} instances.
+     */
+    private static final class LineView extends AbstractList<Line> implements RandomAccess {
+        private final Long id;
+        private final State state;
+
+        private LineView(Long id, State state) {
+            this.id = id;
+            this.state = state;
+        }
+
+        @Override
+        public Line get(int index) {
+            return Line.of(state.codeAt(id, index));
+        }
+
+        @Override
+        public int size() {
+            return state.lineCount;
+        }
     }
 }
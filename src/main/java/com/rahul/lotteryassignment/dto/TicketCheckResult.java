@@ -0,0 +1,49 @@
+package com.rahul.lotteryassignment.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rahul.lotteryassignment.constant.CheckStatus;
+import lombok.Getter;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Outcome of checking one ticket in a bulk status check. The lines are not included; they can
+ * be read afterwards, already sorted, through the line pages of the ticket.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TicketCheckResult {
+
+    private final Long id; //ID of the requested ticket
+    private final CheckStatus status; //Outcome of the check
+    private final Integer lineCount; //Number of lines, null if the ticket was not found
+    private final Integer bestResult; //Best result of any line, null without lines or ticket
+    private final Long totalScore; //Sum of the results of all lines, null if the ticket was not found
+
+    /**
+     * @param ticket The checked ticket
+     * @param status {@link CheckStatus#CHECKED} or {@link CheckStatus#ALREADY_CHECKED}
+     */
+    public TicketCheckResult(Ticket ticket, CheckStatus status) {
+        this.id = ticket.getId();
+        this.status = status;
+        this.lineCount = ticket.getLineCount();
+        this.bestResult = ticket.getBestResult();
+        this.totalScore = ticket.getTotalScore();
+    }
+
+    private TicketCheckResult(Long id) {
+        this.id = id;
+        this.status = CheckStatus.NOT_FOUND;
+        this.lineCount = null;
+        this.bestResult = null;
+        this.totalScore = null;
+    }
+
+    /**
+     * @param id ID of a ticket that does not exist
+     * @return A {@link CheckStatus#NOT_FOUND} result
+     */
+    public static TicketCheckResult notFound(Long id) {
+        return new TicketCheckResult(id);
+    }
+}
@@ -0,0 +1,36 @@
+package com.rahul.lotteryassignment.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * @param <T> The type representing each ticket
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * One page of tickets in ascending ID order.
+ */
+@Getter
+public class TicketPage<T> {
+
+    private final List<T> tickets; //Tickets of this page
+    private final Long nextCursor; //Cursor of the next page, or null on the last page
+
+    /**
+     * @param tickets    Tickets of this page
+     * @param nextCursor Value to pass as {@code cursor} to fetch the next page, {@code null} if there is none
+     */
+    public TicketPage(List<T> tickets, Long nextCursor) {
+        this.tickets = tickets;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @param mapper Conversion applied to every ticket
+     * @param <R>    The new type representing each ticket
+     * @return A page with the converted tickets and the same cursor
+     */
+    public <R> TicketPage<R> map(Function<? super T, R> mapper) {
+        return new TicketPage<>(tickets.stream().<R>map(mapper).toList(), nextCursor);
+    }
+}
@@ -0,0 +1,91 @@
+package com.rahul.lotteryassignment.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Projection of a ticket for reads that do not need every line.
+ * <p>
+ * All values except the lines come from the counters kept on the {@link Ticket}, so a summary
+ * costs the same for a ticket of ten lines as for one of ten million. Only the requested fields
+ * are written, and the lines are only read when they are requested.
+ * </p>
+ */
+@Getter
+@JsonSerialize(using = TicketSummary.Serializer.class)
+public class TicketSummary {
+
+    /**
+     * Every field that can be requested.
+     */
+    public static final Set<String> FIELDS = Set.of("id", "checked", "lineCount", "bestResult", "totalScore", "lines");
+    /**
+     * Fields of the summary view, everything but the lines.
+     */
+    public static final Set<String> SUMMARY_FIELDS = Set.of("id", "checked", "lineCount", "bestResult", "totalScore");
+
+    private final Set<String> fields; //Fields written to the response
+    private final Long id; //Unique ID of the ticket
+    private final boolean checked; //Whether the ticket status has been checked
+    private final int lineCount; //Number of lines on the ticket
+    private final Integer bestResult; //Best result of any line, null without lines
+    private final long totalScore; //Sum of the results of all lines
+    private final List<Line> lines; //Read-only view of the lines, only read when requested
+
+    /**
+     * @param ticket The ticket to summarize
+     * @param fields Fields to write, a subset of {@link #FIELDS}
+     */
+    public TicketSummary(Ticket ticket, Set<String> fields) {
+        this.fields = fields;
+        this.id = ticket.getId();
+        this.checked = ticket.isChecked();
+        this.lineCount = ticket.getLineCount();
+        this.bestResult = ticket.getBestResult();
+        this.totalScore = ticket.getTotalScore();
+        this.lines = ticket.getLines();
+    }
+
+    /**
+     * Writes the requested fields in a fixed order.
+     */
+    static final class Serializer extends StdSerializer<TicketSummary> {
+
+        Serializer() {
+            super(TicketSummary.class);
+        }
+
+        @Override
+        public void serialize(TicketSummary summary, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            Set<String> fields = summary.fields;
+            generator.writeStartObject();
+            if (fields.contains("id")) {
+                provider.defaultSerializeField("id", summary.id, generator);
+            }
+            if (fields.contains("checked")) {
+                generator.writeBooleanField("checked", summary.checked);
+            }
+            if (fields.contains("lineCount")) {
+                generator.writeNumberField("lineCount", summary.lineCount);
+            }
+            if (fields.contains("bestResult")) {
+                provider.defaultSerializeField("bestResult", summary.bestResult, generator);
+            }
+            if (fields.contains("totalScore")) {
+                generator.writeNumberField("totalScore", summary.totalScore);
+            }
+            if (fields.contains("lines")) {
+                provider.defaultSerializeField("lines", summary.lines, generator);
+            }
+            generator.writeEndObject();
+        }
+    }
+}
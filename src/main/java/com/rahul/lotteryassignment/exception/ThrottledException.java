@@ -0,0 +1,28 @@
+package com.rahul.lotteryassignment.exception;
+
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * <p>
+ * Exception for requests refused to protect the lottery system, telling the client when to retry.
+ * </p>
+ */
+@Getter
+public class ThrottledException extends CustomException {
+
+    private final long retryAfterSeconds; //Seconds after which the request may be admitted, sent as Retry-After
+
+    /**
+     * @param errorCode         the error code describing why the request was refused
+     * @param customMessage     the custom message for this exception
+     * @param httpStatus        the HTTP status to be associated with the exception
+     * @param retryAfterSeconds the seconds to wait before retrying
+     */
+    public ThrottledException(ErrorCode errorCode, String customMessage, HttpStatus httpStatus, long retryAfterSeconds) {
+        super(errorCode, customMessage, httpStatus);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -3,8 +3,11 @@ package com.rahul.lotteryassignment.handler;
 import com.rahul.lotteryassignment.constant.ErrorCode;
 import com.rahul.lotteryassignment.dto.LotteryApiResponse;
 import com.rahul.lotteryassignment.exception.CustomException;
+import com.rahul.lotteryassignment.exception.ThrottledException;
+import com.rahul.lotteryassignment.metrics.TicketMetrics;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -24,16 +27,28 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final TicketMetrics metrics;
+
+    public GlobalExceptionHandler(TicketMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Handles custom exceptions thrown within the lottery system.
      *
      * @param ex the CustomException instance thrown
-     * @return a ResponseEntity with a BAD_REQUEST status and an LotteryApiResponse containing the error message
+     * @return a ResponseEntity with the status of the exception, BAD_REQUEST if none, a Retry-After header for
+     * throttled requests and an LotteryApiResponse containing the error message
      */
     @ExceptionHandler(CustomException.class)
     public ResponseEntity<LotteryApiResponse<Object>> handleCustomException(CustomException ex) {
         ErrorCode errorCode = ex.getErrorCode();
-        return ResponseEntity.status(null != ex.getHttpStatus() ? ex.getHttpStatus() : HttpStatus.BAD_REQUEST)
+        metrics.error(errorCode);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(null != ex.getHttpStatus() ? ex.getHttpStatus() : HttpStatus.BAD_REQUEST);
+        if (ex instanceof ThrottledException throttled) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(throttled.getRetryAfterSeconds()));
+        }
+        return response
                 .body(LotteryApiResponse.error(
                         String.format("[%s] %s", errorCode.getCode(), errorCode.getMessage()),
                         null
@@ -48,6 +63,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<LotteryApiResponse<Object>> handleConstraintViolationException(ConstraintViolationException e) {
+        metrics.error(ErrorCode.INVALID_INPUT);
         String errorMessage = e.getConstraintViolations()
                 .stream()
                 .map(ConstraintViolation::getMessage)
@@ -68,6 +84,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<LotteryApiResponse<Object>> handleGenericException(Exception e) {
+        metrics.error(ErrorCode.INTERNAL_SERVER_ERROR);
         e.printStackTrace();
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(LotteryApiResponse.error(e.getMessage(), null));
@@ -0,0 +1,230 @@
+package com.rahul.lotteryassignment.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.rahul.lotteryassignment.dto.Line;
+import com.rahul.lotteryassignment.dto.LotteryApiResponse;
+import com.rahul.lotteryassignment.dto.Ticket;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Hand-written JSON serializers for the response envelope, tickets and lines, producing the same
+ * JSON as the bean serializers they replace.
+ * <p>
+ * There are only 27 lines, so the JSON of each is encoded to UTF-8 once and copied into the
+ * output for every line written. Tickets are written from their line codes, read a chunk at a
+ * time into a per-thread buffer, so no {@link Line} or boxed number is touched. The timestamp of
+ * the envelope is formatted like {@code DateTimeFormatter.ISO_INSTANT} from a per-second prefix
+ * shared by all threads, into a per-thread buffer. Field names are pre-encoded as well.
+ * </p>
+ */
+public class LotteryJsonModule extends SimpleModule {
+
+    private static final SerializableString[] LINES = new SerializableString[Line.CODE_COUNT]; //JSON of every line by code
+    private static final SerializableString SUCCESS = new SerializedString("success");
+    private static final SerializableString MESSAGE = new SerializedString("message");
+    private static final SerializableString DATA = new SerializedString("data");
+    private static final SerializableString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString CHECKED = new SerializedString("checked");
+    private static final SerializableString LINES_FIELD = new SerializedString("lines");
+    private static final int CHUNK_SIZE = 4096; //Line codes read from a ticket at a time
+    private static final ThreadLocal<byte[]> CODES = ThreadLocal.withInitial(() -> new byte[CHUNK_SIZE]);
+    private static final ThreadLocal<char[]> INSTANT_CHARS = ThreadLocal.withInitial(() -> new char[32]);
+
+    static {
+        for (int code = 0; code < Line.CODE_COUNT; code++) {
+            Line line = Line.of(code);
+            LINES[code] = new SerializedString("{\"numbers\":[" + line.getNumbers().get(0) + "," + line.getNumbers().get(1)
+                    + "," + line.getNumbers().get(2) + "],\"result\":" + line.getResult() + "}");
+        }
+    }
+
+    private static volatile Second second = new Second(Long.MIN_VALUE, new char[0]); //Formatted second of the last timestamp
+
+    public LotteryJsonModule() {
+        super("LotteryJsonModule");
+        addSerializer(Line.class, new LineSerializer());
+        addSerializer(Ticket.class, new TicketSerializer());
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Class<LotteryApiResponse<?>> responseClass = (Class) LotteryApiResponse.class;
+        addSerializer(responseClass, new LotteryApiResponseSerializer());
+    }
+
+    /**
+     * Writes a line from the pre-encoded JSON of its code.
+     */
+    static final class LineSerializer extends StdSerializer<Line> {
+
+        LineSerializer() {
+            super(Line.class);
+        }
+
+        @Override
+        public void serialize(Line line, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeRawValue(LINES[line.getCode()]);
+        }
+    }
+
+    /**
+     * Writes a ticket from a single read of its state, so its lines and flag always agree.
+     */
+    static final class TicketSerializer extends StdSerializer<Ticket> {
+
+        TicketSerializer() {
+            super(Ticket.class);
+        }
+
+        @Override
+        public void serialize(Ticket ticket, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            Ticket snapshot = ticket.snapshot();
+            int lineCount = snapshot.getLineCount();
+            gen.writeStartObject(snapshot);
+            gen.writeFieldName(ID);
+            if (snapshot.getId() != null) {
+                gen.writeNumber(snapshot.getId());
+            } else {
+                gen.writeNull();
+            }
+            gen.writeFieldName(LINES_FIELD);
+            gen.writeStartArray(null, lineCount);
+            writeLines(gen, snapshot, 0, lineCount);
+            gen.writeEndArray();
+            gen.writeFieldName(CHECKED);
+            gen.writeBoolean(snapshot.isChecked());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes lines of a ticket as array elements, for callers writing a ticket in parts.
+     *
+     * @param gen    Generator positioned inside an array
+     * @param ticket Snapshot of the ticket, so the lines cannot change while they are written
+     * @param from   Position of the first line to write
+     * @param length Number of lines to write
+     */
+    public static void writeLines(JsonGenerator gen, Ticket ticket, int from, int length) throws IOException {
+        byte[] codes = CODES.get();
+        for (int end = from + length; from < end; from += CHUNK_SIZE) {
+            int chunk = Math.min(CHUNK_SIZE, end - from);
+            ticket.copyLineCodes(from, codes, 0, chunk);
+            for (int i = 0; i < chunk; i++) {
+                gen.writeRawValue(LINES[codes[i]]);
+            }
+        }
+    }
+
+    /**
+     * Writes the response envelope, formatting the timestamp without a formatter.
+     */
+    static final class LotteryApiResponseSerializer extends StdSerializer<LotteryApiResponse<?>> {
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        LotteryApiResponseSerializer() {
+            super((Class) LotteryApiResponse.class);
+        }
+
+        @Override
+        public void serialize(LotteryApiResponse<?> response, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(response);
+            gen.writeFieldName(SUCCESS);
+            gen.writeBoolean(response.isSuccess());
+            gen.writeFieldName(MESSAGE);
+            gen.writeString(response.getMessage());
+            gen.writeFieldName(DATA);
+            provider.defaultSerializeValue(response.getData(), gen);
+            Instant timestamp = response.getTimestamp();
+            if (timestamp == null || provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+                provider.defaultSerializeField("timestamp", timestamp, gen); // Numeric form as configured
+            } else {
+                gen.writeFieldName(TIMESTAMP);
+                char[] chars = INSTANT_CHARS.get();
+                int length = formatInstant(timestamp, chars);
+                if (length < 0) {
+                    gen.writeString(timestamp.toString());
+                } else {
+                    gen.writeString(chars, 0, length);
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Formats an instant as {@code DateTimeFormatter.ISO_INSTANT} does: the date and time in UTC,
+     * the fraction in groups of three digits without trailing zero groups, and {@code Z}.
+     *
+     * @param instant Instant to format
+     * @param chars   Buffer of at least 30 characters
+     * @return Number of characters written, or -1 for years outside 0000 to 9999
+     */
+    static int formatInstant(Instant instant, char[] chars) {
+        long epochSecond = instant.getEpochSecond();
+        Second current = second;
+        if (current.epochSecond != epochSecond) {
+            LocalDateTime time = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+            if (time.getYear() < 0 || time.getYear() > 9999) {
+                return -1;
+            }
+            char[] prefix = new char[19];
+            digits(prefix, 0, time.getYear(), 4);
+            prefix[4] = '-';
+            digits(prefix, 5, time.getMonthValue(), 2);
+            prefix[7] = '-';
+            digits(prefix, 8, time.getDayOfMonth(), 2);
+            prefix[10] = 'T';
+            digits(prefix, 11, time.getHour(), 2);
+            prefix[13] = ':';
+            digits(prefix, 14, time.getMinute(), 2);
+            prefix[16] = ':';
+            digits(prefix, 17, time.getSecond(), 2);
+            current = new Second(epochSecond, prefix);
+            second = current;
+        }
+        System.arraycopy(current.prefix, 0, chars, 0, 19);
+        int length = 19;
+        int nanos = instant.getNano();
+        if (nanos > 0) {
+            chars[length++] = '.';
+            if (nanos % 1_000_000 == 0) {
+                digits(chars, length, nanos / 1_000_000, 3);
+                length += 3;
+            } else if (nanos % 1000 == 0) {
+                digits(chars, length, nanos / 1000, 6);
+                length += 6;
+            } else {
+                digits(chars, length, nanos, 9);
+                length += 9;
+            }
+        }
+        chars[length++] = 'Z';
+        return length;
+    }
+
+    /**
+     * Writes a number as a fixed count of decimal digits, padded with leading zeros.
+     */
+    private static void digits(char[] chars, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * The date and time of one second, formatted once for all timestamps within it.
+     */
+    private record Second(long epochSecond, char[] prefix) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.rahul.lotteryassignment.metrics;
+
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Counters of the ticket hot paths.
+ * <p>
+ * Requests only increment striped {@link LongAdder}s, which do not contend between threads.
+ * The adders and the store sizes are read when metrics are scraped, through function counters
+ * and gauges bound to the application's {@link MeterRegistry}. Request latencies per endpoint
+ * are recorded by Spring's {@code http.server.requests} timers.
+ * </p>
+ */
+@Component
+public class TicketMetrics implements MeterBinder {
+
+    private final TicketStore ticketStore;
+    private final LongAdder ticketsCreated = new LongAdder(); //Tickets created through the API
+    private final LongAdder linesGenerated = new LongAdder(); //Lines generated for new and existing tickets
+    private final LongAdder ticketsChecked = new LongAdder(); //Tickets whose status was checked for the first time
+    private final Map<ErrorCode, LongAdder> errors = new EnumMap<>(ErrorCode.class); //Error responses per code
+
+    public TicketMetrics(TicketStore ticketStore) {
+        this.ticketStore = ticketStore;
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            errors.put(errorCode, new LongAdder());
+        }
+    }
+
+    /**
+     * Counts a created ticket.
+     *
+     * @param lineCount Number of lines generated for it
+     */
+    public void ticketCreated(int lineCount) {
+        ticketsCreated.increment();
+        linesGenerated.add(lineCount);
+    }
+
+    /**
+     * Counts tickets created together in a batch.
+     *
+     * @param ticketCount Number of created tickets
+     * @param lineCount   Number of lines generated for all of them
+     */
+    public void ticketsCreated(int ticketCount, long lineCount) {
+        ticketsCreated.add(ticketCount);
+        linesGenerated.add(lineCount);
+    }
+
+    /**
+     * Counts lines generated for an existing ticket.
+     *
+     * @param lineCount Number of added lines
+     */
+    public void linesAdded(int lineCount) {
+        linesGenerated.add(lineCount);
+    }
+
+    /**
+     * Counts a ticket checked for the first time.
+     */
+    public void ticketChecked() {
+        ticketsChecked.increment();
+    }
+
+    /**
+     * Counts tickets checked for the first time in a batch.
+     *
+     * @param ticketCount Number of tickets that changed to checked
+     */
+    public void ticketsChecked(int ticketCount) {
+        ticketsChecked.add(ticketCount);
+    }
+
+    /**
+     * Counts an error response.
+     *
+     * @param errorCode Code of the error
+     */
+    public void error(ErrorCode errorCode) {
+        errors.get(errorCode).increment();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("lottery.tickets.created", ticketsCreated, LongAdder::sum)
+                .description("Tickets created")
+                .baseUnit("tickets")
+                .register(registry);
+        FunctionCounter.builder("lottery.lines.generated", linesGenerated, LongAdder::sum)
+                .description("Lines generated for new and existing tickets")
+                .baseUnit("lines")
+                .register(registry);
+        FunctionCounter.builder("lottery.tickets.checked", ticketsChecked, LongAdder::sum)
+                .description("Tickets whose status was checked")
+                .baseUnit("tickets")
+                .register(registry);
+        Gauge.builder("lottery.tickets.stored", ticketStore, TicketStore::count)
+                .description("Tickets held in the store")
+                .baseUnit("tickets")
+                .register(registry);
+        Gauge.builder("lottery.lines.stored", ticketStore, TicketStore::lineCount)
+                .description("Lines on all tickets held in the store")
+                .baseUnit("lines")
+                .register(registry);
+        errors.forEach((errorCode, count) -> FunctionCounter.builder("lottery.errors", count, LongAdder::sum)
+                .description("Error responses per error code")
+                .tag("code", errorCode.getCode())
+                .tag("error", errorCode.name())
+                .register(registry));
+    }
+}
@@ -0,0 +1,616 @@
+package com.rahul.lotteryassignment.persistence;
+
+import com.rahul.lotteryassignment.constant.DrawStatus;
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.constant.JournalSyncMode;
+import com.rahul.lotteryassignment.dto.LineSequence;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.exception.CustomException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Append-only ticket journal written through a {@link FileChannel}.
+ * <p>
+ * Records are encoded into an in-memory batch buffer under a short lock. A background flusher
+ * writes the batch to the file every flush interval, or as soon as the batch grows past its
+ * size limit, and then forces the file according to the {@link JournalSyncMode}. In
+ * {@link JournalSyncMode#SYNC} mode one fsync therefore commits every request of the batch.
+ * </p>
+ * <p>
+ * Record layout (big endian): {@code int payloadLength, int crc32c(payload), payload} where the
+ * payload is {@code byte type, long ticketId} followed, for line records, by
+ * {@code int fromIndex, int count, byte source} and, for stored lines, one byte per line code.
+ * Draw records carry {@code byte type, long drawId, long startId, byte status} instead.
+ * </p>
+ * <p>
+ * Lines of seeded tickets are journaled as a count only and regenerated from the line sequence
+ * on recovery. Every segment and snapshot therefore starts with a {@link #TYPE_HEADER} record,
+ * {@code byte type, long fingerprint}, holding the {@link LineSequence#fingerprint()} of the
+ * sequence it was written with, and recovery refuses to regenerate lines under another one.
+ * </p>
+ * <p>
+ * The journal is split into numbered segment files. {@link #roll()} starts a new segment so that a
+ * snapshot of the store taken afterwards covers every older segment, which can then be deleted
+ * with {@link #deleteBefore(long)}. Snapshots use the same record layout with
+ * {@link #TYPE_TICKET} records, followed by a {@code byte checked} flag, after one
+ * {@link #TYPE_DRAW} record per draw, and are named after the
+ * first segment they do not cover. Recovery loads the newest snapshot and replays the segments
+ * from its generation on.
+ * </p>
+ */
+public class FileTicketJournal implements TicketJournal, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(FileTicketJournal.class);
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    static final String TEMPORARY_SUFFIX = ".tmp";
+    static final int RECORD_HEADER_BYTES = 8;
+    static final byte TYPE_CREATE = 1;
+    static final byte TYPE_LINES = 2;
+    static final byte TYPE_CHECK = 3;
+    static final byte TYPE_TICKET = 4;
+    static final byte TYPE_DRAW = 5;
+    static final byte TYPE_HEADER = 6;
+    static final byte SOURCE_CODES = 0;
+    static final byte SOURCE_SEQUENCE = 1;
+    private static final int CHECK_PAYLOAD_BYTES = 1 + 8;
+    static final int LINES_PAYLOAD_BYTES = CHECK_PAYLOAD_BYTES + 4 + 4 + 1;
+    static final int DRAW_PAYLOAD_BYTES = 1 + 8 + 8 + 1;
+    private static final int HEADER_PAYLOAD_BYTES = 1 + 8;
+
+    private final Path directory;
+    private final JournalSyncMode syncMode;
+    private final long flushIntervalNanos;
+    private final int batchBytes;
+    private long sequenceFingerprint; //Fingerprint of the line sequence, written at the start of every segment
+
+    private final ReentrantReadWriteLock publishLock = new ReentrantReadWriteLock(); //Shared by creations in progress, exclusive for a roll
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition batchFull = appendLock.newCondition();
+    private ByteBuffer batch; //Encoded records not yet written to the file, guarded by appendLock
+    private long appendedPosition; //Journal position after the last appended record, guarded by appendLock
+    private int recordStart; //Payload offset of the record being encoded, guarded by appendLock
+    private FileChannel channel; //Segment receiving new records, guarded by appendLock
+    private long segment; //Generation of the current segment, guarded by appendLock
+    private final Object forceMonitor = new Object(); //Keeps a segment from being closed while it is forced
+
+    private final Object durableMonitor = new Object();
+    private volatile long durablePosition; //Records up to this position are durable
+    private volatile IOException failure; //First write failure, after which the journal refuses records
+    private volatile boolean closed;
+    private Thread flusher;
+
+    /**
+     * Prepares the journal in a directory. Call {@link #recover} and then {@link #start()}.
+     *
+     * @param directory       Directory holding the journal segments and snapshots
+     * @param syncMode        How records are made durable
+     * @param flushIntervalMs Maximum time a record waits in the batch buffer
+     * @param batchBytes      Batch size that triggers an early flush
+     * @throws IOException if the directory cannot be created
+     */
+    public FileTicketJournal(Path directory, JournalSyncMode syncMode, long flushIntervalMs, int batchBytes)
+            throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.syncMode = syncMode;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.batchBytes = batchBytes;
+        this.batch = ByteBuffer.allocate(batchBytes);
+    }
+
+    /**
+     * Loads the newest snapshot, replays the journal segments written after it and opens the last
+     * segment for appending. A torn record at the end of the last segment, left by a crash during
+     * a write, is cut off. Draws are closed and purged once every segment has been replayed.
+     * New segments are marked with the fingerprint of the replayer's line sequence.
+     *
+     * @param replayer Replayer applying the records
+     * @return Number of loaded snapshot and journal records
+     * @throws IOException if the snapshot or the journal cannot be read, or holds sequence lines of another sequence
+     */
+    public long recover(JournalReplayer replayer) throws IOException {
+        sequenceFingerprint = replayer.sequenceFingerprint();
+        deleteTemporaryFiles();
+        long records = 0;
+        long first = 1;
+        List<Long> snapshots = generations(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (!snapshots.isEmpty()) {
+            first = snapshots.get(snapshots.size() - 1);
+            Path snapshot = snapshotFile(first);
+            try (FileChannel in = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+                JournalReplayer.Result result = replayer.replay(in);
+                if (result.validBytes() < in.size()) {
+                    throw new IOException("Snapshot " + snapshot + " is corrupt at byte " + result.validBytes());
+                }
+                records += result.records();
+            }
+        }
+        List<Long> segments = new ArrayList<>();
+        for (long generation : generations(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (generation >= first) {
+                segments.add(generation);
+            }
+        }
+        long last = segments.isEmpty() ? first : segments.get(segments.size() - 1);
+        for (long generation : segments.subList(0, Math.max(0, segments.size() - 1))) {
+            try (FileChannel in = FileChannel.open(segmentFile(generation), StandardOpenOption.READ)) {
+                JournalReplayer.Result result = replayer.replay(in);
+                if (result.validBytes() < in.size()) {
+                    log.warn("Ignoring {} bytes of incomplete records in {}", in.size() - result.validBytes(),
+                            segmentFile(generation));
+                }
+                records += result.records();
+            }
+        }
+
+        Path file = segmentFile(last);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = last;
+        JournalReplayer.Result result = replayer.replay(channel);
+        if (result.validBytes() < channel.size()) {
+            log.warn("Truncating {} bytes of incomplete records at the end of {}", channel.size() - result.validBytes(), file);
+            channel.truncate(result.validBytes());
+        }
+        channel.position(result.validBytes());
+        if (result.validBytes() == 0) {
+            writeHeader(channel);
+        }
+        replayer.finish();
+        return records + result.records();
+    }
+
+    /**
+     * Starts the background flusher.
+     */
+    public void start() {
+        flusher = new Thread(this::flushLoop, "ticket-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public <T> T publishing(Supplier<T> creation) {
+        publishLock.readLock().lock();
+        try {
+            return creation.get();
+        } finally {
+            publishLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long recordCreate(Ticket ticket) {
+        int count = ticket.getLineCount();
+        boolean sequence = ticket.isSequenceBacked();
+        appendLock.lock();
+        try {
+            ByteBuffer buffer = startLines(TYPE_CREATE, ticket.getId(), 0, count, sequence);
+            if (!sequence) {
+                ticket.copyLineCodes(0, buffer.array(), buffer.arrayOffset() + buffer.position(), count);
+                buffer.position(buffer.position() + count);
+            }
+            return finishRecord(buffer);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public long recordLines(long ticketId, int fromIndex, int count, byte[] codes) {
+        appendLock.lock();
+        try {
+            ByteBuffer buffer = startLines(TYPE_LINES, ticketId, fromIndex, count, codes == null);
+            if (codes != null) {
+                buffer.put(codes, 0, count);
+            }
+            return finishRecord(buffer);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public long recordCheck(long ticketId) {
+        appendLock.lock();
+        try {
+            ByteBuffer buffer = reserve(CHECK_PAYLOAD_BYTES);
+            buffer.put(TYPE_CHECK).putLong(ticketId);
+            return finishRecord(buffer);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public long recordDraw(long drawId, long startId, DrawStatus status) {
+        appendLock.lock();
+        try {
+            ByteBuffer buffer = reserve(DRAW_PAYLOAD_BYTES);
+            buffer.put(TYPE_DRAW).putLong(drawId).putLong(startId).put((byte) status.ordinal());
+            return finishRecord(buffer);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void awaitDurable(long position) {
+        if (syncMode != JournalSyncMode.SYNC) {
+            return;
+        }
+        synchronized (durableMonitor) {
+            while (durablePosition < position && failure == null && !closed) {
+                try {
+                    durableMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw notPersisted(null);
+                }
+            }
+        }
+        if (durablePosition < position) {
+            throw notPersisted(failure);
+        }
+    }
+
+    /**
+     * Writes the pending records, forces the current segment and continues in a new one.
+     * Every record appended before the call is in a segment older than the returned generation,
+     * so a snapshot of the store taken after this call covers all of them. Waits for the
+     * creations in progress, whose tickets may be recorded but not yet stored.
+     *
+     * @return Generation of the new segment
+     * @throws IOException if the new segment cannot be created or the current one cannot be written
+     */
+    public long roll() throws IOException {
+        publishLock.writeLock().lock();
+        appendLock.lock();
+        try {
+            if (failure != null || closed) {
+                throw new IOException("Ticket journal is not accepting records", failure);
+            }
+            FileChannel next = FileChannel.open(segmentFile(segment + 1),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                writeHeader(next);
+                writeBatch();
+                synchronized (forceMonitor) {
+                    channel.force(false);
+                    channel.close();
+                }
+            } catch (IOException e) {
+                next.close();
+                fail(e);
+                throw e;
+            }
+            channel = next;
+            segment++;
+            synchronized (durableMonitor) {
+                durablePosition = Math.max(durablePosition, appendedPosition);
+                durableMonitor.notifyAll();
+            }
+            return segment;
+        } finally {
+            appendLock.unlock();
+            publishLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Position after the last appended record, which only grows while records are appended
+     */
+    public long position() {
+        appendLock.lock();
+        try {
+            return appendedPosition;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @return Fingerprint of the line sequence the journal was recovered with, to be written into snapshots
+     */
+    long sequenceFingerprint() {
+        return sequenceFingerprint;
+    }
+
+    /**
+     * Encodes a complete {@link #TYPE_HEADER} record.
+     *
+     * @param fingerprint Fingerprint of the line sequence
+     * @return Buffer holding the record, ready to be read
+     */
+    static ByteBuffer headerRecord(long fingerprint) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + HEADER_PAYLOAD_BYTES);
+        record.putInt(HEADER_PAYLOAD_BYTES).putInt(0).put(TYPE_HEADER).putLong(fingerprint);
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), RECORD_HEADER_BYTES, HEADER_PAYLOAD_BYTES);
+        return record.putInt(4, (int) crc.getValue()).flip();
+    }
+
+    /**
+     * Deletes the segments and snapshots older than a generation, once a snapshot of that
+     * generation has been written.
+     *
+     * @param generation Generation of the newest snapshot
+     * @throws IOException if a file cannot be deleted
+     */
+    public void deleteBefore(long generation) throws IOException {
+        for (long older : generations(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (older < generation) {
+                Files.deleteIfExists(segmentFile(older));
+            }
+        }
+        for (long older : generations(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (older < generation) {
+                Files.deleteIfExists(snapshotFile(older));
+            }
+        }
+    }
+
+    /**
+     * @param generation First segment not covered by the snapshot
+     * @return Path of the snapshot file for a generation
+     */
+    public Path snapshotFile(long generation) {
+        return directory.resolve(fileName(SNAPSHOT_PREFIX, generation, SNAPSHOT_SUFFIX));
+    }
+
+    /**
+     * @param generation Generation of the segment
+     * @return Path of the journal segment file for a generation
+     */
+    Path segmentFile(long generation) {
+        return directory.resolve(fileName(SEGMENT_PREFIX, generation, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Writes all pending records and forces them to disk, then stops the flusher.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush(true);
+        } finally {
+            appendLock.lock();
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } finally {
+                appendLock.unlock();
+            }
+            synchronized (durableMonitor) {
+                durableMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Starts a line record; the caller appends the codes of stored lines. Caller must hold the append lock.
+     */
+    private ByteBuffer startLines(byte type, long ticketId, int fromIndex, int count, boolean sequence) {
+        return reserve(LINES_PAYLOAD_BYTES + (sequence ? 0 : count))
+                .put(type)
+                .putLong(ticketId)
+                .putInt(fromIndex)
+                .putInt(count)
+                .put(sequence ? SOURCE_SEQUENCE : SOURCE_CODES);
+    }
+
+    /**
+     * Makes room for a record in the batch, writing out the batch or growing it for large records.
+     * Leaves the buffer positioned after a blank record header.
+     */
+    private ByteBuffer reserve(int payloadBytes) {
+        if (failure != null || closed) {
+            throw notPersisted(failure);
+        }
+        int recordBytes = RECORD_HEADER_BYTES + payloadBytes;
+        if (batch.remaining() < recordBytes) {
+            try {
+                writeBatch();
+            } catch (IOException e) {
+                fail(e);
+                throw notPersisted(e);
+            }
+            if (batch.capacity() < recordBytes) {
+                batch = ByteBuffer.allocate(recordBytes); // Shrinks back after the next write
+            }
+        }
+        recordStart = batch.position() + RECORD_HEADER_BYTES;
+        batch.position(recordStart);
+        return batch;
+    }
+
+    /**
+     * Fills in the header of the record started by {@link #reserve(int)}.
+     */
+    private long finishRecord(ByteBuffer buffer) {
+        int payloadStart = recordStart;
+        int end = buffer.position();
+        int length = end - payloadStart;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), buffer.arrayOffset() + payloadStart, length);
+        buffer.putInt(payloadStart - RECORD_HEADER_BYTES, length);
+        buffer.putInt(payloadStart - 4, (int) crc.getValue());
+        appendedPosition += RECORD_HEADER_BYTES + length;
+        if (buffer.position() >= batchBytes) {
+            batchFull.signal();
+        }
+        return appendedPosition;
+    }
+
+    private void flushLoop() {
+        while (!closed) {
+            try {
+                appendLock.lockInterruptibly();
+                try {
+                    if (batch.position() < batchBytes) {
+                        batchFull.awaitNanos(flushIntervalNanos);
+                    }
+                } finally {
+                    appendLock.unlock();
+                }
+                flush(syncMode != JournalSyncMode.NONE);
+            } catch (InterruptedException e) {
+                if (closed) {
+                    return;
+                }
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the pending batch and optionally forces the file, then publishes the durable position.
+     */
+    private void flush(boolean force) throws IOException {
+        long target;
+        FileChannel written;
+        appendLock.lock();
+        try {
+            if (channel == null) {
+                return; // Never recovered
+            }
+            writeBatch();
+            target = appendedPosition;
+            written = channel;
+        } finally {
+            appendLock.unlock();
+        }
+        if (target == durablePosition) {
+            return;
+        }
+        if (force) {
+            // Outside of the append lock so requests keep appending meanwhile. A segment closed by a
+            // roll in the meantime was forced before it was closed.
+            synchronized (forceMonitor) {
+                if (written.isOpen()) {
+                    written.force(false);
+                }
+            }
+        }
+        synchronized (durableMonitor) {
+            durablePosition = Math.max(durablePosition, target);
+            durableMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Writes the batch buffer to the file. Caller must hold the append lock.
+     */
+    private void writeBatch() throws IOException {
+        batch.flip();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        if (batch.capacity() > batchBytes) {
+            batch = ByteBuffer.allocate(batchBytes);
+        } else {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Starts an empty segment with the header record. The header is not a change, so it does not
+     * move the journal position.
+     */
+    private void writeHeader(FileChannel segmentChannel) throws IOException {
+        ByteBuffer header = headerRecord(sequenceFingerprint);
+        while (header.hasRemaining()) {
+            segmentChannel.write(header);
+        }
+    }
+
+    /**
+     * Lists the generations of the files with a prefix and suffix, oldest first.
+     */
+    private List<Long> generations(String prefix, String suffix) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> {
+                        try {
+                            generations.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                        } catch (NumberFormatException e) {
+                            log.warn("Ignoring unexpected file {} in {}", name, directory);
+                        }
+                    });
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    /**
+     * Deletes snapshots left unfinished by a crash.
+     */
+    private void deleteTemporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(TEMPORARY_SUFFIX)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static String fileName(String prefix, long generation, String suffix) {
+        return String.format("%s%020d%s", prefix, generation, suffix);
+    }
+
+    private void fail(IOException e) {
+        log.error("Ticket journal in {} failed, no further changes will be accepted", directory, e);
+        failure = e;
+        synchronized (durableMonitor) {
+            durableMonitor.notifyAll();
+        }
+    }
+
+    private static CustomException notPersisted(IOException cause) {
+        CustomException exception = new CustomException(ErrorCode.NOT_PERSISTED,
+                "Ticket change could not be written to the journal",
+                HttpStatus.SERVICE_UNAVAILABLE);
+        if (cause != null) {
+            exception.initCause(cause);
+        }
+        return exception;
+    }
+}
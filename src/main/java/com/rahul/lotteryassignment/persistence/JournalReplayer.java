@@ -0,0 +1,382 @@
+package com.rahul.lotteryassignment.persistence;
+
+import com.rahul.lotteryassignment.constant.DrawStatus;
+import com.rahul.lotteryassignment.dto.Draw;
+import com.rahul.lotteryassignment.dto.LineSequence;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Replays journal and snapshot records into a {@link TicketStore}.
+ * <p>
+ * One thread reads the journal sequentially in large blocks and decodes the records. Records are
+ * handed to worker threads in batches, partitioned by ticket ID so that all records of a ticket
+ * are applied by the same worker in journal order while different tickets are applied in parallel.
+ * </p>
+ * <p>
+ * Applying a record is idempotent: creations of existing tickets, line records that the ticket
+ * already contains and checks of checked tickets are skipped. A journal can therefore be replayed
+ * on top of a store that already holds some of its changes.
+ * </p>
+ * <p>
+ * Lines journaled as sequence lines are regenerated from the line sequence, which must be the one
+ * they were generated with. A file whose header records the fingerprint of another sequence is
+ * refused as soon as one of its sequence lines is read, rather than restoring tickets with lines
+ * their owners were never shown, and so is a file with sequence lines but no header.
+ * </p>
+ * <p>
+ * Draw records are applied by the reading thread. A draw is opened as soon as its record is read,
+ * before any later record is handed over, so every ticket is routed to its draw. Closes and purges
+ * are deferred to {@link #finish()}: a ticket saved into the previous draw while a new one was
+ * opening may be journaled after the new draw, and must still be restored into its draw.
+ * </p>
+ */
+public class JournalReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalReplayer.class);
+
+    private static final int READ_BLOCK_BYTES = 4 << 20;
+    private static final int BATCH_SIZE = 1024;
+    private static final List<Record> END = List.of();
+
+    private final TicketStore store;
+    private final LineSequence lineSequence;
+    private final int workers;
+    private final Set<Long> purgedDraws = new HashSet<>(); //Draws to purge once the replay is complete, used by the reading thread
+
+    /**
+     * @param store        Store receiving the tickets
+     * @param lineSequence Sequence used for lines journaled as sequence lines
+     * @param workers      Number of threads applying records
+     */
+    public JournalReplayer(TicketStore store, LineSequence lineSequence, int workers) {
+        this.store = store;
+        this.lineSequence = lineSequence;
+        this.workers = Math.max(1, workers);
+    }
+
+    /**
+     * @return Fingerprint of the line sequence, {@code 0} without one
+     */
+    public long sequenceFingerprint() {
+        return lineSequence == null ? 0 : lineSequence.fingerprint();
+    }
+
+    /**
+     * Outcome of a replay.
+     *
+     * @param records    Number of valid records read
+     * @param validBytes Length of the journal prefix made of complete, valid records
+     */
+    public record Result(long records, long validBytes) {
+    }
+
+    /**
+     * Replays all valid records of a journal, stopping at the first incomplete or corrupt record.
+     *
+     * @param channel Journal file, read from its start
+     * @return Number of records and length of the valid prefix
+     * @throws IOException if the journal cannot be read, or holds sequence lines it cannot verify
+     */
+    public Result replay(FileChannel channel) throws IOException {
+        return replay(channel, 0);
+    }
+
+    /**
+     * Replays all valid records of a journal starting at a position.
+     *
+     * @param channel  Journal file
+     * @param position Position of the first record to replay, the header of the file if it holds sequence lines
+     * @return Number of records and end of the valid records
+     * @throws IOException if the journal cannot be read, or holds sequence lines of another sequence
+     *                     or without a header
+     */
+    public Result replay(FileChannel channel, long position) throws IOException {
+        long started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "ticket-journal-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<BlockingQueue<List<Record>>> queues = new ArrayList<>(workers);
+        List<Future<?>> applied = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            BlockingQueue<List<Record>> queue = new ArrayBlockingQueue<>(64);
+            queues.add(queue);
+            applied.add(executor.submit(() -> {
+                applyAll(queue);
+                return null;
+            }));
+        }
+
+        long records = 0;
+        long validEnd = position;
+        Long fingerprint = null; //Fingerprint in the header of the file, null before one is read
+        try {
+            List<List<Record>> batches = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                batches.add(new ArrayList<>(BATCH_SIZE));
+            }
+            channel.position(position);
+            long unread = channel.size() - position; //Bytes of the file not yet read into the buffer
+            ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BLOCK_BYTES).flip();
+            CRC32C crc = new CRC32C();
+            while (true) {
+                int needed = FileTicketJournal.RECORD_HEADER_BYTES;
+                if (buffer.remaining() >= needed) {
+                    int length = buffer.getInt(buffer.position());
+                    if (length <= 0 || length > unread + buffer.remaining() - needed) {
+                        break; // Zeroed, corrupt or truncated record at the end of the journal
+                    }
+                    needed += length;
+                }
+                if (buffer.remaining() < needed) {
+                    int available = buffer.remaining();
+                    buffer = refill(buffer, channel, needed);
+                    unread -= buffer.remaining() - available;
+                    if (buffer.remaining() == available) {
+                        break; // End of the journal
+                    }
+                    continue;
+                }
+                int length = needed - FileTicketJournal.RECORD_HEADER_BYTES;
+                int expectedCrc = buffer.getInt(buffer.position() + 4);
+                ByteBuffer payload = buffer.slice(buffer.position() + FileTicketJournal.RECORD_HEADER_BYTES, length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != expectedCrc) {
+                    break;
+                }
+                buffer.position(buffer.position() + FileTicketJournal.RECORD_HEADER_BYTES + length);
+                validEnd += FileTicketJournal.RECORD_HEADER_BYTES + length;
+                if (payload.get(0) == FileTicketJournal.TYPE_HEADER) {
+                    fingerprint = payload.getLong(1);
+                    continue;
+                }
+                records++;
+                if (payload.get(0) == FileTicketJournal.TYPE_DRAW) {
+                    applyDraw(payload);
+                    continue;
+                }
+                Record record = decode(payload);
+                if (record.codes == null && record.type != FileTicketJournal.TYPE_CHECK) {
+                    verifySequence(record, fingerprint);
+                    fingerprint = sequenceFingerprint(); // Verified, checked once per file
+                }
+
+                int worker = partition(record.ticketId);
+                List<Record> batch = batches.get(worker);
+                batch.add(record);
+                if (batch.size() == BATCH_SIZE) {
+                    handOver(queues.get(worker), batch, applied.get(worker));
+                    batches.set(worker, new ArrayList<>(BATCH_SIZE));
+                }
+            }
+            for (int i = 0; i < workers; i++) {
+                if (!batches.get(i).isEmpty()) {
+                    handOver(queues.get(i), batches.get(i), applied.get(i));
+                }
+                handOver(queues.get(i), END, applied.get(i));
+            }
+            awaitWorkers(applied);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while replaying the journal", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Replayed {} journal records into {} tickets in {} ms", records, store.count(),
+                (System.nanoTime() - started) / 1_000_000);
+        return new Result(records, validEnd);
+    }
+
+    /**
+     * Closes every draw but the latest and purges the draws whose purge was replayed. Call once
+     * all snapshot and journal records have been replayed.
+     */
+    public void finish() {
+        List<Draw> draws = store.draws();
+        for (Draw draw : draws.subList(0, draws.size() - 1)) {
+            store.closeDraw(draw.getId());
+            if (purgedDraws.contains(draw.getId())) {
+                store.purgeDraw(draw.getId());
+            }
+        }
+        purgedDraws.clear();
+    }
+
+    /**
+     * Moves unread bytes to the front of the buffer and reads the next block from the file.
+     * Grows the buffer when a single record does not fit.
+     */
+    private static ByteBuffer refill(ByteBuffer buffer, FileChannel channel, int needed) throws IOException {
+        ByteBuffer target = buffer;
+        if (needed > buffer.capacity()) {
+            target = ByteBuffer.allocate(needed);
+            target.put(buffer);
+        } else {
+            target.compact();
+        }
+        while (target.hasRemaining() && channel.read(target) > 0) {
+            // Keep reading until the block is full or the file ends
+        }
+        target.flip();
+        return target;
+    }
+
+    /**
+     * Queues a batch for a worker, failing fast instead of blocking forever if the worker died.
+     */
+    private static void handOver(BlockingQueue<List<Record>> queue, List<Record> batch, Future<?> worker)
+            throws InterruptedException, IOException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (worker.isDone()) {
+                awaitWorkers(List.of(worker));
+                throw new IOException("Journal replay worker stopped early");
+            }
+        }
+    }
+
+    /**
+     * Refuses sequence lines recorded under the fingerprint of another line sequence, or in a file
+     * whose header is missing, which every file written by the journal starts with.
+     *
+     * @param fingerprint Fingerprint in the header of the file, {@code null} if it has none
+     */
+    private void verifySequence(Record record, Long fingerprint) throws IOException {
+        if (fingerprint == null) {
+            throw new IOException("Sequence lines of ticket " + record.ticketId + " were read from a journal file "
+                    + "without header, refusing to regenerate them without verifying lottery.lines.seed");
+        }
+        if (fingerprint != sequenceFingerprint()) {
+            throw new IOException("Sequence lines of ticket " + record.ticketId + " were journaled with another "
+                    + "lottery.lines.seed, refusing to regenerate them from the configured one");
+        }
+    }
+
+    private Record decode(ByteBuffer payload) {
+        byte type = payload.get();
+        long ticketId = payload.getLong();
+        if (type == FileTicketJournal.TYPE_CHECK) {
+            return new Record(type, ticketId, 0, 0, null, true);
+        }
+        int fromIndex = payload.getInt();
+        int count = payload.getInt();
+        byte[] codes = null;
+        if (payload.get() == FileTicketJournal.SOURCE_CODES) {
+            codes = new byte[count];
+            payload.get(codes);
+        }
+        boolean checked = type == FileTicketJournal.TYPE_TICKET && payload.get() != 0;
+        return new Record(type, ticketId, fromIndex, count, codes, checked);
+    }
+
+    /**
+     * Opens a draw right away or remembers its purge. A closed draw of a snapshot is opened like
+     * any other, as every draw but the latest is closed by {@link #finish()}.
+     */
+    private void applyDraw(ByteBuffer payload) {
+        payload.get();
+        long drawId = payload.getLong();
+        long startId = payload.getLong();
+        DrawStatus status = DrawStatus.values()[payload.get()];
+        if (status == DrawStatus.PURGED) {
+            purgedDraws.add(drawId);
+        } else {
+            store.openDraw(drawId, startId); // Skipped if the draw or a later one is already open
+        }
+    }
+
+    private void applyAll(BlockingQueue<List<Record>> queue) throws InterruptedException {
+        for (List<Record> batch = queue.take(); batch != END; batch = queue.take()) {
+            for (Record record : batch) {
+                apply(record);
+            }
+        }
+    }
+
+    private void apply(Record record) {
+        switch (record.type) {
+            case FileTicketJournal.TYPE_CREATE -> {
+                if (store.findById(record.ticketId).isEmpty()) {
+                    Ticket ticket = new Ticket(record.ticketId);
+                    addLines(ticket, record);
+                    store.save(ticket);
+                }
+            }
+            case FileTicketJournal.TYPE_LINES -> store.update(record.ticketId, ticket -> {
+                if (ticket.getLineCount() == record.fromIndex && !ticket.isChecked()) {
+                    addLines(ticket, record);
+                } else if (ticket.getLineCount() < record.fromIndex) {
+                    log.warn("Skipping lines {}+{} of ticket {} holding only {} lines", record.fromIndex,
+                            record.count, record.ticketId, ticket.getLineCount());
+                }
+                return ticket;
+            });
+            case FileTicketJournal.TYPE_TICKET -> {
+                if (store.findById(record.ticketId).isEmpty()) {
+                    Ticket ticket = new Ticket(record.ticketId);
+                    addLines(ticket, record); // Lines of checked tickets were stored already sorted
+                    ticket.setChecked(record.checked);
+                    store.save(ticket);
+                }
+            }
+            case FileTicketJournal.TYPE_CHECK -> store.update(record.ticketId, ticket -> {
+                ticket.check();
+                return ticket;
+            });
+            default -> log.warn("Skipping journal record of unknown type {}", record.type);
+        }
+    }
+
+    private void addLines(Ticket ticket, Record record) {
+        if (record.codes == null) {
+            ticket.addSequenceLines(lineSequence, record.count);
+        } else {
+            ticket.addLineCodes(record.codes, record.count);
+        }
+    }
+
+    private int partition(long ticketId) {
+        return (int) (((ticketId * 0x9E3779B97F4A7C15L) >>> 33) % workers);
+    }
+
+    private static void awaitWorkers(List<Future<?>> applied) throws IOException {
+        for (Future<?> future : applied) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while replaying the journal", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to apply journal records", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Decoded journal record. {@code codes} is {@code null} for sequence lines and checks,
+     * {@code checked} is only meaningful for snapshot tickets.
+     */
+    private record Record(byte type, long ticketId, int fromIndex, int count, byte[] codes, boolean checked) {
+    }
+}
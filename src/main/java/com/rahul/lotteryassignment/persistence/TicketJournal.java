@@ -0,0 +1,108 @@
+package com.rahul.lotteryassignment.persistence;
+
+import com.rahul.lotteryassignment.constant.DrawStatus;
+import com.rahul.lotteryassignment.dto.Ticket;
+
+import java.util.function.Supplier;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Write-ahead journal of ticket changes.
+ * <p>
+ * Changes are recorded while the ticket is held by the store and before they are applied, so
+ * the journal order of the records of one ticket always matches the order in which they were
+ * applied, and a change that cannot be recorded is never applied. A creation is recorded before
+ * the new ticket is published by the store, within {@link #publishing(Supplier)}, so no other
+ * record of the ticket can precede it. Waiting for a
+ * record to become durable happens afterwards through {@link #awaitDurable(long)}, outside of
+ * the store update.
+ * </p>
+ */
+public interface TicketJournal {
+
+    /**
+     * Journal that records nothing, used when persistence is disabled.
+     */
+    TicketJournal NONE = new TicketJournal() {
+        @Override
+        public long recordCreate(Ticket ticket) {
+            return 0;
+        }
+
+        @Override
+        public long recordLines(long ticketId, int fromIndex, int count, byte[] codes) {
+            return 0;
+        }
+
+        @Override
+        public long recordCheck(long ticketId) {
+            return 0;
+        }
+
+        @Override
+        public long recordDraw(long drawId, long startId, DrawStatus status) {
+            return 0;
+        }
+
+        @Override
+        public void awaitDurable(long position) {
+        }
+    };
+
+    /**
+     * Runs the creation of tickets, during which they are recorded with {@link #recordCreate(Ticket)}
+     * and published in the store. A journal that is compacted by snapshots waits for creations in
+     * progress before it starts a new segment, so that a ticket recorded in an older segment is
+     * visible to a snapshot taken afterwards.
+     *
+     * @param creation Records and stores the tickets
+     * @return The result of the creation
+     */
+    default <T> T publishing(Supplier<T> creation) {
+        return creation.get();
+    }
+
+    /**
+     * Records the creation of a ticket together with its initial lines.
+     *
+     * @param ticket The new ticket
+     * @return Journal position to pass to {@link #awaitDurable(long)}
+     */
+    long recordCreate(Ticket ticket);
+
+    /**
+     * Records lines about to be appended to a ticket.
+     *
+     * @param ticketId  ID of the ticket
+     * @param fromIndex Position of the first added line
+     * @param count     Number of added lines
+     * @param codes     Codes of the added lines, or {@code null} for lines taken from the seeded sequence
+     * @return Journal position to pass to {@link #awaitDurable(long)}
+     */
+    long recordLines(long ticketId, int fromIndex, int count, byte[] codes);
+
+    /**
+     * Records that a ticket is about to be checked.
+     *
+     * @param ticketId ID of the ticket
+     * @return Journal position to pass to {@link #awaitDurable(long)}
+     */
+    long recordCheck(long ticketId);
+
+    /**
+     * Records that a draw is about to change its state.
+     *
+     * @param drawId  Number of the draw
+     * @param startId Lowest ticket ID of the draw
+     * @param status  New state of the draw
+     * @return Journal position to pass to {@link #awaitDurable(long)}
+     */
+    long recordDraw(long drawId, long startId, DrawStatus status);
+
+    /**
+     * Blocks until every record up to a position is as durable as the configured sync mode allows.
+     *
+     * @param position Position returned when the record was written
+     */
+    void awaitDurable(long position);
+}
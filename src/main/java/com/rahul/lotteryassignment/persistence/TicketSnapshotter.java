@@ -0,0 +1,260 @@
+package com.rahul.lotteryassignment.persistence;
+
+import com.rahul.lotteryassignment.constant.DrawStatus;
+import com.rahul.lotteryassignment.dto.Draw;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Writes the whole ticket store to a binary snapshot and compacts the journal behind it.
+ * <p>
+ * A snapshot first rolls the journal to a new segment and then visits the store draw by draw and shard by shard.
+ * Each ticket is copied while it is held through {@link TicketStore#update}, so requests are
+ * only ever blocked on the ticket being copied and never on the snapshot as a whole. Changes
+ * made while the snapshot runs may or may not be contained in it, but they are all journaled
+ * in the new segment, and replaying those records over the snapshot is idempotent. Once the
+ * snapshot is complete on disk, the older segments are deleted.
+ * </p>
+ * <p>
+ * The draws are written ahead of the tickets, including a purge record for every draw number
+ * that is no longer held, so that a replay over an empty store drops the same draws. Like every
+ * journal segment, a snapshot starts with the header naming the line sequence of its sequence lines.
+ * </p>
+ */
+public class TicketSnapshotter implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketSnapshotter.class);
+
+    private static final int WRITE_BUFFER_BYTES = 4 << 20;
+
+    private final TicketStore store;
+    private final FileTicketJournal journal;
+    private ScheduledExecutorService scheduler;
+    private long snapshotPosition = -1; //Journal position covered by the last snapshot, guarded by this
+
+    /**
+     * @param store   Store to snapshot
+     * @param journal Journal compacted after each snapshot
+     */
+    public TicketSnapshotter(TicketStore store, FileTicketJournal journal) {
+        this.store = store;
+        this.journal = journal;
+    }
+
+    /**
+     * Starts taking snapshots periodically. A snapshot is skipped when nothing was journaled since the last one.
+     *
+     * @param intervalMs Delay between the end of a snapshot and the start of the next, {@code 0} to disable
+     */
+    public void start(long intervalMs) {
+        if (intervalMs <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticket-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (journal.position() != snapshotPosition()) {
+                    snapshot();
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("Ticket snapshot failed, the journal is kept", e);
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes a snapshot of the store and deletes the journal segments it covers.
+     *
+     * @return Number of tickets in the snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized long snapshot() throws IOException {
+        long started = System.nanoTime();
+        long position = journal.position();
+        long generation = journal.roll();
+        Path target = journal.snapshotFile(generation);
+        Path temporary = target.resolveSibling(target.getFileName() + FileTicketJournal.TEMPORARY_SUFFIX);
+        long tickets;
+        try (Writer writer = new Writer(FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+            try {
+                // Draws opened from now on are journaled in the new segment together with all their tickets
+                List<Draw> draws = store.draws();
+                writer.writeHeader(journal.sequenceFingerprint());
+                writer.writeDraws(draws);
+                for (Draw draw : draws) {
+                    store.forEach(draw.getId(), ticket -> writer.write(ticket.getId()));
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finish();
+            tickets = writer.tickets;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        journal.deleteBefore(generation);
+        snapshotPosition = position;
+        log.info("Wrote snapshot {} of {} tickets in {} ms", target, tickets, (System.nanoTime() - started) / 1_000_000);
+        return tickets;
+    }
+
+    private synchronized long snapshotPosition() {
+        return snapshotPosition;
+    }
+
+    /**
+     * Stops the periodic snapshots, waiting for a running snapshot to finish.
+     */
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Encodes tickets as {@link FileTicketJournal#TYPE_TICKET} records into a large write buffer.
+     */
+    private final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final CRC32C crc = new CRC32C();
+        private ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+        private byte[] codes = new byte[64]; //Lines of the ticket being written
+        private long tickets;
+
+        //State of the ticket being written, copied while the ticket is held
+        private int lineCount;
+        private boolean sequence;
+        private boolean checked;
+
+        private Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void write(long ticketId) {
+            boolean present = store.update(ticketId, ticket -> {
+                lineCount = ticket.getLineCount();
+                sequence = ticket.isSequenceBacked();
+                checked = ticket.isChecked();
+                if (!sequence) {
+                    if (codes.length < lineCount) {
+                        codes = new byte[Math.max(lineCount, codes.length * 2)];
+                    }
+                    ticket.copyLineCodes(0, codes, 0, lineCount);
+                }
+                return ticket;
+            }).isPresent();
+            if (!present) {
+                return; // Removed after the iteration reached it
+            }
+            try {
+                int payloadBytes = FileTicketJournal.LINES_PAYLOAD_BYTES + (sequence ? 0 : lineCount) + 1;
+                ensureRoom(FileTicketJournal.RECORD_HEADER_BYTES + payloadBytes);
+                int payloadStart = buffer.position() + FileTicketJournal.RECORD_HEADER_BYTES;
+                buffer.putInt(payloadBytes).putInt(0)
+                        .put(FileTicketJournal.TYPE_TICKET)
+                        .putLong(ticketId)
+                        .putInt(0)
+                        .putInt(lineCount)
+                        .put(sequence ? FileTicketJournal.SOURCE_SEQUENCE : FileTicketJournal.SOURCE_CODES);
+                if (!sequence) {
+                    buffer.put(codes, 0, lineCount);
+                }
+                buffer.put((byte) (checked ? 1 : 0));
+                crc.reset();
+                crc.update(buffer.array(), payloadStart, payloadBytes);
+                buffer.putInt(payloadStart - 4, (int) crc.getValue());
+                tickets++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeHeader(long fingerprint) throws IOException {
+            ByteBuffer header = FileTicketJournal.headerRecord(fingerprint);
+            ensureRoom(header.remaining());
+            buffer.put(header);
+        }
+
+        private void writeDraws(List<Draw> draws) throws IOException {
+            long drawId = 1;
+            for (Draw draw : draws) {
+                for (; drawId < draw.getId(); drawId++) {
+                    writeDraw(drawId, 0, DrawStatus.PURGED);
+                }
+                writeDraw(draw.getId(), draw.getStartId(), draw.getStatus());
+                drawId++;
+            }
+        }
+
+        private void writeDraw(long drawId, long startId, DrawStatus status) throws IOException {
+            int payloadBytes = FileTicketJournal.DRAW_PAYLOAD_BYTES;
+            ensureRoom(FileTicketJournal.RECORD_HEADER_BYTES + payloadBytes);
+            int payloadStart = buffer.position() + FileTicketJournal.RECORD_HEADER_BYTES;
+            buffer.putInt(payloadBytes).putInt(0)
+                    .put(FileTicketJournal.TYPE_DRAW)
+                    .putLong(drawId)
+                    .putLong(startId)
+                    .put((byte) status.ordinal());
+            crc.reset();
+            crc.update(buffer.array(), payloadStart, payloadBytes);
+            buffer.putInt(payloadStart - 4, (int) crc.getValue());
+        }
+
+        private void ensureRoom(int recordBytes) throws IOException {
+            if (buffer.remaining() < recordBytes) {
+                writeBuffer();
+                if (buffer.capacity() < recordBytes) {
+                    buffer = ByteBuffer.allocate(recordBytes); // Shrinks back after the next write
+                }
+            }
+        }
+
+        private void writeBuffer() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer = buffer.capacity() > WRITE_BUFFER_BYTES ? ByteBuffer.allocate(WRITE_BUFFER_BYTES) : buffer.clear();
+        }
+
+        private void finish() throws IOException {
+            writeBuffer();
+            channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.rahul.lotteryassignment.repository;
+
+import com.rahul.lotteryassignment.constant.DrawStatus;
+import com.rahul.lotteryassignment.dto.Draw;
+import com.rahul.lotteryassignment.dto.Ticket;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Tickets of one draw, with their own shards, ordered IDs and counters.
+ * <p>
+ * Writes that must not reach a closed draw, saves and added lines, pass through a gate: the
+ * writer registers in a per-thread stripe of in-flight writes and then reads the closed flag,
+ * while {@link #close()} sets the flag and then waits for all stripes to drain. Both sides use
+ * volatile accesses, so either the writer sees the draw closed or the close waits for the write.
+ * The stripes are padded to separate cache lines and only written by the writers of this draw.
+ * </p>
+ */
+final class DrawPartition {
+
+    private static final int STRIPE_PADDING = 16; //Ints per cache line, so stripes never share one
+
+    private final long drawId;
+    private final long startId;
+    private final Map<Long, Ticket>[] shards;
+    private final int shardMask;
+    private final ConcurrentSkipListSet<Long> orderedIds = new ConcurrentSkipListSet<>(); //IDs of stored tickets in ascending order
+    private final LongAdder size = new LongAdder(); //Number of stored tickets
+    private final LongAdder lines = new LongAdder(); //Number of lines on stored tickets, adjusted on every change
+    private final AtomicIntegerArray writers; //In-flight gated writes per stripe
+    private final int stripeMask;
+    private volatile boolean closed;
+
+    /**
+     * @param drawId     Number of the draw
+     * @param startId    Lowest ticket ID of the draw
+     * @param shardCount Number of shards, a power of two
+     */
+    @SuppressWarnings("unchecked")
+    DrawPartition(long drawId, long startId, int shardCount) {
+        this.drawId = drawId;
+        this.startId = startId;
+        this.shards = new Map[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new ConcurrentHashMap<>();
+        }
+        this.shardMask = shardCount - 1;
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        this.writers = new AtomicIntegerArray(stripes * STRIPE_PADDING);
+        this.stripeMask = stripes - 1;
+    }
+
+    long drawId() {
+        return drawId;
+    }
+
+    long startId() {
+        return startId;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Registers a gated write. Must be followed by {@link #exit()} on the same thread when it returns {@code true}.
+     *
+     * @return {@code false} if the draw is closed, in which case nothing is registered
+     */
+    boolean enter() {
+        int stripe = stripe();
+        writers.incrementAndGet(stripe);
+        if (closed) {
+            writers.decrementAndGet(stripe);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Ends a gated write started by {@link #enter()}.
+     */
+    void exit() {
+        writers.decrementAndGet(stripe());
+    }
+
+    /**
+     * Closes the draw and waits for the gated writes in flight. Gated writes are single ticket
+     * operations, so the wait is short.
+     */
+    void close() {
+        closed = true;
+        for (int stripe = 0; stripe < writers.length(); stripe += STRIPE_PADDING) {
+            while (writers.get(stripe) != 0) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    boolean save(Ticket ticket, Consumer<Ticket> beforePublish) {
+        if (!saveUncounted(ticket, beforePublish)) {
+            return false;
+        }
+        size.increment();
+        lines.add(ticket.getLineCount());
+        return true;
+    }
+
+    /**
+     * Stores a ticket of a batch, leaving the counters to {@link #added(long, long)}. The action
+     * runs while the shard holds the ID and before the ticket can be read from it.
+     */
+    boolean saveUncounted(Ticket ticket, Consumer<Ticket> beforePublish) {
+        boolean[] absent = new boolean[1];
+        shardFor(ticket.getId()).computeIfAbsent(ticket.getId(), id -> {
+            beforePublish.accept(ticket);
+            absent[0] = true;
+            return ticket;
+        });
+        if (!absent[0]) {
+            return false;
+        }
+        orderedIds.add(ticket.getId());
+        return true;
+    }
+
+    void added(long tickets, long lineCount) {
+        size.add(tickets);
+        lines.add(lineCount);
+    }
+
+    Ticket get(Long id) {
+        return shardFor(id).get(id);
+    }
+
+    Optional<Ticket> update(Long id, UnaryOperator<Ticket> updater) {
+        return Optional.ofNullable(shardFor(id).computeIfPresent(id, (key, ticket) -> {
+            int before = ticket.getLineCount();
+            Ticket updated = updater.apply(ticket);
+            lines.add(updated.getLineCount() - before);
+            return updated;
+        }));
+    }
+
+    Optional<Ticket> remove(Long id) {
+        Ticket removed = shardFor(id).remove(id);
+        if (removed != null) {
+            orderedIds.remove(id);
+            size.decrement();
+            lines.add(-removed.getLineCount());
+        }
+        return Optional.ofNullable(removed);
+    }
+
+    Stream<Ticket> streamAfter(Long afterId) {
+        return (afterId == null ? orderedIds : orderedIds.tailSet(afterId, false))
+                .stream()
+                .map(id -> shardFor(id).get(id))
+                .filter(Objects::nonNull); // Removed since its ID was read
+    }
+
+    Long lastId() {
+        return orderedIds.isEmpty() ? null : orderedIds.floor(Long.MAX_VALUE);
+    }
+
+    void forEach(Consumer<Ticket> action) {
+        for (Map<Long, Ticket> shard : shards) {
+            shard.values().forEach(action);
+        }
+    }
+
+    long count() {
+        return size.sum();
+    }
+
+    long lineCount() {
+        return lines.sum();
+    }
+
+    /**
+     * @param status State to report
+     * @return The draw with its current counters
+     */
+    Draw toDraw(DrawStatus status) {
+        return new Draw(drawId, startId, status, count(), lineCount());
+    }
+
+    Draw toDraw() {
+        return toDraw(closed ? DrawStatus.CLOSED : DrawStatus.OPEN);
+    }
+
+    /**
+     * Selects the shard owning an ID, mixing the hash so sequential IDs spread evenly.
+     */
+    private Map<Long, Ticket> shardFor(Long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return shards[(int) (h >>> 32) & shardMask];
+    }
+
+    /**
+     * Selects the stripe of the calling thread; a thread always uses the same one.
+     */
+    private int stripe() {
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return ((int) (h >>> 32) & stripeMask) * STRIPE_PADDING;
+    }
+}
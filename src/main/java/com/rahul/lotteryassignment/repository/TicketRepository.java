@@ -1,20 +1,309 @@
 package com.rahul.lotteryassignment.repository;
 
+import com.rahul.lotteryassignment.constant.DrawStatus;
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.dto.Draw;
 import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.exception.CustomException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Repository;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 /**
  * @author Rahul Kumar, reader.rahul@gmail.com
  * Repository for storing tickets.
+ * <p>
+ * Every draw owns a {@link DrawPartition} covering the ticket IDs from its start ID up to the
+ * start of the next draw, so a ticket is routed to its draw by its ID alone: the open draw is
+ * checked first, older draws are found in a skip list keyed by start ID. Draws are looked up by
+ * their own ID in a hash map kept next to the skip list. Within a draw, tickets
+ * are spread over a fixed number of independent shards so that writers on different tickets
+ * rarely touch the same lock and a growing draw never resizes one huge table at once. A
+ * concurrent skip list of the IDs of each draw serves ordered iteration for pagination and streaming.
+ * </p>
+ * <p>
+ * Requests on the open draw and work on closed draws, such as settlement or a purge, never
+ * share a shard, a counter or a lock. Closing a draw only waits for the saves and added lines
+ * in flight on that draw, and purging it drops its partition in one step.
+ * </p>
  */
 @Repository
-public class TicketRepository {
+public class TicketRepository implements TicketStore {
+
+    private static final Consumer<Ticket> NO_ACTION = ticket -> {
+    };
+
+    private final int shardCount;
+    private final ConcurrentSkipListMap<Long, DrawPartition> partitions = new ConcurrentSkipListMap<>(); //Draws by start ID
+    private final Map<Long, DrawPartition> draws = new ConcurrentHashMap<>(); //Same draws by draw ID, updated together
+    private volatile DrawPartition current; //Latest draw, the only one that can be open
+
+    /**
+     * Creates a repository with a shard count sized to the available processors.
+     */
+    public TicketRepository() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
 
     /**
-     * In-memory map to store tickets by ID
+     * Creates a repository with at least the given number of shards per draw, holding an open
+     * first draw that covers every ticket ID.
+     *
+     * @param minShards Minimum number of shards, rounded up to a power of two
      */
-    public static final Map<Integer, Ticket> tickets = new HashMap<>();
+    public TicketRepository(int minShards) {
+        this.shardCount = Integer.highestOneBit(Math.max(1, minShards - 1)) << 1;
+        this.current = new DrawPartition(1, 0, shardCount);
+        partitions.put(0L, current);
+        draws.put(current.drawId(), current);
+    }
+
+    @Override
+    public boolean save(Ticket ticket) {
+        return save(ticket, NO_ACTION);
+    }
+
+    @Override
+    public boolean save(Ticket ticket, Consumer<Ticket> beforePublish) {
+        DrawPartition partition = partitionFor(ticket.getId());
+        if (partition == null || !partition.enter()) {
+            throw drawClosed(ticket.getId());
+        }
+        try {
+            return partition.save(ticket, beforePublish);
+        } finally {
+            partition.exit();
+        }
+    }
+
+    @Override
+    public List<Ticket> saveAll(List<Ticket> tickets) {
+        return saveAll(tickets, NO_ACTION);
+    }
+
+    @Override
+    public List<Ticket> saveAll(List<Ticket> tickets, Consumer<Ticket> beforePublish) {
+        // A batch normally falls into the open draw, but IDs issued just before a draw closed
+        // may fall into the previous one. Every draw of the batch is entered before anything is stored.
+        List<DrawPartition> entered = new ArrayList<>(2);
+        DrawPartition[] routed = new DrawPartition[tickets.size()];
+        try {
+            for (int i = 0; i < routed.length; i++) {
+                DrawPartition partition = partitionFor(tickets.get(i).getId());
+                if (partition != null && !entered.contains(partition)) {
+                    if (!partition.enter()) {
+                        partition = null;
+                    } else {
+                        entered.add(partition);
+                    }
+                }
+                if (partition == null) {
+                    throw drawClosed(tickets.get(i).getId());
+                }
+                routed[i] = partition;
+            }
+            List<Ticket> stored = new ArrayList<>(tickets.size());
+            long[] storedLines = new long[entered.size()];
+            long[] storedTickets = new long[entered.size()];
+            try {
+                for (int i = 0; i < routed.length; i++) {
+                    Ticket ticket = tickets.get(i);
+                    if (routed[i].saveUncounted(ticket, beforePublish)) {
+                        int index = entered.indexOf(routed[i]);
+                        storedTickets[index]++;
+                        storedLines[index] += ticket.getLineCount();
+                        stored.add(ticket);
+                    }
+                }
+            } finally {
+                // Counters are shared by all writers of a draw, so they are adjusted once per batch
+                for (int i = 0; i < entered.size(); i++) {
+                    entered.get(i).added(storedTickets[i], storedLines[i]);
+                }
+            }
+            return stored;
+        } finally {
+            entered.forEach(DrawPartition::exit);
+        }
+    }
+
+    @Override
+    public Optional<Ticket> findById(Long id) {
+        DrawPartition partition = partitionFor(id);
+        return partition == null ? Optional.empty() : Optional.ofNullable(partition.get(id));
+    }
+
+    @Override
+    public Optional<Ticket> update(Long id, UnaryOperator<Ticket> updater) {
+        DrawPartition partition = partitionFor(id);
+        return partition == null ? Optional.empty() : partition.update(id, updater);
+    }
+
+    @Override
+    public Optional<Ticket> updateOpen(Long id, UnaryOperator<Ticket> updater) {
+        DrawPartition partition = partitionFor(id);
+        if (partition == null || partition.get(id) == null) {
+            return Optional.empty();
+        }
+        if (!partition.enter()) {
+            throw drawClosed(id);
+        }
+        try {
+            return partition.update(id, updater);
+        } finally {
+            partition.exit();
+        }
+    }
+
+    @Override
+    public Optional<Ticket> remove(Long id) {
+        DrawPartition partition = partitionFor(id);
+        return partition == null ? Optional.empty() : partition.remove(id);
+    }
+
+    @Override
+    public List<Ticket> findAll() {
+        List<Ticket> all = new ArrayList<>((int) Math.min(Integer.MAX_VALUE - 8, count()));
+        forEach(all::add);
+        return all;
+    }
+
+    @Override
+    public Stream<Ticket> streamAfter(Long afterId) {
+        Long first = afterId == null ? null : partitions.floorKey(afterId);
+        Collection<DrawPartition> following = first == null ? partitions.values() : partitions.tailMap(first, true).values();
+        // Draws cover ascending ID ranges, so concatenating them keeps the ID order
+        return following.stream().flatMap(partition -> partition.streamAfter(afterId));
+    }
+
+    @Override
+    public Optional<Long> lastId() {
+        for (DrawPartition partition : partitions.descendingMap().values()) {
+            Long lastId = partition.lastId();
+            if (lastId != null) {
+                return Optional.of(lastId);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void forEach(Consumer<Ticket> action) {
+        for (DrawPartition partition : partitions.values()) {
+            partition.forEach(action);
+        }
+    }
+
+    @Override
+    public void forEach(long drawId, Consumer<Ticket> action) {
+        findPartition(drawId).ifPresent(partition -> partition.forEach(action));
+    }
+
+    @Override
+    public long count() {
+        long count = 0;
+        for (DrawPartition partition : partitions.values()) {
+            count += partition.count();
+        }
+        return count;
+    }
+
+    @Override
+    public long lineCount() {
+        long lineCount = 0;
+        for (DrawPartition partition : partitions.values()) {
+            lineCount += partition.lineCount();
+        }
+        return lineCount;
+    }
+
+    @Override
+    public Draw currentDraw() {
+        return current.toDraw();
+    }
+
+    @Override
+    public List<Draw> draws() {
+        return partitions.values().stream().map(DrawPartition::toDraw).toList();
+    }
+
+    @Override
+    public Optional<Draw> findDraw(long drawId) {
+        return findPartition(drawId).map(DrawPartition::toDraw);
+    }
+
+    @Override
+    public synchronized boolean openDraw(long drawId, long startId) {
+        DrawPartition latest = current;
+        if (drawId <= latest.drawId()) {
+            return false;
+        }
+        if (startId <= latest.startId()) {
+            throw new IllegalArgumentException("Draw " + drawId + " must start after ticket " + latest.startId());
+        }
+        DrawPartition opened = new DrawPartition(drawId, startId, shardCount);
+        partitions.put(startId, opened);
+        draws.put(drawId, opened);
+        current = opened;
+        return true;
+    }
+
+    @Override
+    public synchronized Optional<Draw> closeDraw(long drawId) {
+        Optional<DrawPartition> partition = findPartition(drawId);
+        if (partition.isPresent() && partition.get() == current) {
+            throw new IllegalStateException("The latest draw " + drawId + " stays open until a later draw is opened");
+        }
+        partition.ifPresent(DrawPartition::close);
+        return partition.map(DrawPartition::toDraw);
+    }
+
+    @Override
+    public synchronized Optional<Draw> purgeDraw(long drawId) {
+        Optional<DrawPartition> partition = findPartition(drawId);
+        if (partition.isPresent() && !partition.get().isClosed()) {
+            throw new IllegalStateException("Draw " + drawId + " must be closed before it is purged");
+        }
+        partition.ifPresent(purged -> {
+            draws.remove(drawId, purged);
+            partitions.remove(purged.startId(), purged);
+        });
+        return partition.map(purged -> purged.toDraw(DrawStatus.PURGED));
+    }
+
+    /**
+     * Selects the draw covering an ID. The open draw is checked first, as it receives nearly all requests.
+     *
+     * @return The draw, or {@code null} if the ID falls before the first draw held
+     */
+    private DrawPartition partitionFor(Long id) {
+        DrawPartition latest = current;
+        if (id >= latest.startId()) {
+            return latest;
+        }
+        Map.Entry<Long, DrawPartition> older = partitions.floorEntry(id);
+        return older == null ? null : older.getValue();
+    }
+
+    private Optional<DrawPartition> findPartition(long drawId) {
+        return Optional.ofNullable(draws.get(drawId));
+    }
+
+    private static CustomException drawClosed(Long id) {
+        return new CustomException(
+                ErrorCode.DRAW_CLOSED,
+                "Ticket ID " + id + " belongs to a closed draw and cannot be modified.",
+                HttpStatus.CONFLICT
+        );
+    }
 }
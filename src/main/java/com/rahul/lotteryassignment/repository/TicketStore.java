@@ -0,0 +1,205 @@
+package com.rahul.lotteryassignment.repository;
+
+import com.rahul.lotteryassignment.dto.Draw;
+import com.rahul.lotteryassignment.dto.Ticket;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Storage abstraction for tickets.
+ * <p>
+ * Implementations must be safe for concurrent use by request threads. All updates to a
+ * stored ticket go through {@link #update(Long, UnaryOperator)} so that a ticket is
+ * never modified by two requests at the same time.
+ * </p>
+ * <p>
+ * Tickets belong to draws, each covering the ticket IDs from its start ID up to the start of the
+ * next draw. Only the latest draw is open; opening a new draw leaves the previous one to be
+ * closed, which freezes its tickets for settlement, and a closed draw can then be purged.
+ * </p>
+ */
+public interface TicketStore {
+
+    /**
+     * Stores a new ticket.
+     *
+     * @param ticket The ticket to store.
+     * @return {@code true} if the ticket was stored, {@code false} if a ticket with the same ID already exists.
+     * @throws com.rahul.lotteryassignment.exception.CustomException if the draw of the ticket is closed.
+     */
+    boolean save(Ticket ticket);
+
+    /**
+     * Stores a new ticket, running an action on it before it becomes visible to anyone else.
+     * <p>
+     * The action only runs once the ticket is certain to be stored, while its ID is exclusively
+     * held, so no update or read of the ticket can happen before it. It must be short and must
+     * not access the store itself. If it throws, the ticket is not stored.
+     * </p>
+     *
+     * @param ticket        The ticket to store.
+     * @param beforePublish Action run on the ticket right before it is stored.
+     * @return {@code true} if the ticket was stored, {@code false} if a ticket with the same ID already exists.
+     * @throws com.rahul.lotteryassignment.exception.CustomException if the draw of the ticket is closed.
+     */
+    boolean save(Ticket ticket, Consumer<Ticket> beforePublish);
+
+    /**
+     * Stores many new tickets at once, skipping those whose ID already exists.
+     *
+     * @param tickets The tickets to store.
+     * @return The tickets that were stored, in their original order.
+     * @throws com.rahul.lotteryassignment.exception.CustomException if the draw of any ticket is closed, storing none of them.
+     */
+    List<Ticket> saveAll(List<Ticket> tickets);
+
+    /**
+     * Stores many new tickets at once like {@link #saveAll(List)}, running an action on each of them
+     * before it becomes visible like {@link #save(Ticket, Consumer)}. If the action throws, the
+     * tickets stored before are kept and the rest are not stored.
+     *
+     * @param tickets       The tickets to store.
+     * @param beforePublish Action run on each ticket right before it is stored.
+     * @return The tickets that were stored, in their original order.
+     * @throws com.rahul.lotteryassignment.exception.CustomException if the draw of any ticket is closed, storing none of them.
+     */
+    List<Ticket> saveAll(List<Ticket> tickets, Consumer<Ticket> beforePublish);
+
+    /**
+     * Looks up a ticket by its ID.
+     *
+     * @param id The unique ID of the ticket.
+     * @return The ticket, or an empty optional if it does not exist.
+     */
+    Optional<Ticket> findById(Long id);
+
+    /**
+     * Atomically applies an update to an existing ticket.
+     * <p>
+     * The updater runs while the ticket is exclusively held, so it must be short and must not
+     * access the store itself. Exceptions thrown by the updater are propagated to the caller
+     * and leave the stored ticket in place.
+     * </p>
+     *
+     * @param id      The unique ID of the ticket.
+     * @param updater Function applied to the current ticket, returning the ticket to store.
+     * @return The updated ticket, or an empty optional if the ticket does not exist.
+     */
+    Optional<Ticket> update(Long id, UnaryOperator<Ticket> updater);
+
+    /**
+     * Atomically applies an update to an existing ticket of an open draw, like
+     * {@link #update(Long, UnaryOperator)}. Closing the draw waits for the update to finish.
+     *
+     * @param id      The unique ID of the ticket.
+     * @param updater Function applied to the current ticket, returning the ticket to store.
+     * @return The updated ticket, or an empty optional if the ticket does not exist.
+     * @throws com.rahul.lotteryassignment.exception.CustomException if the draw of the ticket is closed.
+     */
+    Optional<Ticket> updateOpen(Long id, UnaryOperator<Ticket> updater);
+
+    /**
+     * Removes a ticket.
+     *
+     * @param id The unique ID of the ticket.
+     * @return The removed ticket, or an empty optional if it did not exist.
+     */
+    Optional<Ticket> remove(Long id);
+
+    /**
+     * Retrieves all stored tickets.
+     *
+     * @return A new list containing every ticket.
+     */
+    List<Ticket> findAll();
+
+    /**
+     * Lazily streams stored tickets in ascending ID order, which is their creation order up to
+     * tickets created within the same millisecond.
+     * Tickets created or removed while the stream is consumed may or may not be included.
+     *
+     * @param afterId Only tickets with a greater ID are included, or {@code null} to start at the first ticket.
+     * @return A sequential stream reading tickets as it is consumed.
+     */
+    Stream<Ticket> streamAfter(Long afterId);
+
+    /**
+     * @return The highest ID of any stored ticket, which is the most recently created one, or empty if there is none.
+     */
+    Optional<Long> lastId();
+
+    /**
+     * Visits every stored ticket without copying the store.
+     *
+     * @param action Action applied to each ticket.
+     */
+    void forEach(Consumer<Ticket> action);
+
+    /**
+     * Visits every ticket of one draw without copying it.
+     *
+     * @param drawId Number of the draw; nothing is visited if it does not exist.
+     * @param action Action applied to each ticket.
+     */
+    void forEach(long drawId, Consumer<Ticket> action);
+
+    /**
+     * @return The number of stored tickets.
+     */
+    long count();
+
+    /**
+     * @return The total number of lines on all stored tickets.
+     */
+    long lineCount();
+
+    /**
+     * @return The latest draw, which receives new tickets.
+     */
+    Draw currentDraw();
+
+    /**
+     * @return All draws held, in ascending order.
+     */
+    List<Draw> draws();
+
+    /**
+     * @param drawId Number of the draw.
+     * @return The draw, or an empty optional if it does not exist or was purged.
+     */
+    Optional<Draw> findDraw(long drawId);
+
+    /**
+     * Opens a new latest draw for the ticket IDs from {@code startId} on. No ticket with such an
+     * ID may be stored before the draw is opened.
+     *
+     * @param drawId  Number of the draw, greater than that of the current draw.
+     * @param startId Lowest ticket ID of the draw, greater than the start ID of the current draw.
+     * @return {@code false} if a draw with the same or a greater number was already opened.
+     */
+    boolean openDraw(long drawId, long startId);
+
+    /**
+     * Freezes a draw that is no longer the latest one: new tickets and lines are refused, while
+     * reads, checks and removals continue. Waits for the saves and line additions in flight on the draw.
+     *
+     * @param drawId Number of the draw.
+     * @return The closed draw, or an empty optional if it does not exist.
+     * @throws IllegalStateException if the draw is the latest one.
+     */
+    Optional<Draw> closeDraw(long drawId);
+
+    /**
+     * Drops a closed draw together with all its tickets, without visiting them.
+     *
+     * @param drawId Number of the draw.
+     * @return The purged draw with the counts it held, or an empty optional if it does not exist.
+     * @throws IllegalStateException if the draw is still open.
+     */
+    Optional<Draw> purgeDraw(long drawId);
+}
@@ -0,0 +1,184 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.exception.CustomException;
+import com.rahul.lotteryassignment.exception.ThrottledException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Admits requests by the number of lines they generate, refusing them at once when over budget
+ * instead of queueing them.
+ * <p>
+ * Each client has a token bucket refilled at {@code linesPerSecond} and holding up to
+ * {@code burstLines}, kept as a single theoretical arrival time (GCRA): admitting a request moves
+ * the time forward by its cost, and the request is refused with 429 if that moves it further
+ * than the burst ahead of now. A request larger than the burst could never be admitted and is
+ * refused with 400. Admitted requests then reserve their lines from a global in-flight budget,
+ * which bounds the memory held by line generation across all clients, and are refused with 503
+ * when it is spent. Both checks are a compare-and-set, so small requests pay the same
+ * constant cost however loaded the server is.
+ * </p>
+ * <p>
+ * A bucket whose arrival time has passed is full and equal to a new one, so such buckets are
+ * dropped whenever more than {@code maxClients} are kept.
+ * </p>
+ */
+public class AdmissionControl implements MeterBinder {
+
+    private final long nanosPerLine;
+    private final long burstNanos; //Time the bucket of a client may run ahead of now
+    private final long burstLines;
+    private final long maxInFlightLines;
+    private final int maxClients;
+    private final LongSupplier clock;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>(); //Theoretical arrival time per client
+    private final AtomicLong inFlightLines = new AtomicLong(); //Lines of admitted requests still running
+    private final LongAdder admitted = new LongAdder(); //Requests admitted
+    private final LongAdder throttled = new LongAdder(); //Requests refused for their client's rate
+    private final LongAdder shed = new LongAdder(); //Requests refused for the global budget
+
+    /**
+     * @param linesPerSecond   Lines each client may request per second on average
+     * @param burstLines       Lines a client may request at once, also the largest request
+     * @param maxInFlightLines Lines all running requests may generate together
+     * @param maxClients       Clients whose buckets are kept before full ones are dropped
+     */
+    public AdmissionControl(long linesPerSecond, long burstLines, long maxInFlightLines, int maxClients) {
+        this(linesPerSecond, burstLines, maxInFlightLines, maxClients, System::nanoTime);
+    }
+
+    AdmissionControl(long linesPerSecond, long burstLines, long maxInFlightLines, int maxClients, LongSupplier clock) {
+        if (linesPerSecond < 1 || linesPerSecond > TimeUnit.SECONDS.toNanos(1) || burstLines < 1
+                || maxInFlightLines < burstLines || maxClients < 1) {
+            throw new IllegalArgumentException("Rates and budgets must be positive, at most one line per nanosecond "
+                    + "and the in-flight budget at least the burst");
+        }
+        this.nanosPerLine = TimeUnit.SECONDS.toNanos(1) / linesPerSecond;
+        this.burstNanos = Math.multiplyExact(burstLines, nanosPerLine);
+        this.burstLines = burstLines;
+        this.maxInFlightLines = maxInFlightLines;
+        this.maxClients = maxClients;
+        this.clock = clock;
+    }
+
+    /**
+     * Admits a request of a client.
+     *
+     * @param client ID of the client, {@code null} for an anonymous one
+     * @param lines  Number of lines the request generates
+     * @return The reservation of the request, to be closed when it finishes
+     * @throws CustomException if the request is larger than the burst
+     * @throws ThrottledException if the client or the server is over its budget
+     */
+    public Permit admit(String client, long lines) {
+        if (lines > burstLines) {
+            throw new CustomException(ErrorCode.INVALID_INPUT,
+                    "A request may generate at most " + burstLines + " lines",
+                    HttpStatus.BAD_REQUEST);
+        }
+        AtomicLong bucket = bucket(client == null ? "" : client);
+        long cost = lines * nanosPerLine;
+        long now = clock.getAsLong();
+        long arrival;
+        long next;
+        do {
+            arrival = bucket.get();
+            next = Math.max(arrival, now) + cost;
+            if (next - now > burstNanos) {
+                throttled.increment();
+                throw new ThrottledException(ErrorCode.RATE_LIMITED,
+                        "Line rate exceeded, retry later",
+                        HttpStatus.TOO_MANY_REQUESTS,
+                        TimeUnit.NANOSECONDS.toSeconds(next - now - burstNanos) + 1);
+            }
+        } while (!bucket.compareAndSet(arrival, next));
+
+        long reserved;
+        do {
+            reserved = inFlightLines.get();
+            if (reserved + lines > maxInFlightLines) {
+                bucket.addAndGet(-cost); // The client is not charged for a refused request
+                shed.increment();
+                throw new ThrottledException(ErrorCode.OVERLOADED,
+                        "Too many lines being generated, retry later",
+                        HttpStatus.SERVICE_UNAVAILABLE,
+                        1);
+            }
+        } while (!inFlightLines.compareAndSet(reserved, reserved + lines));
+        admitted.increment();
+        return new Permit(lines);
+    }
+
+    /**
+     * @return Lines of admitted requests still running
+     */
+    public long inFlightLines() {
+        return inFlightLines.get();
+    }
+
+    private AtomicLong bucket(String client) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            long now = clock.getAsLong();
+            buckets.values().removeIf(idle -> idle.get() - now <= 0);
+        }
+        return buckets.computeIfAbsent(client, key -> new AtomicLong(clock.getAsLong()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("lottery.admission.inflight", inFlightLines, AtomicLong::get)
+                .description("Lines of admitted requests still being generated")
+                .baseUnit("lines")
+                .register(registry);
+        FunctionCounter.builder("lottery.admission.requests", admitted, LongAdder::sum)
+                .description("Requests admitted or refused by admission control")
+                .tag("outcome", "admitted")
+                .register(registry);
+        FunctionCounter.builder("lottery.admission.requests", throttled, LongAdder::sum)
+                .description("Requests admitted or refused by admission control")
+                .tag("outcome", "throttled")
+                .register(registry);
+        FunctionCounter.builder("lottery.admission.requests", shed, LongAdder::sum)
+                .description("Requests admitted or refused by admission control")
+                .tag("outcome", "shed")
+                .register(registry);
+    }
+
+    /**
+     * Lines reserved by an admitted request, returned to the global budget when closed. A permit
+     * may be closed more than once and from several threads, its lines are returned only once.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long lines;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Permit(long lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                inFlightLines.addAndGet(-lines);
+            }
+        }
+    }
+}
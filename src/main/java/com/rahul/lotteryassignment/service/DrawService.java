@@ -0,0 +1,114 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.constant.DrawStatus;
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.dto.Draw;
+import com.rahul.lotteryassignment.exception.CustomException;
+import com.rahul.lotteryassignment.persistence.TicketJournal;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Service class for the lifecycle of draws.
+ * <p>
+ * A draw is closed by opening the next one at a fence of the ticket IDs: IDs are paused only
+ * while the next draw is journaled and opened, so every ticket created afterwards belongs to the
+ * new draw. The previous draw is then frozen, which only waits for the writes in flight on it.
+ * </p>
+ */
+@Service
+public class DrawService {
+
+    private final TicketStore ticketStore;
+    private final TicketIdGenerator idGenerator;
+    private final TicketJournal journal;
+
+    public DrawService(TicketStore ticketStore, TicketIdGenerator idGenerator, TicketJournal journal) {
+        this.ticketStore = ticketStore;
+        this.idGenerator = idGenerator;
+        this.journal = journal;
+    }
+
+    /**
+     * @return The open draw receiving new tickets.
+     */
+    public Draw getCurrentDraw() {
+        return ticketStore.currentDraw();
+    }
+
+    /**
+     * @return All draws that were not purged, oldest first.
+     */
+    public List<Draw> getDraws() {
+        return ticketStore.draws();
+    }
+
+    /**
+     * Retrieves a draw by its number.
+     *
+     * @param drawId Number of the draw.
+     * @return The {@link Draw}.
+     * @throws CustomException if the draw does not exist or was purged.
+     */
+    public Draw getDraw(long drawId) {
+        return ticketStore.findDraw(drawId).orElseThrow(() -> drawNotFound(drawId));
+    }
+
+    /**
+     * Closes the open draw and opens the next one. Tickets of the closed draw can no longer be
+     * created or receive lines, and become eligible for settlement.
+     *
+     * @return The closed draw with its final counts.
+     */
+    public synchronized Draw closeCurrentDraw() {
+        Draw closing = ticketStore.currentDraw();
+        long nextId = closing.getId() + 1;
+        long journalPosition;
+        long startId = idGenerator.pause();
+        try {
+            journalPosition = journal.recordDraw(nextId, startId, DrawStatus.OPEN);
+            ticketStore.openDraw(nextId, startId);
+        } finally {
+            idGenerator.resume();
+        }
+        journalPosition = Math.max(journalPosition,
+                journal.recordDraw(closing.getId(), closing.getStartId(), DrawStatus.CLOSED));
+        Draw closed = ticketStore.closeDraw(closing.getId()).orElseThrow(() -> drawNotFound(closing.getId()));
+        journal.awaitDurable(journalPosition);
+        return closed;
+    }
+
+    /**
+     * Drops a closed draw together with all its tickets.
+     *
+     * @param drawId Number of the draw.
+     * @return The purged draw with the counts it held.
+     * @throws CustomException if the draw does not exist or is still open.
+     */
+    public synchronized Draw purgeDraw(long drawId) {
+        Draw draw = getDraw(drawId);
+        if (draw.getStatus() == DrawStatus.OPEN) {
+            throw new CustomException(
+                    ErrorCode.DRAW_OPEN,
+                    "Draw " + drawId + " is still open and cannot be purged.",
+                    HttpStatus.CONFLICT
+            );
+        }
+        long journalPosition = journal.recordDraw(drawId, draw.getStartId(), DrawStatus.PURGED);
+        Draw purged = ticketStore.purgeDraw(drawId).orElseThrow(() -> drawNotFound(drawId));
+        journal.awaitDurable(journalPosition);
+        return purged;
+    }
+
+    private static CustomException drawNotFound(long drawId) {
+        return new CustomException(
+                ErrorCode.DRAW_NOT_FOUND,
+                "Draw not found for ID: " + drawId,
+                HttpStatus.NOT_FOUND
+        );
+    }
+}
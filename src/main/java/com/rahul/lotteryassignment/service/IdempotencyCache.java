@@ -0,0 +1,222 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.exception.CustomException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Results of requests sent with an {@code Idempotency-Key}, so a retried request gets the result
+ * of the first one instead of running again.
+ * <p>
+ * Keys belong to the client that sent them: the same key sent by two clients names two requests,
+ * so a client can neither replay nor block the request of another. The first request with a key
+ * registers a pending entry and runs; requests of the same client with the same key arriving
+ * meanwhile wait for its result instead of running themselves. Failed requests are not kept, so
+ * they may be retried with the same key. A key reused for a different request is refused.
+ * </p>
+ * <p>
+ * All entries live for the same time, so the order of registration is also the order of expiry.
+ * Entries are queued in that order and each registration drops the expired entries at the head
+ * of the queue, and the oldest ones while more than {@code maxEntries} are queued or their
+ * results weigh more than {@code maxBytes}, which bounds memory whatever the rate of keys and the
+ * size of the results. Under a higher load, keys are forgotten before their TTL ends.
+ * </p>
+ *
+ * @param <T> Type of the results
+ */
+public class IdempotencyCache<T> implements MeterBinder {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final ToLongFunction<? super T> weigher;
+    private final LongSupplier clock;
+    private final Map<Scope, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry<T>> expiryOrder = new ConcurrentLinkedQueue<>(); //Entries in order of registration, and so of expiry
+    private final AtomicInteger queued = new AtomicInteger(); //Size of expiryOrder, counted apart since the queue does not track it
+    private final AtomicLong bytes = new AtomicLong(); //Weight of the results of the queued entries
+    private final LongAdder replays = new LongAdder(); //Requests answered with the result of an earlier one
+
+    /**
+     * @param ttlMs      Time a result is kept after its request started
+     * @param maxEntries Largest number of keys kept
+     * @param maxBytes   Largest total weight of the results kept
+     * @param weigher    Estimates the bytes of memory a result holds on to
+     */
+    public IdempotencyCache(long ttlMs, int maxEntries, long maxBytes, ToLongFunction<? super T> weigher) {
+        this(ttlMs, maxEntries, maxBytes, weigher, System::nanoTime);
+    }
+
+    IdempotencyCache(long ttlMs, int maxEntries, long maxBytes, ToLongFunction<? super T> weigher, LongSupplier clock) {
+        if (ttlMs < 1 || maxEntries < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("TTL, the number of entries and the bytes kept must be positive");
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs a request once per key of a client.
+     *
+     * @param client  Client sending the request, which the key belongs to
+     * @param key     Idempotency key sent by the client, {@code null} to run the request without one
+     * @param request Description of the request, which must be the same for every use of the key
+     * @param action  Runs the request
+     * @return The result of the first request of the client with the key, waiting for it if still running
+     * @throws CustomException if the key is invalid or was used for a different request,
+     *                         or the exception of the first request while it was running
+     */
+    public T execute(String client, String key, String request, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new CustomException(ErrorCode.INVALID_INPUT,
+                    "Idempotency key must have between 1 and " + MAX_KEY_LENGTH + " characters",
+                    HttpStatus.BAD_REQUEST);
+        }
+        long now = clock.getAsLong();
+        Entry<T> entry = new Entry<>(new Scope(client, key), request, now + ttlNanos);
+        Entry<T> existing = entries.compute(entry.scope, (k, current) -> current == null || current.isExpired(now) ? entry : current);
+        if (existing != entry) {
+            if (!existing.request.equals(request)) {
+                throw new CustomException(ErrorCode.IDEMPOTENCY_KEY_REUSED,
+                        "Idempotency key " + key + " was used for a different request",
+                        HttpStatus.UNPROCESSABLE_ENTITY);
+            }
+            replays.increment();
+            try {
+                return existing.result.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            }
+        }
+
+        expiryOrder.add(entry);
+        queued.incrementAndGet();
+        evict(now);
+        try {
+            T result = action.get();
+            bytes.addAndGet(entry.weigh(weigher.applyAsLong(result)));
+            entry.result.complete(result);
+            evict(now);
+            return result;
+        } catch (RuntimeException | Error e) {
+            entries.remove(entry.scope, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return Number of keys kept
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Weight of the results kept
+     */
+    public long bytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Drops the head of the queue while it expired or the queue is over one of its bounds. Entries
+     * of failed requests are no longer in the map and are just dequeued.
+     */
+    private void evict(long now) {
+        Entry<T> head;
+        while ((head = expiryOrder.peek()) != null
+                && (head.isExpired(now) || queued.get() > maxEntries || bytes.get() > maxBytes)) {
+            if (expiryOrder.remove(head)) {
+                queued.decrementAndGet();
+                entries.remove(head.scope, head);
+                bytes.addAndGet(-head.dequeue());
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("lottery.idempotency.keys", this, IdempotencyCache::size)
+                .description("Idempotency keys whose results are kept")
+                .register(registry);
+        Gauge.builder("lottery.idempotency.bytes", this, IdempotencyCache::bytes)
+                .description("Estimated memory held by the results kept for idempotency keys")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("lottery.idempotency.replays", replays, LongAdder::sum)
+                .description("Requests answered with the result of an earlier request with the same idempotency key")
+                .register(registry);
+    }
+
+    /**
+     * Idempotency key of one client.
+     */
+    private record Scope(String client, String key) {
+    }
+
+    private static final class Entry<T> {
+
+        private final Scope scope;
+        private final String request; //Description of the request that registered the key
+        private final long expiresAt; //Value of the clock after which the entry is dropped
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private long weight; //Weight of the result, counted in the bytes kept until the entry is dequeued, guarded by this
+        private boolean dequeued; //guarded by this
+
+        private Entry(Scope scope, String request, long expiresAt) {
+            this.scope = scope;
+            this.request = request;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+
+        /**
+         * Adds the weight of the completed result, unless the entry was dequeued meanwhile.
+         *
+         * @return The weight to add to the bytes kept
+         */
+        private synchronized long weigh(long resultWeight) {
+            weight = resultWeight;
+            return dequeued ? 0 : resultWeight;
+        }
+
+        /**
+         * @return The weight to remove from the bytes kept
+         */
+        private synchronized long dequeue() {
+            dequeued = true;
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.dto.Line;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Generates random line codes in bulk.
+ * <p>
+ * A line is one of 27 equally likely codes, so instead of drawing three numbers per line the
+ * generator draws one 64-bit word and extracts {@link #CODES_PER_WORD} base-27 digits from it.
+ * Words at or above {@link #WORD_LIMIT} are rejected so that every code stays exactly uniform.
+ * As 27^13 &asymp; 4.05e18 fits four times in 2^64 &asymp; 1.845e19, the limit is 4 &middot; 27^13
+ * &asymp; 1.621e19 and about 1 - 1.621 / 1.845 &asymp; 12.1% of the words are rejected, costing
+ * about 1.14 words per 13 codes on average.
+ * </p>
+ */
+@Component
+public class LineGenerator {
+
+    /**
+     * Number of line codes extracted from one 64-bit word (27^13 &lt; 2^64).
+     */
+    static final int CODES_PER_WORD = 13;
+    private static final long CODES_PER_WORD_RANGE = pow(Line.CODE_COUNT, CODES_PER_WORD);
+    /**
+     * Largest multiple of 27^13 that fits in an unsigned 64-bit word.
+     */
+    private static final long WORD_LIMIT = Long.divideUnsigned(-1L, CODES_PER_WORD_RANGE) * CODES_PER_WORD_RANGE;
+
+    /**
+     * Generates random line codes with the calling thread's random generator.
+     *
+     * @param count Number of lines to generate
+     * @return The generated line codes
+     */
+    public byte[] generate(int count) {
+        byte[] codes = new byte[count];
+        fill(ThreadLocalRandom.current(), codes, 0, count);
+        return codes;
+    }
+
+    /**
+     * Fills part of an array with uniformly distributed line codes.
+     *
+     * @param random Source of random words
+     * @param codes  Array to fill
+     * @param offset First position to fill
+     * @param length Number of codes to write
+     */
+    public static void fill(RandomGenerator random, byte[] codes, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            long word = random.nextLong();
+            if (!acceptWord(word)) {
+                continue; // Rejected to keep the codes unbiased
+            }
+            long digits = wordDigits(word);
+            for (int n = Math.min(CODES_PER_WORD, end - i); n > 0; n--) {
+                codes[i++] = (byte) (digits % Line.CODE_COUNT);
+                digits /= Line.CODE_COUNT;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the word lies below {@link #WORD_LIMIT} and can be used without bias
+     */
+    static boolean acceptWord(long word) {
+        return Long.compareUnsigned(word, WORD_LIMIT) < 0;
+    }
+
+    /**
+     * @return The 13 base-27 digits held by an accepted word, lowest digit first
+     */
+    static long wordDigits(long word) {
+        return Long.remainderUnsigned(word, CODES_PER_WORD_RANGE);
+    }
+
+    private static long pow(long base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result = Math.multiplyExact(result, base);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.dto.LinePage;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.dto.TicketCheckResult;
+import com.rahul.lotteryassignment.dto.TicketPage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Non-blocking view of {@link TicketService} for the reactive API, which must never hold up the
+ * event loop threads serving all connections.
+ * <p>
+ * Reads only touch the in-memory store and run on the subscribing thread, streams reading the
+ * store as far as their subscriber asks. Changes generate lines and wait for the journal, so
+ * they run on the bounded elastic scheduler. Batches are split into chunks of
+ * {@value TicketService#BATCH_CHUNK_SIZE} tickets, each only processed once the previous chunk
+ * was consumed, so a slow client holds at most one chunk instead of the whole batch.
+ * </p>
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTicketService {
+
+    private final TicketService ticketService;
+    private final Scheduler writeScheduler; //Runs changes, which may block on the journal
+
+    public ReactiveTicketService(TicketService ticketService) {
+        this.ticketService = ticketService;
+        this.writeScheduler = Schedulers.boundedElastic();
+    }
+
+    /**
+     * @return The created ticket, or empty if it could not be stored
+     * @see TicketService#createTicket(int)
+     */
+    public Mono<Ticket> createTicket(int lineCount) {
+        return write(() -> ticketService.createTicket(lineCount));
+    }
+
+    /**
+     * Creates many tickets, one chunk at a time as the previous chunk is consumed.
+     *
+     * @return The stored tickets of each chunk, in order
+     * @see TicketService#createTickets(int[], java.util.function.Consumer)
+     */
+    public Flux<List<Ticket>> createTickets(int[] lineCounts) {
+        int chunks = (lineCounts.length + TicketService.BATCH_CHUNK_SIZE - 1) / TicketService.BATCH_CHUNK_SIZE;
+        return Flux.range(0, chunks).concatMap(chunk -> write(() -> {
+            int from = chunk * TicketService.BATCH_CHUNK_SIZE;
+            int[] counts = Arrays.copyOfRange(lineCounts, from, Math.min(lineCounts.length, from + TicketService.BATCH_CHUNK_SIZE));
+            List<Ticket> created = new ArrayList<>(counts.length);
+            ticketService.createTickets(counts, created::addAll);
+            return created;
+        }), 0);
+    }
+
+    /**
+     * @see TicketService#getTicketPage(Long, int)
+     */
+    public Mono<TicketPage<Ticket>> getTicketPage(Long cursor, int limit) {
+        return Mono.fromCallable(() -> ticketService.getTicketPage(cursor, limit));
+    }
+
+    /**
+     * Streams tickets in ascending ID order, reading the store only as far as requested.
+     *
+     * @see TicketService#streamTickets(Long)
+     */
+    public Flux<Ticket> streamTickets(Long cursor) {
+        return Flux.fromStream(() -> ticketService.streamTickets(cursor));
+    }
+
+    /**
+     * @see TicketService#getTicketById(Long)
+     */
+    public Mono<Ticket> getTicketById(Long id) {
+        return Mono.fromCallable(() -> ticketService.getTicketById(id));
+    }
+
+    /**
+     * @see TicketService#getLinePage(Long, int, int, boolean)
+     */
+    public Mono<LinePage> getLinePage(Long id, int offset, int limit, boolean sorted) {
+        return Mono.fromCallable(() -> ticketService.getLinePage(id, offset, limit, sorted));
+    }
+
+    /**
+     * @see TicketService#addLines(Long, int)
+     */
+    public Mono<Ticket> addLines(Long id, int lineCount) {
+        return write(() -> ticketService.addLines(id, lineCount));
+    }
+
+    /**
+     * @see TicketService#checkTicketStatus(Long)
+     */
+    public Mono<Ticket> checkTicketStatus(Long id) {
+        return write(() -> ticketService.checkTicketStatus(id));
+    }
+
+    /**
+     * Checks many tickets, one chunk at a time as the previous chunk is consumed.
+     *
+     * @return The results of each chunk, in the order of the IDs
+     * @see TicketService#checkTickets(java.util.stream.Stream, java.util.function.Consumer)
+     */
+    public Flux<List<TicketCheckResult>> checkTickets(Flux<Long> ids) {
+        return ids.buffer(TicketService.BATCH_CHUNK_SIZE).concatMap(chunk -> write(() -> {
+            List<TicketCheckResult> results = new ArrayList<>(chunk.size());
+            ticketService.checkTickets(chunk.stream(), results::addAll);
+            return results;
+        }), 0);
+    }
+
+    /**
+     * @see TicketService#uncheckedTicketIds(Long)
+     */
+    public Flux<Long> uncheckedTicketIds(Long afterId) {
+        return Flux.fromStream(() -> ticketService.uncheckedTicketIds(afterId));
+    }
+
+    /**
+     * @see TicketService#ticketIdsBetween(long, long)
+     */
+    public Flux<Long> ticketIdsBetween(long fromId, long toId) {
+        return Flux.fromStream(() -> ticketService.ticketIdsBetween(fromId, toId));
+    }
+
+    /**
+     * Runs a change on the write scheduler, completing empty if it returns {@code null}.
+     */
+    private <T> Mono<T> write(Callable<T> change) {
+        return Mono.fromCallable(change).subscribeOn(writeScheduler);
+    }
+}
@@ -0,0 +1,150 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.dto.Line;
+import com.rahul.lotteryassignment.dto.LineSequence;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Counter-based line generator keyed by (server seed, ticket ID, line index).
+ * <p>
+ * Lines are grouped in blocks of {@link LineGenerator#CODES_PER_WORD}; the random word of a block
+ * is the SplitMix64 output at position {@code (block, attempt)} of a stream keyed by the seed and
+ * the ticket ID. Attempts only move past zero when a word is rejected to keep codes unbiased, so
+ * any line can be recomputed on its own, from any thread, without replaying the lines before it.
+ * Anyone holding the seed can therefore reproduce every ticket for an audit.
+ * </p>
+ */
+@Component
+public class SeededLineGenerator implements LineSequence {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final int ATTEMPT_BITS = 8;
+
+    private final long seed;
+    private final long fingerprint; //First 8 bytes of the SHA-256 of the seed, recorded by the journal
+
+    /**
+     * Creates a generator for the configured server seed.
+     *
+     * @param seed The server seed
+     */
+    public SeededLineGenerator(@Value("${lottery.lines.seed:0}") long seed) {
+        this.seed = seed;
+        this.fingerprint = fingerprint(seed);
+    }
+
+    @Override
+    public int codeAt(long ticketId, int index) {
+        long digits = blockDigits(ticketKey(ticketId), index / LineGenerator.CODES_PER_WORD);
+        for (int i = index % LineGenerator.CODES_PER_WORD; i > 0; i--) {
+            digits /= Line.CODE_COUNT;
+        }
+        return (int) (digits % Line.CODE_COUNT);
+    }
+
+    @Override
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public void fill(long ticketId, int fromIndex, byte[] codes, int offset, int length) {
+        long key = ticketKey(ticketId);
+        int index = fromIndex;
+        int end = fromIndex + length;
+        while (index < end) {
+            long digits = blockDigits(key, index / LineGenerator.CODES_PER_WORD);
+            int position = index % LineGenerator.CODES_PER_WORD;
+            for (int i = position; i > 0; i--) {
+                digits /= Line.CODE_COUNT;
+            }
+            for (int n = Math.min(LineGenerator.CODES_PER_WORD - position, end - index); n > 0; n--) {
+                codes[offset + index++ - fromIndex] = (byte) (digits % Line.CODE_COUNT);
+                digits /= Line.CODE_COUNT;
+            }
+        }
+    }
+
+    /**
+     * Regenerates all lines of a ticket.
+     *
+     * @param ticketId  ID of the ticket
+     * @param lineCount Number of lines on the ticket
+     * @return The line codes in ticket order
+     */
+    public byte[] replay(long ticketId, int lineCount) {
+        byte[] codes = new byte[lineCount];
+        fill(ticketId, 0, codes, 0, lineCount);
+        return codes;
+    }
+
+    /**
+     * Regenerates the lines of many tickets, such as all tickets of a draw or an ID range, in
+     * parallel. Tickets are replayed on a dedicated fork-join pool, so an audit never uses more
+     * threads than {@code parallelism} nor competes with the common pool.
+     *
+     * @param ticketIds   IDs of the tickets
+     * @param lineCounts  Number of lines on each ticket, in the order of {@code ticketIds}
+     * @param parallelism Threads replaying the tickets
+     * @return The line codes of each ticket, in the order of {@code ticketIds}
+     */
+    public byte[][] replay(long[] ticketIds, int[] lineCounts, int parallelism) {
+        if (ticketIds.length != lineCounts.length || parallelism < 1) {
+            throw new IllegalArgumentException("Every ticket needs a line count and parallelism must be positive");
+        }
+        byte[][] codes = new byte[ticketIds.length][];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, ticketIds.length).parallel()
+                    .forEach(i -> codes[i] = replay(ticketIds[i], lineCounts[i]))).join();
+        } finally {
+            pool.shutdown();
+        }
+        return codes;
+    }
+
+    private long ticketKey(long ticketId) {
+        return mix64(seed ^ mix64(ticketId));
+    }
+
+    /**
+     * Returns the 13 base-27 digits of a block, drawing words until one is accepted.
+     */
+    private static long blockDigits(long key, int block) {
+        long counter = (long) block << ATTEMPT_BITS;
+        long word;
+        do {
+            word = mix64(key + GOLDEN_GAMMA * counter++);
+        } while (!LineGenerator.acceptWord(word));
+        return LineGenerator.wordDigits(word);
+    }
+
+    /**
+     * Hashes the seed, as the SplitMix64 finalizer can be inverted and must not be written to disk.
+     */
+    private static long fingerprint(long seed) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(ByteBuffer.allocate(8).putLong(seed).array());
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Required of every Java platform
+        }
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,156 @@
+package com.rahul.lotteryassignment.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Generates unique ticket IDs.
+ * <p>
+ * IDs follow a time + sequence + node layout: 41 bits of milliseconds since {@link #EPOCH},
+ * 12 bits of sequence and 10 bits of node ID. Because the timestamp leads, IDs issued after a
+ * restart are always larger than the ones issued before it, and nodes with different
+ * {@code lottery.node-id} values never collide. 41 bits of milliseconds last until 2093.
+ * </p>
+ * <p>
+ * To keep threads from contending on every call, each thread leases a block of
+ * {@link #BLOCK_SIZE} consecutive IDs with a single CAS and then hands them out locally.
+ * When the sequence of a millisecond is exhausted the generator simply borrows from the next
+ * millisecond, so it never blocks waiting for the clock. A block is only used within the
+ * millisecond it was leased in, or while it runs ahead of the clock: a thread that sat idle drops
+ * its block rather than issue IDs older than the ones other threads issued meanwhile. An ID is
+ * therefore never below the current millisecond when issued, and ascending ID order is creation
+ * order across threads up to IDs issued within the same millisecond, which cursor pagination
+ * relies on.
+ * </p>
+ * <p>
+ * Draws own contiguous ID ranges. {@link #pause()} fences the IDs: every ID issued before it is
+ * lower than the returned fence, and no ID at or above the fence is issued until {@link #resume()},
+ * which leaves time to open the draw starting at the fence. Blocks leased before the fence are
+ * dropped, so threads do not keep issuing IDs of the previous draw.
+ * </p>
+ */
+@Component
+public class TicketIdGenerator {
+
+    /**
+     * Custom epoch for the timestamp bits: 2024-01-01T00:00:00Z.
+     */
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final int BLOCK_SIZE = 64;
+    private static final long PAUSED = 1L << 62; //Set in lastLeased while no block may be leased
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    private final AtomicLong lastLeased; //Highest timestamp+sequence leased so far, without node bits
+    private final ThreadLocal<long[]> lease = ThreadLocal.withInitial(() -> new long[2]); //{next, end}
+    private volatile long fence; //Lowest timestamp+sequence that may still be issued
+
+    /**
+     * Creates a generator for the configured node.
+     *
+     * @param nodeId ID of this node, between 0 and {@link #MAX_NODE_ID}
+     */
+    @Autowired
+    public TicketIdGenerator(@Value("${lottery.node-id:0}") long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a generator with an explicit clock.
+     *
+     * @param nodeId ID of this node, between 0 and {@link #MAX_NODE_ID}
+     * @param clock  Source of the current time in epoch milliseconds
+     */
+    TicketIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+        this.lastLeased = new AtomicLong(timestampBits());
+    }
+
+    /**
+     * Returns the next unique ticket ID.
+     *
+     * @return A positive ID, unique for this node across restarts
+     */
+    public long nextId() {
+        long[] block = lease.get();
+        if (block[0] == block[1] || block[0] < fence || block[0] < timestampBits()) {
+            block[1] = leaseBlock();
+            block[0] = block[1] - BLOCK_SIZE;
+        }
+        return (block[0]++ << NODE_BITS) | nodeId;
+    }
+
+    /**
+     * Fences the IDs and stops issuing new ones until {@link #resume()}. Threads needing a new
+     * block of IDs wait meanwhile, so the caller must resume promptly.
+     *
+     * @return The fence: greater than every ID issued so far and not above any ID issued after {@link #resume()}
+     */
+    public synchronized long pause() {
+        long previous;
+        long end;
+        do {
+            previous = lastLeased.get();
+            if ((previous & PAUSED) != 0) {
+                throw new IllegalStateException("Ticket IDs are already paused");
+            }
+            end = Math.max(previous, timestampBits()) + BLOCK_SIZE;
+        } while (!lastLeased.compareAndSet(previous, end | PAUSED));
+        fence = end;
+        return end << NODE_BITS;
+    }
+
+    /**
+     * Issues IDs again after {@link #pause()}, starting at the fence.
+     */
+    public synchronized void resume() {
+        lastLeased.set(lastLeased.get() & ~PAUSED);
+    }
+
+    /**
+     * Extracts the creation time encoded in an ID.
+     *
+     * @param id A ticket ID issued by any node
+     * @return Approximate creation time of the ID
+     */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH);
+    }
+
+    /**
+     * Reserves the next block of IDs, never reusing a value and never going below the current time.
+     *
+     * @return The exclusive end of the leased block
+     */
+    private long leaseBlock() {
+        long now = timestampBits();
+        while (true) {
+            long previous = lastLeased.get();
+            if ((previous & PAUSED) != 0) {
+                Thread.onSpinWait(); // A draw is being opened at the fence
+                continue;
+            }
+            long end = Math.max(previous, now) + BLOCK_SIZE;
+            if (lastLeased.compareAndSet(previous, end)) {
+                return end;
+            }
+        }
+    }
+
+    private long timestampBits() {
+        return (clock.getAsLong() - EPOCH) << SEQUENCE_BITS;
+    }
+}
@@ -0,0 +1,139 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.dto.RawJson;
+import com.rahul.lotteryassignment.dto.Ticket;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Serialized JSON of checked tickets, which never change once checked, so reads of popular
+ * tickets copy bytes instead of serializing them again.
+ * <p>
+ * Entries are spread over stripes by ticket ID, each a {@link LinkedHashMap} in access order
+ * under its own lock with an equal share of the byte budget. A stripe evicts its least recently
+ * read entries until it is back within its share, so the cache holds at most {@code maxBytes} of
+ * JSON however large the tickets are. Tickets larger than a share are serialized on every read.
+ * An entry is only returned for the version of the ticket it was serialized from.
+ * </p>
+ */
+public class TicketResponseCache implements MeterBinder {
+
+    private static final int ENTRY_OVERHEAD = 96; //Bytes of the map node, entry and array headers around the JSON
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final long stripeBytes; //Byte budget of each stripe
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxBytes Largest size of all cached JSON together
+     */
+    public TicketResponseCache(long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.stripeMask = count - 1;
+        this.stripeBytes = Math.max(1, maxBytes / count);
+    }
+
+    /**
+     * Returns the JSON of a checked ticket, serializing and caching it if needed.
+     *
+     * @param ticket     Checked ticket, which must not change any more
+     * @param serializer Serializes the ticket on a miss
+     * @return The JSON of the ticket
+     */
+    public RawJson get(Ticket ticket, Function<Ticket, RawJson> serializer) {
+        Stripe stripe = stripeFor(ticket.getId());
+        RawJson json = stripe.get(ticket.getId(), ticket.getVersion());
+        if (json != null) {
+            hits.increment();
+            return json;
+        }
+        misses.increment();
+        json = serializer.apply(ticket);
+        if (json.size() + ENTRY_OVERHEAD <= stripeBytes) {
+            stripe.put(ticket.getId(), new Entry(ticket.getVersion(), json));
+        }
+        return json;
+    }
+
+    /**
+     * @return Bytes held by all entries
+     */
+    public long size() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            bytes += stripe.bytes();
+        }
+        return bytes;
+    }
+
+    private Stripe stripeFor(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h >>> 32) & stripeMask];
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("lottery.response.cache.size", this, TicketResponseCache::size)
+                .description("JSON of checked tickets held for reads")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("lottery.response.cache.requests", hits, LongAdder::sum)
+                .description("Reads of checked tickets served from or missing the cache")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("lottery.response.cache.requests", misses, LongAdder::sum)
+                .description("Reads of checked tickets served from or missing the cache")
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    private record Entry(long version, RawJson json) {
+
+        private long weight() {
+            return json.size() + ENTRY_OVERHEAD;
+        }
+    }
+
+    private final class Stripe {
+
+        private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); //Least recently read first
+        private long bytes; //Weight of all entries, guarded by this
+
+        private synchronized RawJson get(long id, long version) {
+            Entry entry = entries.get(id);
+            return entry != null && entry.version() == version ? entry.json() : null;
+        }
+
+        private synchronized void put(long id, Entry entry) {
+            Entry previous = entries.put(id, entry);
+            bytes += entry.weight() - (previous != null ? previous.weight() : 0);
+            Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+            while (bytes > stripeBytes) {
+                bytes -= eldest.next().getValue().weight();
+                eldest.remove();
+            }
+        }
+
+        private synchronized long bytes() {
+            return bytes;
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package com.rahul.lotteryassignment.service;
 
+import com.rahul.lotteryassignment.constant.CheckStatus;
 import com.rahul.lotteryassignment.constant.ErrorCode;
-import com.rahul.lotteryassignment.dto.Line;
+import com.rahul.lotteryassignment.constant.LineMode;
+import com.rahul.lotteryassignment.dto.LinePage;
 import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.dto.TicketCheckResult;
+import com.rahul.lotteryassignment.dto.TicketPage;
 import com.rahul.lotteryassignment.exception.CustomException;
-import com.rahul.lotteryassignment.repository.TicketRepository;
+import com.rahul.lotteryassignment.metrics.TicketMetrics;
+import com.rahul.lotteryassignment.persistence.TicketJournal;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * @author Rahul Kumar, reader.rahul@gmail.com
@@ -20,26 +30,118 @@ import java.util.Random;
 @Service
 public class TicketService {
 
+    /**
+     * Number of tickets generated or checked, and made durable, together in a batch.
+     */
+    public static final int BATCH_CHUNK_SIZE = 1024;
+
+    private final TicketStore ticketStore;
+    private final TicketIdGenerator idGenerator;
+    private final LineGenerator lineGenerator;
+    private final SeededLineGenerator seededLines; //Source of all lines in SEEDED mode, otherwise null
+    private final TicketJournal journal;
+    private final TicketMetrics metrics;
+
+    public TicketService(TicketStore ticketStore,
+                         TicketIdGenerator idGenerator,
+                         LineGenerator lineGenerator,
+                         SeededLineGenerator seededLineGenerator,
+                         @Value("${lottery.lines.mode:RANDOM}") LineMode lineMode,
+                         TicketJournal journal,
+                         TicketMetrics metrics) {
+        this.ticketStore = ticketStore;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.idGenerator = idGenerator;
+        this.lineGenerator = lineGenerator;
+        this.seededLines = lineMode == LineMode.SEEDED ? seededLineGenerator : null;
+    }
+
     /**
      * Creates a new ticket with the specified number of lines.
      *
      * @param lineCount Number of lines to be added to the ticket.
-     * @return The created {@link Ticket} object.
+     * @return The created {@link Ticket} object, or {@code null} if it could not be stored.
+     * @throws CustomException if the ticket falls into a draw closed while it was created.
      */
     public Ticket createTicket(int lineCount) {
-        Ticket ticket = new Ticket();
-        ticket.addLines(generateLines(lineCount));
-        TicketRepository.tickets.put(ticket.getId(), ticket);
-        return ticket;
+        Ticket ticket = newTicket(lineCount);
+        // Journaled before the store publishes the ticket, so no change of it can be journaled ahead of its creation
+        long[] journalPosition = new long[1];
+        boolean saved = journal.publishing(() -> ticketStore.save(ticket,
+                created -> journalPosition[0] = journal.recordCreate(created)));
+        if (!saved) {
+            return null;
+        }
+        journal.awaitDurable(journalPosition[0]);
+        metrics.ticketCreated(lineCount);
+        return ticket.snapshot();
+    }
+
+    /**
+     * Creates many tickets, {@value #BATCH_CHUNK_SIZE} at a time. The lines of a chunk are generated
+     * in parallel on the common fork-join pool, the chunk is stored in bulk, each ticket journaled
+     * before it is published, and its journal records are made durable with a single wait, then
+     * the chunk is handed to {@code created} so that callers can stream it while the next one is generated.
+     *
+     * @param lineCounts Number of lines of each ticket to create.
+     * @param created    Receives the stored tickets of each chunk, in order.
+     */
+    public void createTickets(int[] lineCounts, Consumer<List<Ticket>> created) {
+        for (int from = 0; from < lineCounts.length; from += BATCH_CHUNK_SIZE) {
+            List<Ticket> tickets = IntStream.range(from, Math.min(lineCounts.length, from + BATCH_CHUNK_SIZE))
+                    .parallel()
+                    .mapToObj(i -> newTicket(lineCounts[i]))
+                    .toList();
+            // Tickets journaled before a journal failure are kept, as they would come back on recovery
+            long[] journalPosition = new long[1];
+            List<Ticket> stored = journal.publishing(() -> ticketStore.saveAll(tickets,
+                    ticket -> journalPosition[0] = journal.recordCreate(ticket)));
+            long lineCount = 0;
+            for (Ticket ticket : stored) {
+                lineCount += ticket.getLineCount();
+            }
+            journal.awaitDurable(journalPosition[0]);
+            metrics.ticketsCreated(stored.size(), lineCount);
+            created.accept(stored);
+        }
     }
 
     /**
      * Retrieves all tickets from the repository.
      *
-     * @return A list of all {@link Ticket} objects.
+     * @return A list of read-only snapshots of all {@link Ticket} objects.
      */
     public List<Ticket> getAllTickets() {
-        return new ArrayList<>(TicketRepository.tickets.values());
+        return ticketStore.findAll().stream().map(Ticket::snapshot).toList();
+    }
+
+    /**
+     * Retrieves a page of tickets in ascending ID order, which is the order they were created in
+     * up to tickets created within the same millisecond (see {@link TicketIdGenerator}). A client
+     * paging up to the newest tickets may still miss one whose ID was issued before a page was read
+     * but which was stored after it.
+     *
+     * @param cursor ID of the last ticket of the previous page, or {@code null} for the first page.
+     * @param limit  Maximum number of tickets on the page.
+     * @return The tickets following the cursor and the cursor of the next page.
+     */
+    public TicketPage<Ticket> getTicketPage(Long cursor, int limit) {
+        List<Ticket> tickets = ticketStore.streamAfter(cursor).limit(limit + 1L).map(Ticket::snapshot).toList();
+        if (tickets.size() > limit) {
+            return new TicketPage<>(tickets.subList(0, limit), tickets.get(limit - 1).getId());
+        }
+        return new TicketPage<>(tickets, null);
+    }
+
+    /**
+     * Lazily streams tickets in ascending ID order without copying the store.
+     *
+     * @param cursor ID after which to start, or {@code null} to start at the first ticket.
+     * @return A stream reading snapshots of the tickets from the store as it is consumed.
+     */
+    public Stream<Ticket> streamTickets(Long cursor) {
+        return ticketStore.streamAfter(cursor).map(Ticket::snapshot);
     }
 
     /**
@@ -49,82 +151,224 @@ public class TicketService {
      * @return The {@link Ticket} object.
      * @throws CustomException if the ticket with the specified ID is not found.
      */
-    public Ticket getTicketById(Integer id) {
+    public Ticket getTicketById(Long id) {
         return getTicketOrThrow(id);
     }
 
+    /**
+     * Retrieves a page of the lines of a ticket. Only the lines of the page are read, so the cost
+     * does not depend on the size of the ticket.
+     *
+     * @param id     The unique ID of the ticket.
+     * @param offset Position of the first line to return.
+     * @param limit  Maximum number of lines to return.
+     * @param sorted Whether the lines must be in order of result, which requires a checked ticket.
+     * @return The lines from {@code offset} and the offset of the next page.
+     * @throws CustomException if the ticket is not found, or sorted lines are requested before it is checked.
+     */
+    public LinePage getLinePage(Long id, int offset, int limit, boolean sorted) {
+        Ticket ticket = getTicketOrThrow(id); // One snapshot, so the flag, the count and the lines agree
+        // Checking sorts the lines and freezes the ticket, so the stored order of a checked ticket is the sorted order
+        boolean checked = ticket.isChecked();
+        if (sorted && !checked) {
+            throw new CustomException(
+                    ErrorCode.NOT_CHECKED,
+                    "Lines of ticket ID " + id + " can only be sorted by result after its status has been checked.",
+                    HttpStatus.CONFLICT
+            );
+        }
+        int totalLines = ticket.getLineCount();
+        int from = Math.min(offset, totalLines);
+        int length = Math.min(limit, totalLines - from);
+        return new LinePage(id, from, totalLines, checked, ticket.getLines(from, length));
+    }
+
     /**
      * Adds lines to an existing ticket.
      *
      * @param id        The unique ID of the ticket to which lines should be added.
      * @param lineCount Number of lines to add.
      * @return The updated {@link Ticket} object.
-     * @throws CustomException if the ticket is not found or has already been checked.
+     * @throws CustomException if the ticket is not found, has already been checked or its draw is closed.
      */
-    public Ticket addLines(Integer id, int lineCount) {
-        Ticket ticket = getTicketOrThrow(id);
-
-        if (ticket.isChecked()) {
-            throw new CustomException(
-                    ErrorCode.NOT_MODIFIABLE,
-                    "Ticket ID " + id + " cannot be modified as it has already been checked.",
-                    HttpStatus.CONFLICT
-            );
+    public Ticket addLines(Long id, int lineCount) {
+        if (getTicketOrThrow(id).isChecked()) {
+            throw notModifiable(id);
         }
 
-        ticket.addLines(generateLines(lineCount));
-        return ticket;
+        // Random lines are generated before taking the ticket so the update itself stays short
+        byte[] newLineCodes = seededLines == null ? lineGenerator.generate(lineCount) : null;
+        long[] journalPosition = new long[1];
+        Ticket[] updated = new Ticket[1]; //State right after this change, taken while the ticket is held
+        ticketStore.updateOpen(id, ticket -> {
+            if (ticket.isChecked()) {
+                throw notModifiable(id);
+            }
+            journalPosition[0] = journal.recordLines(id, ticket.getLineCount(), lineCount, newLineCodes);
+            if (newLineCodes == null) {
+                ticket.addSequenceLines(seededLines, lineCount);
+            } else {
+                ticket.addLineCodes(newLineCodes, lineCount);
+            }
+            updated[0] = ticket.snapshot();
+            return ticket;
+        }).orElseThrow(() -> ticketNotFound(id));
+        journal.awaitDurable(journalPosition[0]);
+        metrics.linesAdded(lineCount);
+        return updated[0];
     }
 
     /**
      * Checks the status of a ticket and evaluates its lines.
      *
      * @param id The unique ID of the ticket to be checked.
-     * @return A sorted list of {@link Line} objects with evaluated results.
+     * @return The ticket with its lines sorted by result, best first.
      * @throws CustomException if the ticket is not found.
      */
-    public Ticket checkTicketStatus(Integer id) {
-        Ticket ticket = getTicketOrThrow(id);
-        ticket.setChecked(true); // Mark the ticket as checked
-        // Sort lines by their result in descending order
-        ticket.setLines(ticket.getLines()
-                .stream()
-                .sorted(Comparator.comparingInt(Line::getResult).reversed())
-                .toList());
-        return ticket;
+    public Ticket checkTicketStatus(Long id) {
+        Ticket current = getTicketOrThrow(id);
+        if (current.isChecked()) {
+            return current; // A checked ticket is frozen and already sorted
+        }
+        LongAccumulator journalPosition = new LongAccumulator(Math::max, -1);
+        Ticket checked = ticketStore.update(id, ticket -> markChecked(ticket, journalPosition))
+                .map(Ticket::snapshot) // Checked tickets no longer change
+                .orElseThrow(() -> ticketNotFound(id));
+        if (journalPosition.get() >= 0) {
+            journal.awaitDurable(journalPosition.get());
+            metrics.ticketChecked();
+        }
+        return checked;
+    }
+
+    /**
+     * Checks many tickets, {@value #BATCH_CHUNK_SIZE} at a time. The tickets of a chunk are sorted
+     * and marked checked in parallel on the common fork-join pool, each one atomically while held
+     * by the store, so a concurrent {@link #addLines} on the same ticket runs either entirely before
+     * or entirely after its check. The journal records of a chunk are made durable with a single
+     * wait before its results are handed to {@code checked}.
+     *
+     * @param ids     IDs of the tickets to check, read lazily one chunk at a time.
+     * @param checked Receives the results of each chunk, in the order of the IDs.
+     */
+    public void checkTickets(Stream<Long> ids, Consumer<List<TicketCheckResult>> checked) {
+        Iterator<Long> remaining = ids.iterator();
+        while (remaining.hasNext()) {
+            List<Long> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+            while (remaining.hasNext() && chunk.size() < BATCH_CHUNK_SIZE) {
+                chunk.add(remaining.next());
+            }
+            LongAccumulator journalPosition = new LongAccumulator(Math::max, -1);
+            List<TicketCheckResult> results = chunk.parallelStream()
+                    .map(id -> checkOne(id, journalPosition))
+                    .toList();
+            if (journalPosition.get() >= 0) {
+                journal.awaitDurable(journalPosition.get());
+            }
+            metrics.ticketsChecked((int) results.stream()
+                    .filter(result -> result.getStatus() == CheckStatus.CHECKED)
+                    .count());
+            checked.accept(results);
+        }
+    }
+
+    /**
+     * Lazily lists the IDs of the tickets that have not been checked yet, in ascending order.
+     *
+     * @param afterId Only tickets with a greater ID are included, or {@code null} to start at the first ticket.
+     * @return A stream reading the store as it is consumed.
+     */
+    public Stream<Long> uncheckedTicketIds(Long afterId) {
+        return ticketStore.streamAfter(afterId)
+                .filter(ticket -> !ticket.isChecked())
+                .map(Ticket::getId);
+    }
+
+    /**
+     * Lazily lists the IDs of the stored tickets within a range, in ascending order.
+     *
+     * @param fromId Lowest ID of the range, inclusive.
+     * @param toId   Highest ID of the range, inclusive.
+     * @return A stream reading the store as it is consumed.
+     */
+    public Stream<Long> ticketIdsBetween(long fromId, long toId) {
+        return ticketStore.streamAfter(fromId - 1)
+                .map(Ticket::getId)
+                .takeWhile(id -> id <= toId);
+    }
+
+    /**
+     * Checks one ticket of a bulk check.
+     */
+    private TicketCheckResult checkOne(Long id, LongAccumulator journalPosition) {
+        Ticket current = ticketStore.findById(id).orElse(null);
+        if (current == null) {
+            return TicketCheckResult.notFound(id);
+        }
+        if (current.isChecked()) {
+            return new TicketCheckResult(current, CheckStatus.ALREADY_CHECKED);
+        }
+        boolean[] transitioned = new boolean[1];
+        return ticketStore.update(id, ticket -> {
+                    transitioned[0] = !ticket.isChecked();
+                    return markChecked(ticket, journalPosition);
+                })
+                .map(ticket -> new TicketCheckResult(ticket, transitioned[0] ? CheckStatus.CHECKED : CheckStatus.ALREADY_CHECKED))
+                .orElseGet(() -> TicketCheckResult.notFound(id));
     }
 
     /**
-     * Generates random lines for a ticket.
+     * Sorts and freezes a ticket held by the store, unless it is already checked.
      *
-     * @param count The number of lines to generate.
-     * @return A list of {@link Line} objects.
-     */
-    private List<Line> generateLines(int count) {
-        Random random = new Random();
-        List<Line> lines = new ArrayList<>();
-        for (int i = 0; i < count; i++) {
-            lines.add(new Line(random.nextInt(3), random.nextInt(3), random.nextInt(3)));
+     * @param journalPosition Raised to the position of the check record when the ticket is checked.
+     * @return The same ticket.
+     */
+    private Ticket markChecked(Ticket ticket, LongAccumulator journalPosition) {
+        if (!ticket.isChecked()) {
+            journalPosition.accumulate(journal.recordCheck(ticket.getId()));
+            // Sort lines by their result in descending order and mark the ticket checked in one step
+            ticket.check();
+        }
+        return ticket;
+    }
+
+    /**
+     * Builds a ticket with a new ID and generated lines, without storing it.
+     */
+    private Ticket newTicket(int lineCount) {
+        Ticket ticket = new Ticket(idGenerator.nextId());
+        if (seededLines != null) {
+            ticket.addSequenceLines(seededLines, lineCount);
+        } else {
+            ticket.addLineCodes(lineGenerator.generate(lineCount), lineCount);
         }
-        return lines;
+        return ticket;
     }
 
     /**
      * Retrieves a ticket from the repository or throws an exception if not found.
      *
      * @param id The unique ID of the ticket.
-     * @return The {@link Ticket} object.
+     * @return A read-only snapshot of the {@link Ticket} object.
      * @throws CustomException if the ticket is not found.
      */
-    private Ticket getTicketOrThrow(Integer id) {
-        Ticket ticket = TicketRepository.tickets.get(id);
-        if (ticket == null) {
-            throw new CustomException(
-                    ErrorCode.TICKET_NOT_FOUND,
-                    "Ticket not found for ID: " + id,
-                    HttpStatus.NOT_FOUND
-            );
-        }
-        return ticket;
+    private Ticket getTicketOrThrow(Long id) {
+        return ticketStore.findById(id).map(Ticket::snapshot).orElseThrow(() -> ticketNotFound(id));
+    }
+
+    private static CustomException ticketNotFound(Long id) {
+        return new CustomException(
+                ErrorCode.TICKET_NOT_FOUND,
+                "Ticket not found for ID: " + id,
+                HttpStatus.NOT_FOUND
+        );
+    }
+
+    private static CustomException notModifiable(Long id) {
+        return new CustomException(
+                ErrorCode.NOT_MODIFIABLE,
+                "Ticket ID " + id + " cannot be modified as it has already been checked.",
+                HttpStatus.CONFLICT
+        );
     }
 }
@@ -0,0 +1,295 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.constant.CheckStatus;
+import com.rahul.lotteryassignment.dto.SettlementProgress;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Settles draws by checking every ticket that was still unchecked when the draw closed.
+ * <p>
+ * A run covers the closed draws, which hold every ticket below the start of the open draw. It fixes
+ * that bound when it starts and walks the unchecked tickets below it in ascending order, one
+ * chunk at a time. Closed draws no longer change, so the run never competes with new lines. Each chunk is checked through
+ * {@link TicketService#checkTickets} from inside a dedicated fork-join pool, so its parallel
+ * evaluation runs on that pool and never uses more threads than the parallelism budget. After
+ * each chunk the run pauses long enough to keep its share of wall time below the configured duty
+ * cycle, leaving the cores to request threads in between.
+ * </p>
+ * <p>
+ * Once the check records of a chunk are durable, the last ID of the chunk is written to a
+ * checkpoint file. Every unchecked ticket up to that ID has then been checked, so a run
+ * interrupted by a crash resumes after it on startup. The checkpoint is deleted when the run completes.
+ * Without a checkpoint file, as when tickets are not persisted either, progress is only kept in memory.
+ * </p>
+ */
+public class TicketSettlement implements MeterBinder, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketSettlement.class);
+
+    private final TicketService ticketService;
+    private final TicketStore ticketStore;
+    private final Path checkpointFile; //Progress of an unfinished run, null when it is not persisted
+    private final int chunkSize;
+    private final double maxDutyCycle;
+    private final ForkJoinPool pool; //Runs the parallel checks of a chunk
+    private final ScheduledExecutorService runner; //Runs one settlement at a time, scheduled or requested
+    private final AtomicBoolean pending = new AtomicBoolean(); //Set from the request of a run until it ends
+    private final LongAdder ticketsChecked = new LongAdder(); //Tickets checked by all runs
+    private volatile SettlementProgress progress = SettlementProgress.NONE;
+
+    /**
+     * @param ticketService  Service checking the tickets
+     * @param ticketStore    Store walked for unchecked tickets
+     * @param checkpointFile File recording the progress of an unfinished run, or {@code null} to keep no checkpoint
+     * @param chunkSize      Tickets checked between two checkpoints
+     * @param parallelism    Threads checking the tickets of a chunk
+     * @param maxDutyCycle   Largest share of wall time spent checking, between 0 (exclusive) and 1
+     */
+    public TicketSettlement(TicketService ticketService, TicketStore ticketStore, Path checkpointFile,
+                            int chunkSize, int parallelism, double maxDutyCycle) {
+        if (chunkSize < 1 || parallelism < 1 || !(maxDutyCycle > 0 && maxDutyCycle <= 1)) {
+            throw new IllegalArgumentException("Chunk size and parallelism must be positive and the duty cycle within (0, 1]");
+        }
+        this.ticketService = ticketService;
+        this.ticketStore = ticketStore;
+        this.checkpointFile = checkpointFile;
+        this.chunkSize = chunkSize;
+        this.maxDutyCycle = maxDutyCycle;
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("ticket-settlement-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        this.runner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticket-settlement");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Resumes an interrupted run, then settles periodically.
+     *
+     * @param intervalMs Delay between the end of a run and the start of the next, {@code 0} to only run on request
+     */
+    public void start(long intervalMs) {
+        if (hasCheckpoint()) {
+            trigger();
+        }
+        if (intervalMs > 0) {
+            runner.scheduleWithFixedDelay(this::trigger, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Requests a run in the background.
+     *
+     * @return {@code false} if a run is already requested or in progress
+     */
+    public boolean trigger() {
+        if (!pending.compareAndSet(false, true)) {
+            return false;
+        }
+        runner.execute(() -> {
+            try {
+                settle();
+            } catch (IOException | RuntimeException e) {
+                log.error("Ticket settlement failed, it resumes from its checkpoint on the next run", e);
+            } finally {
+                pending.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * @return Progress of the current or last run
+     */
+    public SettlementProgress progress() {
+        return progress;
+    }
+
+    /**
+     * Runs a settlement of the closed draws in the calling thread, resuming the unfinished run if there is a checkpoint.
+     *
+     * @return Progress at the end of the run
+     * @throws IOException if the checkpoint cannot be read or written
+     */
+    public synchronized SettlementProgress settle() throws IOException {
+        long upToId;
+        long cursor;
+        if (hasCheckpoint()) {
+            long[] checkpoint = readCheckpoint();
+            upToId = checkpoint[0];
+            cursor = checkpoint[1];
+            log.info("Resuming settlement up to ticket {} after ticket {}", upToId, cursor);
+        } else {
+            upToId = ticketStore.currentDraw().getStartId() - 1; // Every earlier draw is closed
+            cursor = 0;
+            writeCheckpoint(upToId, cursor);
+        }
+
+        Instant startedAt = Instant.now();
+        long checked = 0;
+        long chunks = 0;
+        progress = new SettlementProgress(true, upToId, cursor, checked, chunks, startedAt, null);
+        Iterator<Long> unchecked = ticketService.uncheckedTicketIds(cursor)
+                .takeWhile(id -> id <= upToId)
+                .iterator();
+        try {
+            while (unchecked.hasNext()) {
+                long chunkStarted = System.nanoTime();
+                List<Long> chunk = new ArrayList<>(chunkSize);
+                while (unchecked.hasNext() && chunk.size() < chunkSize) {
+                    chunk.add(unchecked.next());
+                }
+                checked += checkChunk(chunk);
+                cursor = chunk.get(chunk.size() - 1);
+                writeCheckpoint(upToId, cursor);
+                progress = new SettlementProgress(true, upToId, cursor, checked, ++chunks, startedAt, null);
+                pause(System.nanoTime() - chunkStarted);
+            }
+            if (checkpointFile != null) {
+                Files.deleteIfExists(checkpointFile);
+            }
+            log.info("Settled {} tickets up to ticket {} in {} chunks", checked, upToId, chunks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Settlement stopped after ticket {}, it resumes from its checkpoint", cursor);
+        } finally {
+            progress = new SettlementProgress(false, upToId, cursor, checked, chunks, startedAt, Instant.now());
+        }
+        return progress;
+    }
+
+    /**
+     * Checks a chunk on the settlement pool. Parallel streams started from a fork-join task run in
+     * the pool of that task, so the checks stay within the parallelism budget.
+     *
+     * @return Number of tickets that changed to checked
+     */
+    private long checkChunk(List<Long> chunk) throws InterruptedException {
+        LongAdder checked = new LongAdder();
+        try {
+            pool.submit(() -> ticketService.checkTickets(chunk.stream(), results -> results.stream()
+                    .filter(result -> result.getStatus() == CheckStatus.CHECKED)
+                    .forEach(result -> checked.increment()))).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        }
+        ticketsChecked.add(checked.sum());
+        return checked.sum();
+    }
+
+    /**
+     * Sleeps so that checking takes at most {@code maxDutyCycle} of the wall time.
+     */
+    private void pause(long busyNanos) throws InterruptedException {
+        long idleNanos = (long) (busyNanos * (1 - maxDutyCycle) / maxDutyCycle);
+        if (idleNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(idleNanos);
+        }
+    }
+
+    private boolean hasCheckpoint() {
+        return checkpointFile != null && Files.exists(checkpointFile);
+    }
+
+    /**
+     * @return The highest ID of the run and its cursor
+     */
+    private long[] readCheckpoint() throws IOException {
+        Properties checkpoint = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpointFile, StandardCharsets.US_ASCII)) {
+            checkpoint.load(reader);
+        }
+        try {
+            return new long[]{Long.parseLong(checkpoint.getProperty("upToId")),
+                    Long.parseLong(checkpoint.getProperty("cursor"))};
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt settlement checkpoint " + checkpointFile, e);
+        }
+    }
+
+    /**
+     * Replaces the checkpoint atomically, so a crash leaves either the previous or the new one.
+     */
+    private void writeCheckpoint(long upToId, long cursor) throws IOException {
+        if (checkpointFile == null) {
+            return;
+        }
+        if (checkpointFile.getParent() != null) {
+            Files.createDirectories(checkpointFile.getParent());
+        }
+        Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        byte[] content = ("upToId=" + upToId + "\ncursor=" + cursor + "\n").getBytes(StandardCharsets.US_ASCII);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(content));
+            channel.force(true);
+        }
+        Files.move(temporary, checkpointFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("lottery.settlement.checked", ticketsChecked, LongAdder::sum)
+                .description("Tickets checked by settlement runs")
+                .baseUnit("tickets")
+                .register(registry);
+        Gauge.builder("lottery.settlement.running", this, settlement -> settlement.progress().isRunning() ? 1 : 0)
+                .description("Whether a settlement run is in progress")
+                .register(registry);
+        Gauge.builder("lottery.settlement.throughput", this, settlement -> settlement.progress().getTicketsPerSecond())
+                .description("Tickets checked per second by the current or last settlement run")
+                .baseUnit("tickets")
+                .register(registry);
+    }
+
+    /**
+     * Stops the settlement, leaving the checkpoint of a running settlement for the next start.
+     */
+    @Override
+    public void close() {
+        runner.shutdownNow();
+        try {
+            runner.awaitTermination(1, TimeUnit.MINUTES);
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
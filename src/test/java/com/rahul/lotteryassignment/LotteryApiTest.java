@@ -1,24 +1,45 @@
 package com.rahul.lotteryassignment;
 
+import com.rahul.lotteryassignment.controller.TicketBinaryDecoder;
+import com.rahul.lotteryassignment.controller.TicketBinaryHttpMessageConverter;
 import com.rahul.lotteryassignment.dto.Line;
 import com.rahul.lotteryassignment.dto.Ticket;
-import com.rahul.lotteryassignment.repository.TicketRepository;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import com.rahul.lotteryassignment.service.AdmissionControl;
+import com.rahul.lotteryassignment.service.TicketIdGenerator;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+@AutoConfigureObservability
 class LotteryApiTest {
-    
+
+    @Autowired
+    private TicketStore ticketStore;
+
+    @Autowired
+    private TicketIdGenerator idGenerator;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
     @BeforeEach
     void setup() {
         // Set base URI for the API
@@ -43,6 +64,53 @@ class LotteryApiTest {
                 .body("data.lines.size()", is(3));  // Ensure there are 3 lines in the ticket
     }
 
+    /**
+     * Test case to create tickets in a batch.
+     * Verifies one ID is streamed per stored ticket, the admitted lines are returned once streamed,
+     * and oversized batches are rejected.
+     */
+    @Test
+    void testCreateTicketBatch() {
+        long before = ticketStore.count();
+        String body = given()
+                .queryParam("count", 1100)
+                .queryParam("numberOfLines", 3)
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(201)
+                .contentType("application/x-ndjson")
+                .extract().asString();
+
+        List<Long> ids = body.lines().map(Long::valueOf).toList();
+        assertEquals(1100, ids.size());
+        assertEquals(before + 1100, ticketStore.count());
+        assertEquals(3, ticketStore.findById(ids.get(1099)).orElseThrow().getLineCount());
+        ids.forEach(ticketStore::remove); // Other tests read the first stored tickets
+
+        body = given()
+                .queryParam("numberOfLines", "1,2,3")
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(201)
+                .extract().asString();
+        ids = body.lines().map(Long::valueOf).toList();
+        assertEquals(List.of(1, 2, 3), ids.stream()
+                .map(id -> ticketStore.findById(id).orElseThrow().getLineCount())
+                .toList());
+        ids.forEach(ticketStore::remove);
+        assertEquals(0, admissionControl.inFlightLines());
+
+        given()
+                .queryParam("count", 10_001)
+                .queryParam("numberOfLines", 1)
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(400);
+    }
+
     /**
      * Test case to retrieve all tickets.
      * Verifies a list of tickets is returned.
@@ -67,7 +135,7 @@ class LotteryApiTest {
      */
     @Test
     void testGetTicketById() {
-        int ticketId = getTicketByIndex(0).getId();
+        long ticketId = getTicketByIndex(0).getId();
         given()
                 .contentType(ContentType.JSON)
                 .when()
@@ -77,12 +145,89 @@ class LotteryApiTest {
                 .body("data.id", equalTo(ticketId));  // Ensure the returned ticket ID matches
     }
 
+    /**
+     * Test case to retrieve ticket summaries and projected fields.
+     * Verifies the summary omits the lines and unknown fields are rejected.
+     */
+    @Test
+    void testGetTicketProjection() {
+        Ticket ticket = getTicketByIndex(0);
+        given()
+                .queryParam("view", "summary")
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(200)
+                .body("data.id", equalTo(ticket.getId()))
+                .body("data.lineCount", equalTo(ticket.getLineCount()))
+                .body("data.totalScore", equalTo((int) ticket.getTotalScore()))
+                .body("data", not(hasKey("lines")));
+
+        given()
+                .queryParam("fields", "id,lines")
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(200)
+                .body("data.keySet()", containsInAnyOrder("id", "lines"))
+                .body("data.lines.size()", equalTo(ticket.getLineCount()));
+
+        given()
+                .queryParam("fields", "id,owner")
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(400);
+    }
+
+    /**
+     * Test case to page through the lines of a ticket.
+     * Verifies pages follow each other and sorted pages require a checked ticket.
+     */
+    @Test
+    void testGetTicketLines() {
+        Ticket ticket = new Ticket(idGenerator.nextId());
+        ticket.addLines(List.of(Line.of(0, 0, 0), Line.of(0, 1, 1), Line.of(1, 1, 1)));
+        ticketStore.save(ticket);
+
+        given()
+                .queryParam("offset", 1)
+                .queryParam("limit", 1)
+                .when()
+                .get("/" + ticket.getId() + "/lines")
+                .then()
+                .statusCode(200)
+                .body("data.totalLines", equalTo(3))
+                .body("data.lines.size()", equalTo(1))
+                .body("data.nextOffset", equalTo(2));
+
+        given()
+                .queryParam("sorted", true)
+                .when()
+                .get("/" + ticket.getId() + "/lines")
+                .then()
+                .statusCode(409);
+
+        ticket.sortLinesByResult();
+        ticket.setChecked(true);
+        given()
+                .queryParam("sorted", true)
+                .when()
+                .get("/" + ticket.getId() + "/lines")
+                .then()
+                .statusCode(200)
+                .body("data.sorted", equalTo(true))
+                .body("data.lines[0].result", equalTo(10))
+                .body("data.nextOffset", nullValue());
+        ticketStore.remove(ticket.getId());
+    }
+
     /**
      * Test case to add lines to an existing ticket.
      */
     @Test
     void testAddLinesToTicket() {
-        int ticketId = getTicketByIndex(0).getId();
+        long ticketId = getTicketByIndex(0).getId();
         int numberOfLines = 2;
 
         given()
@@ -97,16 +242,65 @@ class LotteryApiTest {
                 .body("data.lines.size()", is(5));  // Ensure there are 5 lines after update (original 3 + 2)
     }
 
+    /**
+     * Test case to retry ticket creation and line purchase with an idempotency key.
+     * Verifies retries return the first response without creating a ticket or adding lines again.
+     */
+    @Test
+    void testIdempotentRetries() {
+        long before = ticketStore.count();
+        String key = "create-" + System.nanoTime();
+        long ticketId = given()
+                .header("Idempotency-Key", key)
+                .queryParam("numberOfLines", 2)
+                .when()
+                .post()
+                .then()
+                .statusCode(201)
+                .extract().jsonPath().getLong("data.id");
+        given()
+                .header("Idempotency-Key", key)
+                .queryParam("numberOfLines", 2)
+                .when()
+                .post()
+                .then()
+                .statusCode(201)
+                .body("data.id", equalTo(ticketId));
+        assertEquals(before + 1, ticketStore.count());
+
+        for (int i = 0; i < 2; i++) {
+            given()
+                    .header("Idempotency-Key", "add-" + key)
+                    .queryParam("numberOfLines", 3)
+                    .when()
+                    .put("/" + ticketId)
+                    .then()
+                    .statusCode(200)
+                    .body("data.lines.size()", is(5));
+        }
+        assertEquals(5, ticketStore.findById(ticketId).orElseThrow().getLineCount());
+
+        given()
+                .header("Idempotency-Key", key)
+                .queryParam("numberOfLines", 4)
+                .when()
+                .post()
+                .then()
+                .statusCode(422)
+                .body("message", containsString("ERR-011"));
+        ticketStore.remove(ticketId); // Other tests read the first stored tickets
+    }
+
     @Test
     void testCheckTicketStatus() {
-        Ticket ticket = new Ticket();
+        Ticket ticket = new Ticket(idGenerator.nextId());
         List<Line> lines = new ArrayList<>();
-        lines.add(new Line(0, 1, 1));//10
-        lines.add(new Line(1, 1, 1));//5
-        lines.add(new Line(0, 1, 2));//1
-        lines.add(new Line(0, 1, 0));//0
+        lines.add(Line.of(0, 1, 1));//10
+        lines.add(Line.of(1, 1, 1));//5
+        lines.add(Line.of(0, 1, 2));//1
+        lines.add(Line.of(0, 1, 0));//0
         ticket.addLines(lines);
-        TicketRepository.tickets.put(ticket.getId(), ticket);
+        ticketStore.save(ticket);
 
 
         given()
@@ -123,18 +317,115 @@ class LotteryApiTest {
     }
 
 
+    /**
+     * Test case to read a checked ticket conditionally.
+     * Verifies checked tickets carry an ETag, cached reads match and If-None-Match returns 304.
+     */
+    @Test
+    void testConditionalGetOfCheckedTicket() {
+        Ticket ticket = new Ticket(idGenerator.nextId());
+        ticket.addLines(List.of(Line.of(0, 1, 2), Line.of(0, 1, 1)));
+        ticketStore.save(ticket);
+
+        given()
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(200)
+                .header("ETag", nullValue());  // Unchecked tickets may still change
+
+        given().when().put("/status/" + ticket.getId()).then().statusCode(200);
+        String eTag = given()
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .body("data.checked", equalTo(true))
+                .body("data.lines[0].result", equalTo(10))
+                .extract().header("ETag");
+        given()
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(200)
+                .header("ETag", equalTo(eTag))
+                .body("data.id", equalTo(ticket.getId()))
+                .body("data.lines.size()", equalTo(2));
+
+        given()
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(304)
+                .header("ETag", equalTo(eTag));
+        ticketStore.remove(ticket.getId());
+    }
+
+    /**
+     * Test case to read tickets in the binary format.
+     * Verifies the decoded ticket matches the stored one, JSON stays the default and preferred
+     * JSON gets the ETag of the JSON variant.
+     */
+    @Test
+    void testGetTicketInBinary() throws IOException {
+        Ticket ticket = new Ticket(idGenerator.nextId());
+        ticket.addLines(List.of(Line.of(0, 1, 2), Line.of(0, 1, 1), Line.of(2, 2, 2)));
+        ticketStore.save(ticket);
+        ticket.check();
+
+        byte[] body = given()
+                .accept(TicketBinaryHttpMessageConverter.MEDIA_TYPE_VALUE)
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(200)
+                .contentType(TicketBinaryHttpMessageConverter.MEDIA_TYPE_VALUE)
+                .extract().asByteArray();
+        Ticket decoded = TicketBinaryDecoder.decode(new ByteArrayInputStream(body)).tickets().get(0);
+        assertEquals(ticket.getId(), decoded.getId());
+        assertTrue(decoded.isChecked());
+        assertEquals(ticket.getLines(), decoded.getLines());
+
+        String eTag = given()
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .header("Vary", containsString("Accept"))
+                .extract().header("ETag");
+        given()
+                .accept("application/json;q=1, " + TicketBinaryHttpMessageConverter.MEDIA_TYPE_VALUE + ";q=0.1")
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .header("ETag", equalTo(eTag));
+        given()
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(304)
+                .header("Vary", containsString("Accept"));
+        ticketStore.remove(ticket.getId());
+    }
+
     /**
      * Test case to try adding lines after the ticket has been checked.
      * Verifies the request is rejected with an error.
      */
     @Test
     void testAddLinesAfterCheck() {
-        Ticket ticket = new Ticket();
+        Ticket ticket = new Ticket(idGenerator.nextId());
         List<Line> lines = new ArrayList<>();
-        lines.add(new Line(0, 1, 1));//10
-        lines.add(new Line(1, 1, 1));//5
+        lines.add(Line.of(0, 1, 1));//10
+        lines.add(Line.of(1, 1, 1));//5
         ticket.addLines(lines);
-        TicketRepository.tickets.put(ticket.getId(), ticket);
+        ticketStore.save(ticket);
 
         given()
                 .contentType(ContentType.JSON)
@@ -173,6 +464,50 @@ class LotteryApiTest {
                 .then()
                 .statusCode(400)  // Expecting a bad request
                 .body("message", containsString("[ERR-002:Invalid Input] - Number of lines must be at least 1"));
+
+        given()
+                .queryParam("numberOfLines", 500_000_000)
+                .when()
+                .post()
+                .then()
+                .statusCode(400)  // Refused before any line is generated
+                .body("message", containsString("ERR-002"));
+    }
+
+    /**
+     * Test case to check several tickets in one request.
+     * Verifies one result is streamed per requested ID, including unknown ones.
+     */
+    @Test
+    void testCheckTicketStatuses() {
+        Ticket ticket = new Ticket(idGenerator.nextId());
+        ticket.addLines(List.of(Line.of(0, 1, 1), Line.of(0, 0, 0)));
+        ticketStore.save(ticket);
+
+        String body = given()
+                .queryParam("ids", ticket.getId() + ",-1")
+                .when()
+                .put("/status")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-ndjson")
+                .extract().asString();
+
+        List<String> results = body.lines().toList();
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).contains("\"status\":\"CHECKED\""));
+        assertTrue(results.get(0).contains("\"bestResult\":10"));
+        assertTrue(results.get(1).contains("\"status\":\"NOT_FOUND\""));
+        assertTrue(ticketStore.findById(ticket.getId()).orElseThrow().isChecked());
+        ticketStore.remove(ticket.getId());
+
+        given()
+                .queryParam("ids", ticket.getId())
+                .queryParam("unchecked", true)
+                .when()
+                .put("/status")
+                .then()
+                .statusCode(400);
     }
 
     /**
@@ -181,7 +516,7 @@ class LotteryApiTest {
      */
     @Test
     void testCheckStatusForNonExistentTicket() {
-        int nonExistentTicketId = 9999;
+        long nonExistentTicketId = 9999;
 
         given()
                 .contentType(ContentType.JSON)
@@ -193,6 +528,80 @@ class LotteryApiTest {
                 .body("message", containsString("[ERR-001] Ticket Not Found"));
     }
 
+    /**
+     * Test case to page through all tickets with a cursor.
+     * Verifies every ticket is returned exactly once in ascending ID order.
+     */
+    @Test
+    void testGetTicketsByPage() {
+        for (int i = 0; i < 3; i++) {
+            ticketStore.save(new Ticket(idGenerator.nextId()));
+        }
+        List<Long> ids = new ArrayList<>();
+        Long cursor = null;
+        do {
+            var page = given()
+                    .contentType(ContentType.JSON)
+                    .queryParam("limit", 2)
+                    .queryParams(cursor == null ? Map.of() : Map.of("cursor", cursor))
+                    .when()
+                    .get()
+                    .then()
+                    .statusCode(200)
+                    .body("data.tickets.size()", lessThanOrEqualTo(2))
+                    .extract().jsonPath();
+            ids.addAll(page.getList("data.tickets.id", Long.class));
+            cursor = page.getObject("data.nextCursor", Long.class);
+        } while (cursor != null);
+
+        assertEquals(ticketStore.count(), ids.size());
+        assertEquals(ids.stream().sorted().distinct().toList(), ids);
+    }
+
+    /**
+     * Test case to stream all tickets as newline delimited JSON.
+     * Verifies one line is written per ticket.
+     */
+    @Test
+    void testStreamTickets() {
+        ticketStore.save(new Ticket(idGenerator.nextId()));
+        String body = given()
+                .when()
+                .get("/stream")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-ndjson")
+                .extract().asString();
+
+        assertEquals(ticketStore.count(), body.lines().filter(line -> line.startsWith("{\"id\":")).count());
+    }
+
+    /**
+     * Test case to scrape the metrics endpoint.
+     * Verifies ticket counters and endpoint latency histograms are exposed in Prometheus format.
+     */
+    @Test
+    void testMetricsEndpoint() {
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("numberOfLines", 2)
+                .when()
+                .post()
+                .then()
+                .statusCode(201);
+
+        given()
+                .baseUri("http://localhost:8080/actuator/prometheus")
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .body(containsString("lottery_tickets_created_tickets_total"))
+                .body(containsString("lottery_lines_stored_lines"))
+                .body(containsString("lottery_errors_total{code=\"ERR-001\""))
+                .body(containsString("http_server_requests_seconds_bucket{"));
+    }
+
     /**
      * Convenience method to get the existing ticket
      */
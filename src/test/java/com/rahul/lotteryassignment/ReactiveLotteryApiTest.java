@@ -0,0 +1,364 @@
+package com.rahul.lotteryassignment;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rahul.lotteryassignment.controller.TicketBinaryDecoder;
+import com.rahul.lotteryassignment.controller.TicketBinaryHttpMessageConverter;
+import com.rahul.lotteryassignment.dto.Line;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import com.rahul.lotteryassignment.service.AdmissionControl;
+import com.rahul.lotteryassignment.service.TicketIdGenerator;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * API tests of the reactive variant, run on Reactor Netty with the {@code reactive} profile.
+ * Responses must match those of the servlet variant covered by {@link LotteryApiTest}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class ReactiveLotteryApiTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private TicketStore ticketStore;
+
+    @Autowired
+    private TicketIdGenerator idGenerator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @BeforeEach
+    void setup() {
+        RestAssured.baseURI = "http://localhost:" + port + "/ticket";
+    }
+
+    /**
+     * Test case to check the reactive stack is the one serving the API.
+     */
+    @Test
+    void testServedByWebFlux() {
+        assertTrue(context.containsBean("reactiveTicketController"));
+        assertFalse(context.containsBean("ticketController"));
+    }
+
+    /**
+     * Test case to create, extend and check a ticket.
+     * Verifies status codes and bodies match the servlet API.
+     */
+    @Test
+    void testTicketLifecycle() {
+        long id = given()
+                .queryParam("numberOfLines", 3)
+                .when()
+                .post()
+                .then()
+                .statusCode(201)
+                .contentType("application/json")
+                .body("success", equalTo(true))
+                .body("message", equalTo("Ticket created successfully!"))
+                .body("data.lines.size()", is(3))
+                .body("data.checked", equalTo(false))
+                .body("timestamp", notNullValue())
+                .extract().jsonPath().getLong("data.id");
+
+        given()
+                .queryParam("numberOfLines", 2)
+                .when()
+                .put("/" + id)
+                .then()
+                .statusCode(200)
+                .body("data.lines.size()", is(5));
+        given()
+                .when()
+                .put("/status/" + id)
+                .then()
+                .statusCode(200)
+                .body("data.checked", equalTo(true));
+        given()
+                .queryParam("numberOfLines", 2)
+                .when()
+                .put("/" + id)
+                .then()
+                .statusCode(409);
+        given()
+                .queryParam("limit", 2)
+                .queryParam("sorted", true)
+                .when()
+                .get("/" + id + "/lines")
+                .then()
+                .statusCode(200)
+                .body("data.lines.size()", is(2))
+                .body("data.totalLines", is(5));
+        ticketStore.remove(id);
+    }
+
+    /**
+     * Test case to read a ticket larger than one buffer.
+     * Verifies the streamed JSON is the JSON of the ticket.
+     */
+    @Test
+    void testGetLargeTicket() throws IOException {
+        Ticket ticket = new Ticket(idGenerator.nextId());
+        ticket.addLineCodes(new byte[10_000], 10_000);
+        ticket.addLines(List.of(Line.of(0, 1, 1)));
+        ticketStore.save(ticket);
+
+        JsonNode response = objectMapper.readTree(given()
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(200)
+                .extract().asByteArray());
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(ticket)), response.get("data"));
+        assertEquals("Ticket retrieved successfully!", response.get("message").asText());
+        ticketStore.remove(ticket.getId());
+    }
+
+    /**
+     * Test case to read a checked ticket conditionally and in binary.
+     * Verifies the ETag, 304 responses and the decoded binary ticket.
+     */
+    @Test
+    void testConditionalAndBinaryGet() throws IOException {
+        Ticket ticket = new Ticket(idGenerator.nextId());
+        ticket.addLines(List.of(Line.of(0, 1, 2), Line.of(0, 1, 1)));
+        ticketStore.save(ticket);
+        ticket.check();
+
+        String eTag = given()
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .body("data.lines[0].result", equalTo(10))
+                .extract().header("ETag");
+        given()
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(304)
+                .header("ETag", equalTo(eTag));
+
+        byte[] body = given()
+                .accept(TicketBinaryHttpMessageConverter.MEDIA_TYPE_VALUE)
+                .when()
+                .get("/" + ticket.getId())
+                .then()
+                .statusCode(200)
+                .contentType(TicketBinaryHttpMessageConverter.MEDIA_TYPE_VALUE)
+                .extract().asByteArray();
+        Ticket decoded = TicketBinaryDecoder.decode(new ByteArrayInputStream(body)).tickets().get(0);
+        assertEquals(ticket.getLines(), decoded.getLines());
+        ticketStore.remove(ticket.getId());
+    }
+
+    /**
+     * Test case to list, page and stream all tickets.
+     * Verifies every ticket is returned once by each.
+     */
+    @Test
+    void testListTickets() {
+        List<Long> ids = body("count=3&numberOfLines=2", "/batch").lines().map(Long::valueOf).toList();
+        assertEquals(3, ids.size());
+
+        given()
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .body("data.size()", is((int) ticketStore.count()))
+                .body("data.id", hasItems(ids.toArray()));
+        given()
+                .queryParam("limit", 2)
+                .queryParam("view", "summary")
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .body("data.tickets.size()", lessThanOrEqualTo(2))
+                .body("data.tickets[0].lines", nullValue());
+        String stream = given()
+                .when()
+                .get("/stream")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-ndjson")
+                .extract().asString();
+        assertEquals(ticketStore.count(), stream.lines().filter(line -> line.startsWith("{\"id\":")).count());
+
+        List<String> results = given()
+                .queryParam("ids", ids.get(0) + ",-1")
+                .when()
+                .put("/status")
+                .then()
+                .statusCode(200)
+                .extract().asString().lines().toList();
+        assertTrue(results.get(0).contains("\"status\":\"CHECKED\""));
+        assertTrue(results.get(1).contains("\"status\":\"NOT_FOUND\""));
+        ids.forEach(ticketStore::remove);
+    }
+
+    /**
+     * Test case to send invalid requests.
+     * Verifies the errors of the servlet API.
+     */
+    @Test
+    void testErrors() {
+        given()
+                .queryParam("numberOfLines", 0)
+                .when()
+                .post()
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false))
+                .body("message", containsString("Number of lines must be at least 1"));
+        given()
+                .when()
+                .get("/9999")
+                .then()
+                .statusCode(404)
+                .body("message", containsString("[ERR-001]"));
+        given()
+                .queryParam("view", "other")
+                .when()
+                .get("/9999")
+                .then()
+                .statusCode(400);
+        given()
+                .queryParam("unchecked", true)
+                .queryParam("fromId", 1)
+                .when()
+                .put("/status")
+                .then()
+                .statusCode(400);
+    }
+
+    /**
+     * Test case to create tickets in a batch.
+     * Verifies the lines are admitted while the IDs are streamed and returned afterwards, and a
+     * batch above the burst of the client is refused before anything is written.
+     */
+    @Test
+    void testCreateTicketBatch() {
+        List<Long> ids = given()
+                .queryParam("numberOfLines", "1,2,3")
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(201)
+                .contentType("application/x-ndjson")
+                .extract().asString().lines().map(Long::valueOf).toList();
+        assertEquals(List.of(1, 2, 3), ids.stream()
+                .map(id -> ticketStore.findById(id).orElseThrow().getLineCount())
+                .toList());
+        ids.forEach(ticketStore::remove);
+
+        given()
+                .queryParam("count", 10_000)
+                .queryParam("numberOfLines", 1000)
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(400)
+                .body("message", containsString("[ERR-002]"));
+        assertEquals(0, admissionControl.inFlightLines());
+    }
+
+    /**
+     * Test case to retry a ticket creation with an idempotency key.
+     * Verifies the retry returns the ticket created first.
+     */
+    @Test
+    void testIdempotentRetry() {
+        long first = given()
+                .header("Idempotency-Key", "reactive-retry")
+                .queryParam("numberOfLines", 2)
+                .when()
+                .post()
+                .then()
+                .statusCode(201)
+                .extract().jsonPath().getLong("data.id");
+        given()
+                .header("Idempotency-Key", "reactive-retry")
+                .queryParam("numberOfLines", 2)
+                .when()
+                .post()
+                .then()
+                .statusCode(201)
+                .body("data.id", equalTo(first));
+        ticketStore.remove(first);
+    }
+
+    /**
+     * Test case to close and purge a draw on the reactive stack.
+     * Verifies the closed draw freezes its tickets, the next draw opens and the purge drops them.
+     */
+    @Test
+    void testCloseAndPurgeDraw() {
+        assertTrue(context.containsBean("reactiveDrawController"));
+        assertFalse(context.containsBean("drawController"));
+        long id = given()
+                .queryParam("numberOfLines", 2)
+                .when()
+                .post()
+                .then()
+                .statusCode(201)
+                .extract().jsonPath().getLong("data.id");
+        long drawId = given().when().get(draw("/current")).then()
+                .statusCode(200)
+                .body("data.status", equalTo("OPEN"))
+                .extract().jsonPath().getLong("data.id");
+
+        given().when().post(draw("/close")).then()
+                .statusCode(200)
+                .body("data.id", equalTo((int) drawId))
+                .body("data.status", equalTo("CLOSED"))
+                .body("data.ticketCount", greaterThanOrEqualTo(1));
+        given().when().get(draw("/current")).then()
+                .statusCode(200)
+                .body("data.id", equalTo((int) drawId + 1));
+        given().queryParam("numberOfLines", 1).when().put("/" + id).then().statusCode(409);
+
+        given().when().delete(draw("/" + drawId)).then()
+                .statusCode(200)
+                .body("data.status", equalTo("PURGED"));
+        given().when().get("/" + id).then().statusCode(404);
+    }
+
+    private String draw(String path) {
+        return "http://localhost:" + port + "/draw" + path;
+    }
+
+    private static String body(String query, String path) {
+        return given().when().post(path + "?" + query).then().statusCode(201).extract().asString();
+    }
+}
@@ -0,0 +1,79 @@
+package com.rahul.lotteryassignment.benchmark;
+
+import com.rahul.lotteryassignment.constant.JournalSyncMode;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.persistence.FileTicketJournal;
+import com.rahul.lotteryassignment.persistence.JournalReplayer;
+import com.rahul.lotteryassignment.repository.TicketRepository;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import com.rahul.lotteryassignment.service.LineGenerator;
+import com.rahul.lotteryassignment.service.SeededLineGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Measures startup recovery: the time to replay a journal of N tickets (5 lines each, every
+ * tenth ticket checked) into an empty store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+public class JournalReplayBenchmark {
+
+    private static final int LINES_PER_TICKET = 5;
+
+    @Param({"1000000", "10000000"})
+    private int tickets;
+
+    @Param({"1", "4"})
+    private int replayThreads;
+
+    private Path directory;
+    private TicketStore store;
+
+    @Setup(Level.Trial)
+    public void writeJournal() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        LineGenerator generator = new LineGenerator();
+        try (FileTicketJournal journal = new FileTicketJournal(directory, JournalSyncMode.NONE, 100, 4 << 20)) {
+            journal.recover(new JournalReplayer(new TicketRepository(), null, 1));
+            for (long id = 1; id <= tickets; id++) {
+                Ticket ticket = new Ticket(id);
+                ticket.addLineCodes(generator.generate(LINES_PER_TICKET), LINES_PER_TICKET);
+                journal.recordCreate(ticket);
+                if (id % 10 == 0) {
+                    journal.recordCheck(id);
+                }
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyStore() {
+        store = new TicketRepository();
+    }
+
+    @Benchmark
+    public long replay() throws IOException {
+        try (FileTicketJournal journal = new FileTicketJournal(directory, JournalSyncMode.NONE, 100, 1 << 20)) {
+            return journal.recover(new JournalReplayer(store, new SeededLineGenerator(0), replayThreads));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteJournal() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
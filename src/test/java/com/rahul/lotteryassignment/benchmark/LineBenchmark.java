@@ -0,0 +1,51 @@
+package com.rahul.lotteryassignment.benchmark;
+
+import com.rahul.lotteryassignment.dto.Line;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Measures obtaining lines and their results. Lines are precomputed flyweights, so constructing
+ * a line and calculating its result both come down to table lookups.
+ * Each operation visits all 27 lines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineBenchmark {
+
+    @Benchmark
+    public void lineOfNumbers(Blackhole blackhole) {
+        for (int num1 = 0; num1 < 3; num1++) {
+            for (int num2 = 0; num2 < 3; num2++) {
+                for (int num3 = 0; num3 < 3; num3++) {
+                    blackhole.consume(Line.of(num1, num2, num3));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int resultOfLine() {
+        int total = 0;
+        for (int code = 0; code < Line.CODE_COUNT; code++) {
+            total += Line.of(code).getResult();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int resultOfCode() {
+        int total = 0;
+        for (int code = 0; code < Line.CODE_COUNT; code++) {
+            total += Line.resultOf(code);
+        }
+        return total;
+    }
+}
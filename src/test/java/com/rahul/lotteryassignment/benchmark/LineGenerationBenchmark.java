@@ -0,0 +1,81 @@
+package com.rahul.lotteryassignment.benchmark;
+
+import com.rahul.lotteryassignment.dto.Line;
+import com.rahul.lotteryassignment.service.LineGenerator;
+import com.rahul.lotteryassignment.service.SeededLineGenerator;
+import com.rahul.lotteryassignment.service.TicketIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Compares the batched line generator with drawing three {@code nextInt(3)} values per line
+ * from a fresh {@link Random}, as the service originally did, with replaying the seeded lines
+ * of a ticket, and with replaying a batch of tickets sequentially and on all cores.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineGenerationBenchmark {
+
+    private static final int BATCH_TICKETS = 64;
+    //ID the generator would issue at 2024-10-17T12:00:00Z, sequence 5, node 3
+    private static final long TICKET_ID = (Instant.parse("2024-10-17T12:00:00Z").toEpochMilli() - TicketIdGenerator.EPOCH)
+            << (TicketIdGenerator.SEQUENCE_BITS + TicketIdGenerator.NODE_BITS) | 5L << TicketIdGenerator.NODE_BITS | 3L;
+
+    @Param({"1", "100", "10000", "1000000"})
+    private int lines;
+
+    private long[] batchIds;
+    private int[] batchLineCounts;
+
+    private final LineGenerator generator = new LineGenerator();
+    private final SeededLineGenerator seededGenerator = new SeededLineGenerator(42L);
+
+    @Setup
+    public void setUp() {
+        batchIds = new long[BATCH_TICKETS];
+        for (int i = 0; i < BATCH_TICKETS; i++) {
+            batchIds[i] = TICKET_ID + ((long) i << TicketIdGenerator.NODE_BITS);
+        }
+        batchLineCounts = new int[BATCH_TICKETS];
+        Arrays.fill(batchLineCounts, lines);
+    }
+
+    @Benchmark
+    public byte[] perNumberRandom() {
+        Random random = new Random();
+        byte[] codes = new byte[lines];
+        for (int i = 0; i < lines; i++) {
+            codes[i] = (byte) Line.encode(random.nextInt(3), random.nextInt(3), random.nextInt(3));
+        }
+        return codes;
+    }
+
+    @Benchmark
+    public byte[] batchedGenerator() {
+        return generator.generate(lines);
+    }
+
+    @Benchmark
+    public byte[] seededReplay() {
+        return seededGenerator.replay(TICKET_ID, lines);
+    }
+
+    @Benchmark
+    public byte[][] seededBatchReplaySequential() {
+        return seededGenerator.replay(batchIds, batchLineCounts, 1);
+    }
+
+    @Benchmark
+    public byte[][] seededBatchReplayParallel() {
+        return seededGenerator.replay(batchIds, batchLineCounts, Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,26 @@
+package com.rahul.lotteryassignment.benchmark;
+
+import com.rahul.lotteryassignment.service.TicketIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Throughput of ticket ID allocation, meant to be run with several threads ({@code -t max}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketIdGeneratorBenchmark {
+
+    private final TicketIdGenerator generator = new TicketIdGenerator(0);
+
+    @Benchmark
+    public long nextId() {
+        return generator.nextId();
+    }
+}
@@ -0,0 +1,78 @@
+package com.rahul.lotteryassignment.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rahul.lotteryassignment.dto.LotteryApiResponse;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.json.LotteryJsonModule;
+import com.rahul.lotteryassignment.service.LineGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Measures the JSON serialization of a {@link LotteryApiResponse} holding a ticket, from a
+ * small ticket up to a huge one. The mapper is built with the same defaults as the one Spring
+ * uses for responses, either with Jackson's bean serializers ({@code bean}) or with the
+ * hand-written ones of {@link LotteryJsonModule} ({@code module}). Output is written to a
+ * discarding stream so that only encoding is measured, not buffer growth. Run with
+ * {@code -prof gc} to compare the bytes allocated per response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TicketSerializationBenchmark {
+
+    @Param({"10", "1000", "1000000"})
+    private int lines;
+
+    @Param({"bean", "module"})
+    private String serializer;
+
+    private ObjectMapper objectMapper;
+    private Ticket ticket;
+    private final CountingOutputStream output = new CountingOutputStream();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (serializer.equals("module")) {
+            builder.modulesToInstall(new LotteryJsonModule());
+        }
+        objectMapper = builder.build();
+        ticket = new Ticket(1L);
+        ticket.addLineCodes(new LineGenerator().generate(lines), lines);
+    }
+
+    @Benchmark
+    public long serializeResponse() throws IOException {
+        output.count = 0;
+        objectMapper.writeValue(output, LotteryApiResponse.success("Ticket retrieved successfully!", ticket));
+        return output.count;
+    }
+
+    /**
+     * Output stream that only counts the bytes written to it.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
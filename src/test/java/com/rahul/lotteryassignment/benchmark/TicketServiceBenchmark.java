@@ -0,0 +1,117 @@
+package com.rahul.lotteryassignment.benchmark;
+
+import com.rahul.lotteryassignment.constant.LineMode;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.metrics.TicketMetrics;
+import com.rahul.lotteryassignment.persistence.TicketJournal;
+import com.rahul.lotteryassignment.repository.TicketRepository;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import com.rahul.lotteryassignment.service.LineGenerator;
+import com.rahul.lotteryassignment.service.SeededLineGenerator;
+import com.rahul.lotteryassignment.service.TicketIdGenerator;
+import com.rahul.lotteryassignment.service.TicketService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Measures the {@link TicketService} operations behind the REST endpoints, without HTTP and
+ * without a journal, in both line modes.
+ * <p>
+ * Checking a ticket is a one-time transition, so {@link #checkTicketStatus()} runs in single
+ * shot mode over a batch of tickets created before each iteration; its score is the time of the
+ * whole batch of {@value #CHECK_BATCH} checks. {@link #addLines()} moves on
+ * to a fresh ticket every {@value #ADDS_PER_TICKET} calls to keep the ticket size bounded.
+ * </p>
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TicketServiceBenchmark {
+
+    private static final int ADDS_PER_TICKET = 1000;
+    private static final int CHECK_BATCH = 1000;
+
+    @Param({"10", "1000"})
+    private int lines;
+
+    @Param({"RANDOM", "SEEDED"})
+    private LineMode lineMode;
+
+    private final LineGenerator lineGenerator = new LineGenerator();
+    private TicketStore store;
+    private TicketService service;
+    private Long openTicket;
+    private int adds;
+    private Long checkedTicket;
+    private Long[] uncheckedTickets;
+    private int nextUnchecked;
+
+    @Setup(Level.Trial)
+    public void setupService() {
+        store = new TicketRepository();
+        service = new TicketService(store, new TicketIdGenerator(0), lineGenerator, new SeededLineGenerator(42L),
+                lineMode, TicketJournal.NONE, new TicketMetrics(store));
+        checkedTicket = service.checkTicketStatus(service.createTicket(lines).getId()).getId();
+    }
+
+    @Setup(Level.Iteration)
+    public void setupTickets() {
+        store.forEach(ticket -> {
+            if (!ticket.getId().equals(checkedTicket)) {
+                store.remove(ticket.getId());
+            }
+        });
+        openTicket = service.createTicket(lines).getId();
+        adds = 0;
+        uncheckedTickets = new Long[CHECK_BATCH];
+        for (int i = 0; i < CHECK_BATCH; i++) {
+            uncheckedTickets[i] = service.createTicket(lines).getId();
+        }
+        nextUnchecked = 0;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] generateLines() {
+        return lineGenerator.generate(lines);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Ticket createTicket() {
+        return service.createTicket(lines);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Ticket addLines() {
+        if (++adds == ADDS_PER_TICKET) {
+            store.remove(openTicket);
+            openTicket = service.createTicket(lines).getId();
+            adds = 0;
+        }
+        return service.addLines(openTicket, lines);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, batchSize = CHECK_BATCH)
+    @Measurement(iterations = 10, batchSize = CHECK_BATCH)
+    public Ticket checkTicketStatus() {
+        return service.checkTicketStatus(uncheckedTickets[nextUnchecked++]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Ticket checkCheckedTicket() {
+        return service.checkTicketStatus(checkedTicket);
+    }
+}
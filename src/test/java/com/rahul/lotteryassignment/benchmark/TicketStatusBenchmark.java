@@ -0,0 +1,61 @@
+package com.rahul.lotteryassignment.benchmark;
+
+import com.rahul.lotteryassignment.dto.Line;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.service.LineGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Compares checking a ticket with the histogram counting sort against the previous comparison
+ * sort over {@link Line} objects. Both variants start from a fresh copy of the same lines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TicketStatusBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    private int lines;
+
+    private byte[] codes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        codes = new LineGenerator().generate(lines);
+    }
+
+    @Benchmark
+    public Ticket comparisonSort() {
+        Ticket ticket = freshTicket();
+        ticket.setLines(ticket.getLines()
+                .stream()
+                .sorted(Comparator.comparingInt(Line::getResult).reversed())
+                .toList());
+        return ticket;
+    }
+
+    @Benchmark
+    public Ticket countingSort() {
+        Ticket ticket = freshTicket();
+        ticket.sortLinesByResult();
+        return ticket;
+    }
+
+    @Benchmark
+    public long summaryOnly() {
+        return freshTicket().getTotalScore();
+    }
+
+    private Ticket freshTicket() {
+        Ticket ticket = new Ticket(1L);
+        ticket.addLineCodes(codes, lines);
+        return ticket;
+    }
+}
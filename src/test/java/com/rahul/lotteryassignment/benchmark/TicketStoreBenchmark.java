@@ -0,0 +1,90 @@
+package com.rahul.lotteryassignment.benchmark;
+
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.repository.TicketRepository;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Contention benchmark for the ticket store.
+ * <p>
+ * Every benchmark thread mixes reads, atomic updates and inserts on random tickets. Running
+ * {@link #main(String[])} repeats the benchmark from 1 thread up to the number of available
+ * processors so the ops/sec scaling can be read off directly.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketStoreBenchmark {
+
+    private static final int PRELOADED_TICKETS = 100_000;
+    private static final int INSERTED_TICKETS = 1_000_000; //Bounds the ID range used by save()
+
+    private TicketStore store;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        store = new TicketRepository();
+        for (long id = 0; id < PRELOADED_TICKETS; id++) {
+            store.save(ticket(id));
+        }
+    }
+
+    @Benchmark
+    public Object findById() {
+        return store.findById((long) ThreadLocalRandom.current().nextInt(PRELOADED_TICKETS));
+    }
+
+    @Benchmark
+    public Object update() {
+        return store.update((long) ThreadLocalRandom.current().nextInt(PRELOADED_TICKETS), ticket -> {
+            ticket.setChecked(!ticket.isChecked());
+            return ticket;
+        });
+    }
+
+    @Benchmark
+    public boolean save() {
+        return store.save(ticket(PRELOADED_TICKETS + ThreadLocalRandom.current().nextInt(INSERTED_TICKETS)));
+    }
+
+    private static Ticket ticket(long id) {
+        return new Ticket(id);
+    }
+
+    /**
+     * Runs the benchmark with 1, 2, 4 ... threads up to the number of available processors.
+     * Accepts the JMH command line options; a result file gets one copy per thread count.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .include(TicketStoreBenchmark.class.getSimpleName())
+                    .threads(threads);
+            if (commandLine.getResult().hasValue()) {
+                options.result(commandLine.getResult().get().replaceFirst("(\\.json)?$", "-" + threads + "-threads.json"));
+            }
+            new Runner(options.build()).run();
+            if (threads == maxThreads) {
+                break;
+            }
+        }
+    }
+}
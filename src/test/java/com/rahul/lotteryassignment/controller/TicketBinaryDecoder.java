@@ -0,0 +1,97 @@
+package com.rahul.lotteryassignment.controller;
+
+import com.rahul.lotteryassignment.dto.Ticket;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Client side reader of the binary ticket format written by {@link TicketBinaryHttpMessageConverter}.
+ */
+public final class TicketBinaryDecoder {
+
+    private static final int CHUNK_SIZE = 1 << 16; //Line codes read at a time
+
+    private TicketBinaryDecoder() {
+    }
+
+    /**
+     * @param input Body of a binary response, read to its end
+     * @return The decoded response
+     * @throws IOException if the body is truncated or of an unknown version or payload
+     */
+    public static Response decode(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        byte version = in.readByte();
+        if (version != TicketBinaryHttpMessageConverter.VERSION) {
+            throw new IOException("Unknown format version " + version);
+        }
+        boolean success = in.readBoolean();
+        byte[] message = new byte[in.readUnsignedShort()];
+        in.readFully(message);
+        Instant timestamp = Instant.ofEpochMilli(in.readLong());
+        byte kind = in.readByte();
+        List<Ticket> tickets = new ArrayList<>();
+        Long nextCursor = null;
+        switch (kind) {
+            case TicketBinaryHttpMessageConverter.NONE -> {
+            }
+            case TicketBinaryHttpMessageConverter.TICKET -> tickets.add(readTicket(in));
+            case TicketBinaryHttpMessageConverter.TICKETS, TicketBinaryHttpMessageConverter.PAGE -> {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    tickets.add(readTicket(in));
+                }
+                if (kind == TicketBinaryHttpMessageConverter.PAGE) {
+                    boolean hasNext = in.readBoolean();
+                    long cursor = in.readLong();
+                    nextCursor = hasNext ? cursor : null;
+                }
+            }
+            default -> throw new IOException("Unknown payload kind " + kind);
+        }
+        if (in.read() != -1) {
+            throw new IOException("Trailing bytes after the payload");
+        }
+        return new Response(success, new String(message, StandardCharsets.UTF_8), timestamp, kind, tickets, nextCursor);
+    }
+
+    private static Ticket readTicket(DataInputStream in) throws IOException {
+        Ticket ticket = new Ticket(in.readLong());
+        boolean checked = in.readBoolean();
+        int lineCount = in.readInt();
+        if (lineCount < 0) {
+            throw new EOFException("Negative line count " + lineCount);
+        }
+        byte[] codes = new byte[Math.min(lineCount, CHUNK_SIZE)];
+        for (int remaining = lineCount; remaining > 0; ) {
+            int length = Math.min(remaining, codes.length);
+            in.readFully(codes, 0, length);
+            ticket.addLineCodes(codes, length);
+            remaining -= length;
+        }
+        ticket.setChecked(checked); // Lines come in the order of the server, sorted if checked
+        return ticket;
+    }
+
+    /**
+     * A decoded response.
+     *
+     * @param success    Whether the request succeeded
+     * @param message    Message of the response
+     * @param timestamp  Time the response was created
+     * @param kind       Payload kind
+     * @param tickets    Tickets of the payload, empty without one
+     * @param nextCursor Cursor of the next page of a page payload, or {@code null}
+     */
+    public record Response(boolean success, String message, Instant timestamp, byte kind,
+                           List<Ticket> tickets, Long nextCursor) {
+    }
+}
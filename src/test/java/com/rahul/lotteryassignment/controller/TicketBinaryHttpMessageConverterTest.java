@@ -0,0 +1,106 @@
+package com.rahul.lotteryassignment.controller;
+
+import com.rahul.lotteryassignment.dto.Line;
+import com.rahul.lotteryassignment.dto.LotteryApiResponse;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.dto.TicketPage;
+import com.rahul.lotteryassignment.dto.TicketSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketBinaryHttpMessageConverterTest {
+
+    private final TicketBinaryHttpMessageConverter converter = new TicketBinaryHttpMessageConverter();
+
+    @Test
+    void testRoundTripsLargeTicket() throws IOException {
+        Ticket ticket = new Ticket(42L);
+        byte[] codes = new byte[200_000]; // Spans several chunks
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (byte) ThreadLocalRandom.current().nextInt(Line.CODE_COUNT);
+        }
+        ticket.addLineCodes(codes, codes.length);
+        ticket.check();
+
+        byte[] body = write(LotteryApiResponse.success("Ticket retrieved successfully!", ticket));
+        assertTrue(body.length < codes.length + 64, () -> body.length + " bytes for " + codes.length + " lines");
+        TicketBinaryDecoder.Response response = TicketBinaryDecoder.decode(new ByteArrayInputStream(body));
+
+        assertTrue(response.success());
+        assertEquals("Ticket retrieved successfully!", response.message());
+        assertEquals(TicketBinaryHttpMessageConverter.TICKET, response.kind());
+        Ticket decoded = response.tickets().get(0);
+        assertEquals(42L, decoded.getId());
+        assertTrue(decoded.isChecked());
+        assertEquals(ticket.getLines(), decoded.getLines());
+    }
+
+    @Test
+    void testNegotiatesBinaryByQuality() {
+        assertTrue(negotiates("application/vnd.lottery.ticket"));
+        assertTrue(negotiates("application/vnd.lottery.ticket, application/json"));
+        assertTrue(negotiates("application/vnd.lottery.ticket, */*"));
+        assertTrue(negotiates("application/json;q=0.5, application/vnd.lottery.ticket"));
+        assertFalse(negotiates("application/json;q=1, application/vnd.lottery.ticket;q=0.1"));
+        assertFalse(negotiates("application/json, application/vnd.lottery.ticket"));
+        assertFalse(negotiates("*/*"));
+        assertFalse(negotiates("application/*"));
+        assertFalse(negotiates("application/vnd.lottery.ticket;q=0, */*"));
+        assertFalse(negotiates(""));
+    }
+
+    @Test
+    void testWritesPagesAndErrors() throws IOException {
+        Ticket first = new Ticket(1L);
+        first.addLines(List.of(Line.of(0, 1, 1)));
+        Ticket second = new Ticket(2L);
+        TicketBinaryDecoder.Response page = TicketBinaryDecoder.decode(new ByteArrayInputStream(
+                write(LotteryApiResponse.success("Tickets retrieved successfully!", new TicketPage<>(List.of(first, second), 2L)))));
+        assertEquals(List.of(1L, 2L), page.tickets().stream().map(Ticket::getId).toList());
+        assertEquals(List.of(Line.of(0, 1, 1)), page.tickets().get(0).getLines());
+        assertEquals(0, page.tickets().get(1).getLineCount());
+        assertEquals(2L, page.nextCursor());
+
+        TicketBinaryDecoder.Response error = TicketBinaryDecoder.decode(new ByteArrayInputStream(
+                write(LotteryApiResponse.error("[ERR-001] Ticket Not Found", null))));
+        assertFalse(error.success());
+        assertEquals(TicketBinaryHttpMessageConverter.NONE, error.kind());
+
+        assertThrows(HttpMessageNotWritableException.class, () -> write(LotteryApiResponse.success("Summary",
+                new TicketSummary(first, Set.of("id")))));
+    }
+
+    @Test
+    void testCutsLongMessageBetweenCharacters() throws IOException {
+        String message = "a" + "\u00e9".repeat(20_000) + "\ud83c\udfab".repeat(5_000); // 1, 2 and 4 byte characters
+        String decoded = TicketBinaryDecoder.decode(new ByteArrayInputStream(
+                write(LotteryApiResponse.error(message, null)))).message();
+        assertEquals(message.substring(0, decoded.length()), decoded);
+        assertEquals(1 + 2 * 16_383, decoded.getBytes(StandardCharsets.UTF_8).length);
+
+        String emoji = "\ud83c\udfab".repeat(10_000);
+        decoded = TicketBinaryDecoder.decode(new ByteArrayInputStream(write(LotteryApiResponse.error(emoji, null)))).message();
+        assertEquals(emoji.substring(0, 2 * 8_191), decoded);
+    }
+
+    private byte[] write(LotteryApiResponse<?> response) throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(response, TicketBinaryHttpMessageConverter.MEDIA_TYPE, output);
+        return output.getBodyAsBytes();
+    }
+
+    private static boolean negotiates(String accept) {
+        return TicketBinaryHttpMessageConverter.isNegotiated(MediaType.parseMediaTypes(accept));
+    }
+}
@@ -0,0 +1,40 @@
+package com.rahul.lotteryassignment.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the packed {@link Line} representation.
+ */
+class LineTest {
+
+    @Test
+    void testResultsFollowLotteryRules() {
+        assertEquals(10, Line.of(0, 1, 1).getResult()); // sum is 2
+        assertEquals(10, Line.of(2, 0, 0).getResult()); // sum is 2, first differs
+        assertEquals(5, Line.of(1, 1, 1).getResult());
+        assertEquals(1, Line.of(0, 1, 2).getResult());
+        assertEquals(0, Line.of(0, 1, 0).getResult());
+    }
+
+    @Test
+    void testCodesRoundTrip() {
+        for (int code = 0; code < Line.CODE_COUNT; code++) {
+            Line line = Line.of(code);
+            List<Integer> numbers = line.getNumbers();
+            assertEquals(code, line.getCode());
+            assertEquals(code, Line.encode(numbers.get(0), numbers.get(1), numbers.get(2)));
+            assertEquals(line.getResult(), Line.resultOf(code));
+            assertSame(line, Line.of(numbers.get(0), numbers.get(1), numbers.get(2))); // Flyweight instances
+        }
+    }
+
+    @Test
+    void testRejectsNumbersOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> Line.of(0, 3, 1));
+        assertThrows(IllegalArgumentException.class, () -> Line.of(-1, 0, 1));
+    }
+}
@@ -0,0 +1,80 @@
+package com.rahul.lotteryassignment.dto;
+
+import com.rahul.lotteryassignment.service.SeededLineGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the line storage and result histogram of {@link Ticket}.
+ */
+class TicketTest {
+
+    @Test
+    void testHistogramTracksAddedLines() {
+        Ticket ticket = new Ticket(1L);
+        ticket.addLines(List.of(Line.of(0, 1, 1), Line.of(1, 1, 1), Line.of(1, 1, 1), Line.of(0, 1, 0)));
+
+        assertEquals(1, ticket.getResultCount(10));
+        assertEquals(2, ticket.getResultCount(5));
+        assertEquals(0, ticket.getResultCount(1));
+        assertEquals(1, ticket.getResultCount(0));
+        assertEquals(10, ticket.getBestResult());
+        assertEquals(20, ticket.getTotalScore());
+        assertNull(new Ticket(2L).getBestResult());
+    }
+
+    /**
+     * Counting sort must give the same order as a stable comparison sort.
+     */
+    @Test
+    void testSortMatchesStableComparisonSort() {
+        SeededLineGenerator generator = new SeededLineGenerator(3L);
+        Ticket stored = new Ticket(5L);
+        stored.addLineCodes(generator.replay(5L, 10_000), 10_000);
+        Ticket sequenceBacked = new Ticket(5L);
+        sequenceBacked.addSequenceLines(generator, 10_000);
+
+        List<Line> expected = stored.getLines().stream()
+                .sorted(Comparator.comparingInt(Line::getResult).reversed())
+                .toList();
+        stored.sortLinesByResult();
+        sequenceBacked.sortLinesByResult();
+
+        assertEquals(expected, stored.getLines());
+        assertEquals(expected, sequenceBacked.getLines());
+        assertEquals(stored.getTotalScore(), sequenceBacked.getTotalScore());
+    }
+
+    /**
+     * Lines appended across segment boundaries must read back in order, in full and by range.
+     */
+    @Test
+    void testSegmentsAcrossBoundaries() {
+        SeededLineGenerator generator = new SeededLineGenerator(7L);
+        int count = 2 * Ticket.SEGMENT_SIZE + 123;
+        byte[] expected = generator.replay(9L, count);
+        Ticket ticket = new Ticket(9L);
+        ticket.addLineCodes(expected, 10);
+        ticket.addLineCodes(Arrays.copyOfRange(expected, 10, Ticket.SEGMENT_SIZE + 5), Ticket.SEGMENT_SIZE - 5);
+        ticket.addLineCodes(Arrays.copyOfRange(expected, Ticket.SEGMENT_SIZE + 5, count), count - Ticket.SEGMENT_SIZE - 5);
+
+        byte[] codes = new byte[count];
+        ticket.copyLineCodes(0, codes, 0, count);
+        assertArrayEquals(expected, codes);
+        List<Line> page = ticket.getLines(Ticket.SEGMENT_SIZE - 2, 4);
+        for (int i = 0; i < page.size(); i++) {
+            assertEquals(expected[Ticket.SEGMENT_SIZE - 2 + i], page.get(i).getCode());
+        }
+
+        Ticket sequenceBacked = new Ticket(9L);
+        sequenceBacked.addSequenceLines(generator, count);
+        sequenceBacked.sortLinesByResult();
+        ticket.sortLinesByResult();
+        assertEquals(sequenceBacked.getLines(), ticket.getLines());
+    }
+}
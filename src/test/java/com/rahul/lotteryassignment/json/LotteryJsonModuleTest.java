@@ -0,0 +1,62 @@
+package com.rahul.lotteryassignment.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rahul.lotteryassignment.dto.Line;
+import com.rahul.lotteryassignment.dto.LotteryApiResponse;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.dto.TicketPage;
+import com.rahul.lotteryassignment.service.LineGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LotteryJsonModuleTest {
+
+    private final ObjectMapper beanMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper moduleMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new LotteryJsonModule())
+            .build();
+
+    @Test
+    void testWritesSameJsonAsBeanSerializers() throws Exception {
+        Ticket large = new Ticket(3L);
+        large.addLineCodes(new LineGenerator().generate(10_000), 10_000);
+        large.check();
+        Ticket small = new Ticket(4L);
+        small.addLines(List.of(Line.of(0, 1, 2), Line.of(2, 2, 2)));
+
+        for (Object value : List.of(
+                LotteryApiResponse.success("Ticket retrieved successfully!", large),
+                LotteryApiResponse.success("Tickets retrieved successfully!", List.of(small, new Ticket())),
+                LotteryApiResponse.success("Tickets retrieved successfully!", new TicketPage<>(List.of(small), null)),
+                LotteryApiResponse.error("[ERR-001] Ticket Not Found", null),
+                Line.of(1, 0, 1))) {
+            assertEquals(beanMapper.writeValueAsString(value), moduleMapper.writeValueAsString(value));
+        }
+
+        ObjectMapper numeric = Jackson2ObjectMapperBuilder.json().modulesToInstall(new LotteryJsonModule()).build();
+        LotteryApiResponse<Ticket> response = LotteryApiResponse.success("Ticket", small);
+        assertEquals(Jackson2ObjectMapperBuilder.json().build().writeValueAsString(response), numeric.writeValueAsString(response));
+    }
+
+    @Test
+    void testFormatsInstantsLikeIsoInstant() {
+        char[] chars = new char[32];
+        for (Instant instant : List.of(Instant.EPOCH, Instant.parse("2024-02-29T23:59:59.999999999Z"),
+                Instant.parse("2026-10-17T04:03:53.100Z"), Instant.parse("2026-10-17T04:03:53.000120Z"),
+                Instant.parse("1999-01-01T00:00:00.000000001Z"), Instant.parse("9999-12-31T23:59:59Z"))) {
+            int length = LotteryJsonModule.formatInstant(instant, chars);
+            assertEquals(DateTimeFormatter.ISO_INSTANT.format(instant), new String(chars, 0, length));
+        }
+        assertEquals(-1, LotteryJsonModule.formatInstant(Instant.parse("+10000-01-01T00:00:00Z"), chars));
+    }
+}
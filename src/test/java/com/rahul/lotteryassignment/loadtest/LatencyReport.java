@@ -0,0 +1,127 @@
+package com.rahul.lotteryassignment.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Latency distributions and error counts per endpoint for one measurement phase of a load test.
+ * Latencies are recorded in nanoseconds and reported in milliseconds.
+ */
+final class LatencyReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<LoadTest.Endpoint, Histogram> histograms = new EnumMap<>(LoadTest.Endpoint.class);
+    private final Map<LoadTest.Endpoint, LongAdder> errors = new EnumMap<>(LoadTest.Endpoint.class);
+    private final Map<LoadTest.Endpoint, LongAdder> skipped = new EnumMap<>(LoadTest.Endpoint.class);
+
+    LatencyReport() {
+        for (LoadTest.Endpoint endpoint : LoadTest.Endpoint.values()) {
+            histograms.put(endpoint, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+            errors.put(endpoint, new LongAdder());
+            skipped.put(endpoint, new LongAdder());
+        }
+    }
+
+    /**
+     * Records a completed request.
+     *
+     * @param endpoint     Endpoint of the request
+     * @param latencyNanos Time from the intended start of the request to its completion
+     * @param failed       Whether the request failed or returned an error status
+     */
+    void record(LoadTest.Endpoint endpoint, long latencyNanos, boolean failed) {
+        histograms.get(endpoint).recordValue(latencyNanos);
+        if (failed) {
+            errors.get(endpoint).increment();
+        }
+    }
+
+    /**
+     * Records a request that could not be sent because no suitable ticket was available.
+     */
+    void skip(LoadTest.Endpoint endpoint) {
+        skipped.get(endpoint).increment();
+    }
+
+    /**
+     * @return The latencies of all endpoints together
+     */
+    Histogram combined() {
+        Histogram combined = new Histogram(SIGNIFICANT_DIGITS);
+        histograms.values().forEach(combined::add);
+        return combined;
+    }
+
+    /**
+     * @return Number of failed requests of all endpoints
+     */
+    long errorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Prints a percentile table of all endpoints.
+     *
+     * @param out Stream receiving the table
+     */
+    void printSummary(PrintStream out) {
+        out.printf("%-10s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "skipped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (LoadTest.Endpoint endpoint : LoadTest.Endpoint.values()) {
+            Histogram histogram = histograms.get(endpoint);
+            out.printf("%-10s %9d %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint.label(),
+                    histogram.getTotalCount(),
+                    errors.get(endpoint).sum(),
+                    skipped.get(endpoint).sum(),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+    }
+
+    /**
+     * Writes the summary followed by the full percentile distribution of every endpoint, in the
+     * HdrHistogram text format that histogram plotters read.
+     *
+     * @param file   Report file
+     * @param header Lines describing the run, written first
+     * @throws IOException if the file cannot be written
+     */
+    void write(Path file, List<String> header) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+            header.forEach(out::println);
+            out.println();
+            printSummary(out);
+            for (LoadTest.Endpoint endpoint : LoadTest.Endpoint.values()) {
+                Histogram histogram = histograms.get(endpoint);
+                if (histogram.getTotalCount() > 0) {
+                    out.println();
+                    out.println("# " + endpoint.label() + ": " + endpoint.description() + " (latency in ms)");
+                    histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+                }
+            }
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,438 @@
+package com.rahul.lotteryassignment.loadtest;
+
+import com.rahul.lotteryassignment.LotteryAssignmentApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @author Rahul Kumar, reader.rahul@gmail.com
+ * Open-model HTTP load generator for the ticket API.
+ * <p>
+ * Requests are started on a fixed schedule at the configured rate, independent of how fast
+ * responses come back, and sent asynchronously. Each latency is measured from the time the
+ * request was scheduled to start rather than from the time it was actually sent, so a stalled
+ * server shows up as latency of every request that should have been sent during the stall
+ * instead of being hidden by a paused generator (coordinated omission).
+ * </p>
+ * <p>
+ * Without {@code --target} the application is started in this JVM on a free port, sharing the
+ * machine with the generator, on the servlet stack (Spring MVC on Tomcat), the reactive stack
+ * (WebFlux on Netty, profile {@code reactive}) or both in turn under the same load, followed by a
+ * comparison of their peak concurrent requests, which over HTTP/1.1 is the number of connections
+ * in use, and their p99 latency. Slow readers hold connections open reading large responses
+ * slowly, as slow clients on poor networks do, tying up a Tomcat thread each. Options, all of the
+ * form {@code --name=value}:
+ * </p>
+ * <ul>
+ *     <li>{@code target}: base URL of a running application, e.g. {@code http://localhost:8080}</li>
+ *     <li>{@code rate}: requests started per second (default 200)</li>
+ *     <li>{@code duration}, {@code warmup}: seconds measured and discarded (default 30 and 10)</li>
+ *     <li>{@code mix}: relative weights per endpoint (default {@value #DEFAULT_MIX})</li>
+ *     <li>{@code lines}: lines per created ticket and per added batch (default 10)</li>
+ *     <li>{@code tickets}: tickets created before the run for reads and added lines (default 1000)</li>
+ *     <li>{@code report}: report file (default {@code target/load-test-report.txt}), suffixed with the stack when comparing</li>
+ *     <li>{@code stack}: {@code servlet} (default), {@code reactive} or {@code both}, without {@code target}</li>
+ *     <li>{@code slowReaders}: connections reading {@code GET /ticket} slowly during the run (default 0)</li>
+ *     <li>{@code slowReadBytesPerSecond}: read rate of each slow reader (default 65536)</li>
+ * </ul>
+ * <p>
+ * Comparing the stacks at saturation means a rate beyond what the servlet stack sustains, e.g.
+ * {@code --stack=both --rate=5000 --slowReaders=250}.
+ * </p>
+ */
+public final class LoadTest {
+
+    private static final String DEFAULT_MIX = "create=20,get=50,addLines=15,check=10,getAll=5";
+    private static final Pattern TICKET_ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final int PRELOAD_CONCURRENCY = 64;
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+    private static final String DEFAULT_REPORT = "target/load-test-report.txt";
+    private static final int SLOW_READ_CHUNK = 1024; //Bytes read by a slow reader at a time
+
+    /**
+     * Endpoints of the ticket controller driven by the load test.
+     */
+    enum Endpoint {
+        CREATE("create", "POST /ticket"),
+        GET("get", "GET /ticket/{id}"),
+        ADD_LINES("addLines", "PUT /ticket/{id}"),
+        CHECK("check", "PUT /ticket/status/{id}"),
+        GET_ALL("getAll", "GET /ticket");
+
+        private final String label;
+        private final String description;
+
+        Endpoint(String label, String description) {
+            this.label = label;
+            this.description = description;
+        }
+
+        String label() {
+            return label;
+        }
+
+        String description() {
+            return description;
+        }
+
+        static Endpoint ofLabel(String label) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.label.equals(label)) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalArgumentException("Unknown endpoint '" + label + "' in mix");
+        }
+    }
+
+    private final URI target;
+    private final Map<String, String> options;
+    private final double rate;
+    private final int lines;
+    private final Endpoint[] schedule = new Endpoint[100]; //Endpoints drawn from for each request, per mix weight
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final List<Long> openTickets = new ArrayList<>(); //Tickets read and extended, never checked
+    private final Queue<Long> uncheckedTickets = new ConcurrentLinkedQueue<>(); //Tickets waiting to be checked
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong peakInFlight = new AtomicLong(); //Most requests in flight at once while measuring
+    private volatile boolean slowReading; //Whether slow readers keep reading
+
+    /**
+     * Outcome of a run on one stack, for comparisons.
+     */
+    record Summary(String stack, long sent, long completed, long errors, long peakInFlight, int slowReaders,
+                   double p50Millis, double p99Millis, double p999Millis) {
+    }
+
+    private LoadTest(URI target, Map<String, String> options) {
+        this.target = target;
+        this.options = options;
+        this.rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        this.lines = Integer.parseInt(options.getOrDefault("lines", "10"));
+        buildSchedule(options.getOrDefault("mix", DEFAULT_MIX));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        if (options.containsKey("target")) {
+            new LoadTest(URI.create(options.get("target")), options)
+                    .run("target", Path.of(options.getOrDefault("report", DEFAULT_REPORT)));
+            return;
+        }
+        String stack = options.getOrDefault("stack", "servlet");
+        List<String> stacks = switch (stack) {
+            case "servlet", "reactive" -> List.of(stack);
+            case "both" -> List.of("servlet", "reactive");
+            default -> throw new IllegalArgumentException("Stack must be servlet, reactive or both, not " + stack);
+        };
+        List<Summary> summaries = new ArrayList<>();
+        for (String next : stacks) {
+            summaries.add(runInProcess(next, options, stacks.size() > 1));
+        }
+        if (summaries.size() > 1) {
+            printComparison(summaries);
+        }
+    }
+
+    /**
+     * Starts the application on a stack in this JVM, runs the load test against it and stops it.
+     *
+     * @param suffixReport Whether to add the stack to the name of the report file
+     */
+    private static Summary runInProcess(String stack, Map<String, String> options, boolean suffixReport) throws Exception {
+        Path report = Path.of(options.getOrDefault("report", DEFAULT_REPORT));
+        if (suffixReport) {
+            String name = report.getFileName().toString();
+            int extension = name.lastIndexOf('.') > 0 ? name.lastIndexOf('.') : name.length();
+            report = report.resolveSibling(name.substring(0, extension) + "-" + stack + name.substring(extension));
+        }
+        System.out.printf("Starting the application on the %s stack%n", stack);
+        String[] arguments = "reactive".equals(stack)
+                ? new String[]{"--server.port=0", "--spring.profiles.active=reactive"}
+                : new String[]{"--server.port=0"};
+        try (ConfigurableApplicationContext application = SpringApplication.run(LotteryAssignmentApplication.class, arguments)) {
+            URI target = URI.create("http://localhost:" + application.getEnvironment().getProperty("local.server.port"));
+            return new LoadTest(target, options).run(stack, report);
+        }
+    }
+
+    private Summary run(String stack, Path reportFile) throws IOException, InterruptedException {
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        int slowReaders = Integer.parseInt(options.getOrDefault("slowReaders", "0"));
+
+        int checkWeight = (int) Arrays.stream(schedule).filter(e -> e == Endpoint.CHECK).count();
+        long expectedChecks = (long) Math.ceil(rate * (warmup.toSeconds() + duration.toSeconds()) * checkWeight / schedule.length);
+        preload(Integer.parseInt(options.getOrDefault("tickets", "1000")), expectedChecks);
+        List<Thread> readers = startSlowReaders(slowReaders);
+
+        System.out.printf("Warming up %s for %d s at %.0f requests/s%n", target, warmup.toSeconds(), rate);
+        drive(warmup, new LatencyReport());
+        System.out.printf("Measuring for %d s%n", duration.toSeconds());
+        LatencyReport report = new LatencyReport();
+        peakInFlight.set(inFlight.get());
+        long started = System.nanoTime();
+        long sent = drive(duration, report);
+        drain();
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        stopSlowReaders(readers);
+
+        List<String> header = List.of(
+                "# Load test of " + target + " (" + stack + ")",
+                "# rate=" + rate + "/s duration=" + duration.toSeconds() + "s warmup=" + warmup.toSeconds()
+                        + "s lines=" + lines + " mix=" + options.getOrDefault("mix", DEFAULT_MIX) + " slowReaders=" + slowReaders,
+                String.format("# sent=%d requests, completed within %.1f s, at most %d in flight",
+                        sent, elapsedSeconds, peakInFlight.get()),
+                "# Latencies are measured from the scheduled start of each request");
+        report.printSummary(System.out);
+        report.write(reportFile, header);
+        System.out.println("Report written to " + reportFile.toAbsolutePath());
+
+        Histogram all = report.combined();
+        return new Summary(stack, sent, all.getTotalCount(), report.errorCount(), peakInFlight.get(), slowReaders,
+                all.getValueAtPercentile(50) / 1e6, all.getValueAtPercentile(99) / 1e6, all.getValueAtPercentile(99.9) / 1e6);
+    }
+
+    /**
+     * Prints the runs on the stacks side by side.
+     */
+    private static void printComparison(List<Summary> summaries) {
+        System.out.println();
+        System.out.printf("%-9s %9s %9s %7s %13s %12s %9s %9s %9s%n",
+                "stack", "sent", "completed", "errors", "peak requests", "slow readers", "p50 ms", "p99 ms", "p99.9 ms");
+        for (Summary summary : summaries) {
+            System.out.printf("%-9s %9d %9d %7d %13d %12d %9.2f %9.2f %9.2f%n",
+                    summary.stack(), summary.sent(), summary.completed(), summary.errors(), summary.peakInFlight(),
+                    summary.slowReaders(), summary.p50Millis(), summary.p99Millis(), summary.p999Millis());
+        }
+        System.out.println("Peak requests are the most in flight at once, each holding its own connection over HTTP/1.1");
+    }
+
+    /**
+     * Starts requests on a fixed schedule for a duration.
+     *
+     * @return Number of requests started
+     */
+    private long drive(Duration duration, LatencyReport report) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long count = duration.toNanos() / intervalNanos;
+        long start = System.nanoTime();
+        long sent = 0;
+        for (long i = 0; i < count; i++) {
+            long scheduled = start + i * intervalNanos;
+            long delay = scheduled - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            Endpoint endpoint = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+            if (send(endpoint, scheduled, report)) {
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    private boolean send(Endpoint endpoint, long scheduled, LatencyReport report) {
+        HttpRequest request = requestFor(endpoint);
+        if (request == null) {
+            report.skip(endpoint);
+            return false;
+        }
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            long latency = System.nanoTime() - scheduled;
+            boolean failed = error != null || response.statusCode() >= 400;
+            report.record(endpoint, latency, failed);
+            if (endpoint == Endpoint.CREATE && !failed) {
+                Long id = ticketId(response.body());
+                if (id != null) {
+                    uncheckedTickets.offer(id);
+                }
+            }
+            inFlight.decrementAndGet();
+        });
+        return true;
+    }
+
+    /**
+     * Builds the next request for an endpoint, or returns {@code null} if no ticket is available for it.
+     */
+    private HttpRequest requestFor(Endpoint endpoint) {
+        return switch (endpoint) {
+            case CREATE -> request("/ticket?numberOfLines=" + lines).POST(HttpRequest.BodyPublishers.noBody()).build();
+            case GET -> openTickets.isEmpty() ? null : request("/ticket/" + randomOpenTicket()).GET().build();
+            case ADD_LINES -> openTickets.isEmpty() ? null : request("/ticket/" + randomOpenTicket() + "?numberOfLines=" + lines)
+                    .PUT(HttpRequest.BodyPublishers.noBody()).build();
+            case CHECK -> {
+                Long id = uncheckedTickets.poll();
+                yield id == null ? null : request("/ticket/status/" + id).PUT(HttpRequest.BodyPublishers.noBody()).build();
+            }
+            case GET_ALL -> request("/ticket").GET().build();
+        };
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(target.resolve(path)).timeout(Duration.ofMinutes(1));
+    }
+
+    private long randomOpenTicket() {
+        return openTickets.get(ThreadLocalRandom.current().nextInt(openTickets.size()));
+    }
+
+    /**
+     * Creates the tickets that are read and extended during the run, and enough tickets to check.
+     */
+    private void preload(int open, long toCheck) throws IOException {
+        System.out.printf("Creating %d tickets%n", open + toCheck);
+        List<CompletableFuture<Long>> pending = new ArrayList<>(PRELOAD_CONCURRENCY);
+        for (long i = 0; i < open + toCheck; i++) {
+            pending.add(client.sendAsync(requestFor(Endpoint.CREATE), HttpResponse.BodyHandlers.ofString())
+                    .thenApply(response -> ticketId(response.body())));
+            if (pending.size() == PRELOAD_CONCURRENCY || i == open + toCheck - 1) {
+                for (CompletableFuture<Long> created : pending) {
+                    Long id = created.join();
+                    if (id == null) {
+                        throw new IOException("Could not create a ticket on " + target);
+                    }
+                    if (openTickets.size() < open) {
+                        openTickets.add(id);
+                    } else {
+                        uncheckedTickets.offer(id);
+                    }
+                }
+                pending.clear();
+            }
+        }
+    }
+
+    /**
+     * Starts connections that repeatedly read all tickets at {@code slowReadBytesPerSecond} each,
+     * through plain sockets with small receive buffers so the server cannot run ahead of them.
+     */
+    private List<Thread> startSlowReaders(int count) {
+        long pauseNanos = TimeUnit.SECONDS.toNanos(1) * SLOW_READ_CHUNK
+                / Long.parseLong(options.getOrDefault("slowReadBytesPerSecond", "65536"));
+        slowReading = true;
+        List<Thread> readers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Thread reader = new Thread(() -> {
+                byte[] chunk = new byte[SLOW_READ_CHUNK];
+                while (slowReading) {
+                    try (Socket socket = new Socket()) {
+                        socket.setReceiveBufferSize(SLOW_READ_CHUNK * 4);
+                        socket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(5));
+                        socket.connect(new InetSocketAddress(target.getHost(), target.getPort()));
+                        socket.getOutputStream().write(("GET /ticket HTTP/1.1\r\nHost: " + target.getHost()
+                                + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                        InputStream input = socket.getInputStream();
+                        while (slowReading && input.read(chunk) >= 0) {
+                            LockSupport.parkNanos(pauseNanos);
+                        }
+                    } catch (IOException e) {
+                        LockSupport.parkNanos(pauseNanos); // Refused or reset under load, connect again
+                    }
+                }
+            }, "slow-reader-" + i);
+            reader.setDaemon(true);
+            reader.start();
+            readers.add(reader);
+        }
+        if (count > 0) {
+            System.out.printf("Started %d slow readers of GET /ticket%n", count);
+        }
+        return readers;
+    }
+
+    private void stopSlowReaders(List<Thread> readers) throws InterruptedException {
+        slowReading = false;
+        for (Thread reader : readers) {
+            reader.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Waits for the requests still in flight at the end of the schedule.
+     */
+    private void drain() throws InterruptedException {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        if (inFlight.get() > 0) {
+            System.out.printf("%d requests still in flight after %d s are not reported%n",
+                    inFlight.get(), DRAIN_TIMEOUT.toSeconds());
+        }
+    }
+
+    /**
+     * Fills the schedule with endpoints in proportion to their weights in the mix.
+     */
+    private void buildSchedule(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.split("=");
+            weights.put(Endpoint.ofLabel(weight[0].trim()), Integer.parseInt(weight[1].trim()));
+        }
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        if (total <= 0) {
+            throw new IllegalArgumentException("The mix must have a positive weight");
+        }
+        int next = 0;
+        double cumulative = 0;
+        for (Map.Entry<Endpoint, Integer> weight : weights.entrySet()) {
+            cumulative += weight.getValue();
+            int end = (int) Math.round(cumulative * schedule.length / total);
+            for (; next < end; next++) {
+                schedule[next] = weight.getKey();
+            }
+        }
+    }
+
+    private static Long ticketId(String body) {
+        Matcher matcher = TICKET_ID.matcher(body);
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
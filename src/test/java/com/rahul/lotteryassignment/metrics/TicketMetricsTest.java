@@ -0,0 +1,52 @@
+package com.rahul.lotteryassignment.metrics;
+
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.dto.Line;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.repository.TicketRepository;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the ticket counters and store gauges.
+ */
+class TicketMetricsTest {
+
+    private final TicketStore store = new TicketRepository();
+    private final TicketMetrics metrics = new TicketMetrics(store);
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testReportsCountersAndStoreSizes() {
+        metrics.bindTo(registry);
+        Ticket ticket = new Ticket(1L);
+        ticket.addLines(List.of(Line.of(0, 1, 1), Line.of(2, 2, 2)));
+        store.save(ticket);
+        metrics.ticketCreated(2);
+        store.update(1L, stored -> {
+            stored.addLines(List.of(Line.of(1, 0, 1)));
+            return stored;
+        });
+        metrics.linesAdded(1);
+        metrics.ticketChecked();
+        metrics.error(ErrorCode.TICKET_NOT_FOUND);
+        metrics.error(ErrorCode.TICKET_NOT_FOUND);
+
+        assertEquals(1, registry.get("lottery.tickets.created").functionCounter().count());
+        assertEquals(3, registry.get("lottery.lines.generated").functionCounter().count());
+        assertEquals(1, registry.get("lottery.tickets.checked").functionCounter().count());
+        assertEquals(1, registry.get("lottery.tickets.stored").gauge().value());
+        assertEquals(3, registry.get("lottery.lines.stored").gauge().value());
+        assertEquals(2, registry.get("lottery.errors").tag("code", "ERR-001").functionCounter().count());
+        assertEquals(0, registry.get("lottery.errors").tag("code", "ERR-003").functionCounter().count());
+
+        store.remove(1L);
+        assertEquals(0, registry.get("lottery.lines.stored").gauge().value());
+    }
+}
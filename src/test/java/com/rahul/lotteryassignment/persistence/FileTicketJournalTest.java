@@ -0,0 +1,258 @@
+package com.rahul.lotteryassignment.persistence;
+
+import com.rahul.lotteryassignment.constant.DrawStatus;
+import com.rahul.lotteryassignment.constant.JournalSyncMode;
+import com.rahul.lotteryassignment.dto.Line;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.repository.TicketRepository;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import com.rahul.lotteryassignment.service.SeededLineGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for writing and recovering the ticket journal.
+ */
+class FileTicketJournalTest {
+
+    private final SeededLineGenerator sequence = new SeededLineGenerator(11L);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecoversTicketsAfterRestart() throws IOException {
+        FileTicketJournal journal = openForWriting();
+        Ticket stored = new Ticket(1L);
+        stored.addLines(List.of(Line.of(0, 1, 2), Line.of(1, 1, 1)));
+        journal.awaitDurable(journal.recordCreate(stored));
+        journal.awaitDurable(journal.recordLines(1L, 2, 1, new byte[]{(byte) Line.encode(0, 1, 1)}));
+        journal.awaitDurable(journal.recordCheck(1L));
+
+        Ticket seeded = new Ticket(2L);
+        seeded.addSequenceLines(sequence, 100);
+        journal.recordCreate(seeded);
+        journal.awaitDurable(journal.recordLines(2L, 100, 50, null));
+        journal.close();
+
+        TicketStore recovered = new TicketRepository();
+        assertEquals(5, open().recover(new JournalReplayer(recovered, sequence, 2)));
+        Ticket first = recovered.findById(1L).orElseThrow();
+        assertTrue(first.isChecked());
+        assertEquals(List.of(Line.of(0, 1, 1), Line.of(1, 1, 1), Line.of(0, 1, 2)), first.getLines());
+
+        Ticket second = recovered.findById(2L).orElseThrow();
+        assertFalse(second.isChecked());
+        assertTrue(second.isSequenceBacked());
+        assertEquals(150, second.getLineCount());
+        assertEquals(Line.of(sequence.codeAt(2L, 149)), second.getLines().get(149));
+    }
+
+    /**
+     * A record cut off by a crash must be dropped, and new records must follow the last valid one.
+     */
+    @Test
+    void testTruncatesTornRecord() throws IOException {
+        FileTicketJournal journal = openForWriting();
+        Ticket ticket = new Ticket(3L);
+        ticket.addLines(List.of(Line.of(2, 2, 2)));
+        journal.awaitDurable(journal.recordCreate(ticket));
+        journal.close();
+        Path file = journal.segmentFile(1);
+        long validLength = Files.size(file);
+        Files.write(file, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        TicketStore recovered = new TicketRepository();
+        FileTicketJournal reopened = open();
+        assertEquals(1, reopened.recover(new JournalReplayer(recovered, sequence, 1)));
+        assertEquals(validLength, Files.size(file));
+        reopened.start();
+        reopened.awaitDurable(reopened.recordCheck(3L));
+        reopened.close();
+
+        TicketStore again = new TicketRepository();
+        assertEquals(2, open().recover(new JournalReplayer(again, sequence, 1)));
+        assertTrue(again.findById(3L).orElseThrow().isChecked());
+    }
+
+    /**
+     * Changes made after a snapshot must be replayed on top of it, and covered segments must be deleted.
+     */
+    @Test
+    void testRecoversFromSnapshotAndTail() throws IOException {
+        TicketStore store = new TicketRepository();
+        FileTicketJournal journal = open();
+        journal.recover(new JournalReplayer(store, sequence, 1));
+        journal.start();
+        Ticket stored = new Ticket(1L);
+        stored.addLines(List.of(Line.of(0, 0, 0), Line.of(0, 0, 2)));
+        store.save(stored);
+        journal.awaitDurable(journal.recordCreate(stored));
+        Ticket seeded = new Ticket(2L);
+        seeded.addSequenceLines(sequence, 10);
+        store.save(seeded);
+        journal.awaitDurable(journal.recordCreate(seeded));
+
+        TicketSnapshotter snapshotter = new TicketSnapshotter(store, journal);
+        assertEquals(2, snapshotter.snapshot());
+        assertFalse(Files.exists(journal.segmentFile(1)));
+        assertTrue(Files.exists(journal.snapshotFile(2)));
+
+        journal.awaitDurable(journal.recordCheck(1L));
+        store.update(1L, ticket -> {
+            ticket.sortLinesByResult();
+            ticket.setChecked(true);
+            return ticket;
+        });
+        journal.awaitDurable(journal.recordLines(2L, 10, 5, null));
+        store.update(2L, ticket -> {
+            ticket.addSequenceLines(sequence, 5);
+            return ticket;
+        });
+        Ticket later = new Ticket(3L);
+        later.addLines(List.of(Line.of(1, 2, 0)));
+        journal.awaitDurable(journal.recordCreate(later));
+        journal.close();
+
+        TicketStore recovered = new TicketRepository();
+        assertEquals(1 + 2 + 3, open().recover(new JournalReplayer(recovered, sequence, 2))); // Draw, tickets and tail
+        assertEquals(3, recovered.count());
+        Ticket first = recovered.findById(1L).orElseThrow();
+        assertTrue(first.isChecked());
+        assertEquals(List.of(Line.of(0, 0, 2), Line.of(0, 0, 0)), first.getLines());
+        assertEquals(15, recovered.findById(2L).orElseThrow().getLineCount());
+        assertEquals(1, recovered.findById(3L).orElseThrow().getLineCount());
+    }
+
+    /**
+     * Draws must be restored with their tickets, closed and purged, from both snapshots and segments.
+     */
+    @Test
+    void testRecoversDraws() throws IOException {
+        TicketStore store = new TicketRepository();
+        FileTicketJournal journal = open();
+        journal.recover(new JournalReplayer(store, sequence, 1));
+        journal.start();
+        TicketSnapshotter snapshotter = new TicketSnapshotter(store, journal);
+        create(store, journal, 1L);
+        openDraw(store, journal, 2, 10L);
+        create(store, journal, 11L);
+        create(store, journal, 12L);
+        snapshotter.snapshot();
+        openDraw(store, journal, 3, 20L);
+        journal.awaitDurable(journal.recordDraw(1, 0, DrawStatus.PURGED));
+        store.purgeDraw(1);
+        create(store, journal, 21L);
+        journal.close();
+
+        TicketStore recovered = new TicketRepository();
+        FileTicketJournal reopened = open();
+        reopened.recover(new JournalReplayer(recovered, sequence, 2));
+        assertDraws(recovered);
+
+        reopened.start();
+        new TicketSnapshotter(recovered, reopened).snapshot(); // Draw 1 is only left as a purge record
+        reopened.close();
+        TicketStore again = new TicketRepository();
+        open().recover(new JournalReplayer(again, sequence, 2));
+        assertDraws(again);
+    }
+
+    /**
+     * Sequence lines must not be regenerated with another seed, neither from a segment nor from a snapshot,
+     * while stored lines do not depend on the seed.
+     */
+    @Test
+    void testRefusesSequenceLinesOfAnotherSeed() throws IOException {
+        TicketStore store = new TicketRepository();
+        FileTicketJournal journal = open();
+        journal.recover(new JournalReplayer(store, sequence, 1));
+        journal.start();
+        create(store, journal, 1L);
+        journal.close();
+        SeededLineGenerator otherSeed = new SeededLineGenerator(12L);
+        FileTicketJournal reopened = open();
+        assertEquals(1, reopened.recover(new JournalReplayer(new TicketRepository(), otherSeed, 1)));
+        reopened.close();
+
+        journal = open();
+        journal.recover(new JournalReplayer(store, sequence, 1));
+        journal.start();
+        Ticket seeded = new Ticket(2L);
+        seeded.addSequenceLines(sequence, 10);
+        store.save(seeded);
+        journal.awaitDurable(journal.recordCreate(seeded));
+        IOException fromSegment = assertThrows(IOException.class,
+                () -> open().recover(new JournalReplayer(new TicketRepository(), otherSeed, 1)));
+        assertTrue(fromSegment.getMessage().contains("lottery.lines.seed"));
+
+        new TicketSnapshotter(store, journal).snapshot();
+        journal.close();
+        assertThrows(IOException.class, () -> open().recover(new JournalReplayer(new TicketRepository(), otherSeed, 1)));
+        TicketStore recovered = new TicketRepository();
+        open().recover(new JournalReplayer(recovered, sequence, 1));
+        assertEquals(seeded.getLines(), recovered.findById(2L).orElseThrow().getLines());
+    }
+
+    /**
+     * A segment whose header is missing cannot tell which seed its sequence lines were generated
+     * with, and must be refused like one of another seed.
+     */
+    @Test
+    void testRefusesSequenceLinesWithoutHeader() throws IOException {
+        FileTicketJournal journal = openForWriting();
+        Ticket seeded = new Ticket(1L);
+        seeded.addSequenceLines(sequence, 10);
+        journal.awaitDurable(journal.recordCreate(seeded));
+        journal.close();
+        Path file = journal.segmentFile(1);
+        byte[] bytes = Files.readAllBytes(file);
+        int headerLength = FileTicketJournal.headerRecord(sequence.fingerprint()).remaining();
+        Files.write(file, Arrays.copyOfRange(bytes, headerLength, bytes.length));
+
+        IOException refused = assertThrows(IOException.class,
+                () -> open().recover(new JournalReplayer(new TicketRepository(), sequence, 1)));
+        assertTrue(refused.getMessage().contains("without header"));
+    }
+
+    private static void assertDraws(TicketStore store) {
+        assertEquals(List.of("2 CLOSED 2", "3 OPEN 1"), store.draws().stream()
+                .map(draw -> draw.getId() + " " + draw.getStatus() + " " + draw.getTicketCount())
+                .toList());
+        assertTrue(store.findById(1L).isEmpty());
+        assertEquals(List.of(11L, 12L, 21L), store.streamAfter(null).map(Ticket::getId).toList());
+    }
+
+    private static void create(TicketStore store, FileTicketJournal journal, long id) {
+        Ticket ticket = new Ticket(id);
+        ticket.addLines(List.of(Line.of(0, 1, 2)));
+        store.save(ticket);
+        journal.awaitDurable(journal.recordCreate(ticket));
+    }
+
+    private static void openDraw(TicketStore store, FileTicketJournal journal, long drawId, long startId) {
+        journal.awaitDurable(journal.recordDraw(drawId, startId, DrawStatus.OPEN));
+        store.openDraw(drawId, startId);
+        store.closeDraw(drawId - 1);
+    }
+
+    private FileTicketJournal open() throws IOException {
+        return new FileTicketJournal(directory, JournalSyncMode.SYNC, 1, 4096);
+    }
+
+    private FileTicketJournal openForWriting() throws IOException {
+        FileTicketJournal journal = open();
+        journal.recover(new JournalReplayer(new TicketRepository(), sequence, 1));
+        journal.start();
+        return journal;
+    }
+}
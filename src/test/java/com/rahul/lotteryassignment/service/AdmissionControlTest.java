@@ -0,0 +1,56 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.exception.CustomException;
+import com.rahul.lotteryassignment.exception.ThrottledException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AdmissionControl admission = new AdmissionControl(100, 200, 300, 2, clock::get);
+
+    @Test
+    void testThrottlesClientOverItsRate() {
+        admission.admit("a", 150).close();
+        admission.admit("a", 50).close();
+        ThrottledException throttled = assertThrows(ThrottledException.class, () -> admission.admit("a", 10));
+        assertEquals(ErrorCode.RATE_LIMITED, throttled.getErrorCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, throttled.getHttpStatus());
+        assertEquals(1, throttled.getRetryAfterSeconds());
+        admission.admit("b", 200).close(); // Other clients keep their own budget
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100)); // 10 lines refilled
+        admission.admit("a", 10).close();
+        assertThrows(ThrottledException.class, () -> admission.admit("a", 1));
+    }
+
+    @Test
+    void testShedsOverInFlightBudget() {
+        AdmissionControl.Permit first = admission.admit("a", 200);
+        AdmissionControl.Permit second = admission.admit("b", 100);
+        ThrottledException shed = assertThrows(ThrottledException.class, () -> admission.admit("c", 1));
+        assertEquals(ErrorCode.OVERLOADED, shed.getErrorCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getHttpStatus());
+
+        first.close();
+        first.close();
+        assertEquals(100, admission.inFlightLines());
+        admission.admit("c", 200).close(); // The refused request was not charged to c
+        second.close();
+        assertEquals(0, admission.inFlightLines());
+    }
+
+    @Test
+    void testRefusesRequestsLargerThanBurst() {
+        CustomException tooLarge = assertThrows(CustomException.class, () -> admission.admit("a", 201));
+        assertEquals(ErrorCode.INVALID_INPUT, tooLarge.getErrorCode());
+        assertEquals(HttpStatus.BAD_REQUEST, tooLarge.getHttpStatus());
+    }
+}
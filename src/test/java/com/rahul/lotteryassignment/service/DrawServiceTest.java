@@ -0,0 +1,106 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.constant.DrawStatus;
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.constant.LineMode;
+import com.rahul.lotteryassignment.dto.Draw;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.exception.CustomException;
+import com.rahul.lotteryassignment.metrics.TicketMetrics;
+import com.rahul.lotteryassignment.persistence.TicketJournal;
+import com.rahul.lotteryassignment.repository.TicketRepository;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for closing and purging draws.
+ */
+class DrawServiceTest {
+
+    private final TicketStore store = new TicketRepository();
+    private final TicketIdGenerator idGenerator = new TicketIdGenerator(0);
+    private final TicketService service = new TicketService(store, idGenerator, new LineGenerator(),
+            new SeededLineGenerator(1L), LineMode.RANDOM, TicketJournal.NONE, new TicketMetrics(store));
+    private final DrawService drawService = new DrawService(store, idGenerator, TicketJournal.NONE);
+
+    @Test
+    void testClosedDrawIsFrozenAndPurgedAtOnce() {
+        long old = service.createTicket(2).getId();
+        service.createTicket(3);
+
+        Draw closed = drawService.closeCurrentDraw();
+        long current = service.createTicket(4).getId();
+
+        assertEquals(List.of(1L, DrawStatus.CLOSED, 2L, 5L), List.of(closed.getId(), closed.getStatus(),
+                closed.getTicketCount(), closed.getLineCount()));
+        assertEquals(2, drawService.getCurrentDraw().getId());
+        assertTrue(current >= drawService.getCurrentDraw().getStartId());
+        CustomException frozen = assertThrows(CustomException.class, () -> service.addLines(old, 1));
+        assertEquals(ErrorCode.DRAW_CLOSED, frozen.getErrorCode());
+        assertTrue(service.checkTicketStatus(old).isChecked()); // Settling a closed draw is still allowed
+        assertEquals(3, service.streamTickets(null).count());
+
+        CustomException open = assertThrows(CustomException.class, () -> drawService.purgeDraw(2));
+        assertEquals(ErrorCode.DRAW_OPEN, open.getErrorCode());
+        Draw purged = drawService.purgeDraw(1);
+        assertEquals(DrawStatus.PURGED, purged.getStatus());
+        assertEquals(2, purged.getTicketCount());
+        assertTrue(store.findById(old).isEmpty());
+        assertEquals(List.of(current), service.streamTickets(null).map(Ticket::getId).toList());
+        assertEquals(1, store.count());
+        assertEquals(4, store.lineCount());
+        assertEquals(ErrorCode.DRAW_NOT_FOUND,
+                assertThrows(CustomException.class, () -> drawService.getDraw(1)).getErrorCode());
+    }
+
+    /**
+     * Tickets created while draws close must each land in exactly one draw and stay readable.
+     */
+    @Test
+    void testTicketsCreatedWhileClosingStayInOneDraw() throws InterruptedException {
+        Set<Long> created = ConcurrentHashMap.newKeySet();
+        List<ErrorCode> unexpected = new CopyOnWriteArrayList<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                while (running.get()) {
+                    try {
+                        created.add(service.createTicket(1).getId());
+                    } catch (CustomException e) {
+                        if (e.getErrorCode() != ErrorCode.DRAW_CLOSED) { // Only a race with a close may reject it
+                            unexpected.add(e.getErrorCode());
+                        }
+                    }
+                }
+            });
+        }
+        for (int i = 0; i < 20; i++) {
+            Thread.sleep(5);
+            drawService.closeCurrentDraw();
+        }
+        running.set(false);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(List.of(), unexpected);
+        assertEquals(21, drawService.getCurrentDraw().getId());
+        assertEquals(created.size(), store.count());
+        assertEquals(created.size(), drawService.getDraws().stream().mapToLong(Draw::getTicketCount).sum());
+        assertTrue(created.stream().allMatch(id -> store.findById(id).isPresent()));
+        List<Long> streamed = service.streamTickets(null).map(Ticket::getId).toList();
+        assertEquals(created.size(), streamed.size());
+        assertEquals(streamed.stream().sorted().toList(), streamed);
+    }
+}
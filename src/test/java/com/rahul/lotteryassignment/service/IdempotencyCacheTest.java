@@ -0,0 +1,114 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.exception.CustomException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final IdempotencyCache<Integer> cache = new IdempotencyCache<>(1000, 3, 1000, value -> 10, clock::get);
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void testReplaysResultOfKey() {
+        assertEquals(1, cache.execute("c1", "a", "POST 1", runs::incrementAndGet));
+        assertEquals(1, cache.execute("c1", "a", "POST 1", runs::incrementAndGet));
+        assertEquals(2, cache.execute("c1", null, "POST 1", runs::incrementAndGet));
+        assertEquals(2, runs.get());
+
+        CustomException reused = assertThrows(CustomException.class, () -> cache.execute("c1", "a", "POST 2", runs::incrementAndGet));
+        assertEquals(ErrorCode.IDEMPOTENCY_KEY_REUSED, reused.getErrorCode());
+        assertThrows(CustomException.class, () -> cache.execute("c1", " ", "POST 1", runs::incrementAndGet));
+    }
+
+    @Test
+    void testDoesNotKeepFailures() {
+        assertThrows(IllegalStateException.class, () -> cache.execute("c1", "a", "POST 1", () -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.execute("c1", "a", "POST 1", runs::incrementAndGet));
+    }
+
+    @Test
+    void testEvictsExpiredAndOldestKeys() {
+        cache.execute("c1", "a", "POST", runs::incrementAndGet);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        cache.execute("c1", "b", "POST", runs::incrementAndGet);
+        cache.execute("c1", "c", "POST", runs::incrementAndGet);
+        cache.execute("c1", "d", "POST", runs::incrementAndGet); // Over the bound, drops a
+        assertEquals(3, cache.size());
+        assertEquals(5, cache.execute("c1", "a", "POST", runs::incrementAndGet)); // Runs again and drops b
+        assertEquals(4, cache.execute("c1", "d", "POST", runs::incrementAndGet));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000)); // All expired
+        assertEquals(6, cache.execute("c1", "d", "POST", runs::incrementAndGet));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testScopesKeysByClient() {
+        assertEquals(1, cache.execute("c1", "a", "POST 1", runs::incrementAndGet));
+        assertEquals(2, cache.execute("c2", "a", "POST 1", runs::incrementAndGet));
+        assertEquals(3, cache.execute("c3", "a", "POST 2", runs::incrementAndGet)); // Not a reuse of the key of c1
+        assertEquals(1, cache.execute("c1", "a", "POST 1", runs::incrementAndGet));
+        assertEquals(2, cache.execute("c2", "a", "POST 1", runs::incrementAndGet));
+    }
+
+    @Test
+    void testEvictsOldestKeysOverWeight() {
+        IdempotencyCache<Integer> weighed = new IdempotencyCache<>(1000, 100, 250, value -> 100, clock::get);
+        weighed.execute("c1", "a", "POST", runs::incrementAndGet);
+        weighed.execute("c1", "b", "POST", runs::incrementAndGet);
+        assertEquals(200, weighed.bytes());
+        weighed.execute("c1", "c", "POST", runs::incrementAndGet); // Over the weight, drops a
+        assertEquals(2, weighed.size());
+        assertEquals(200, weighed.bytes());
+        assertEquals(4, weighed.execute("c1", "a", "POST", runs::incrementAndGet));
+        assertEquals(3, weighed.execute("c1", "c", "POST", runs::incrementAndGet));
+    }
+
+    @Test
+    void testCollapsesConcurrentDuplicates() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Integer> first = executor.submit(() -> cache.execute("c1", "a", "POST", () -> {
+                running.countDown();
+                await(release);
+                return runs.incrementAndGet();
+            }));
+            running.await();
+            Future<Integer> second = executor.submit(() -> cache.execute("c1", "a", "POST", runs::incrementAndGet));
+            Future<Integer> third = executor.submit(() -> cache.execute("c1", "a", "POST", runs::incrementAndGet));
+            release.countDown();
+
+            assertEquals(1, first.get(1, TimeUnit.MINUTES));
+            assertEquals(1, second.get(1, TimeUnit.MINUTES));
+            assertEquals(1, third.get(1, TimeUnit.MINUTES));
+            assertEquals(1, runs.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.dto.Line;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link LineGenerator}.
+ */
+class LineGeneratorTest {
+
+    /**
+     * Every code must be produced with the same probability of 1/27.
+     */
+    @Test
+    void testCodesAreUniform() {
+        int perCode = 100_000;
+        byte[] codes = new byte[Line.CODE_COUNT * perCode];
+        LineGenerator.fill(new SplittableRandom(42), codes, 0, codes.length);
+
+        long[] counts = new long[Line.CODE_COUNT];
+        for (byte code : codes) {
+            counts[code]++;
+        }
+        double chiSquare = 0;
+        for (long count : counts) {
+            chiSquare += Math.pow(count - perCode, 2) / perCode;
+        }
+        assertTrue(chiSquare < 54.05, "chi-square " + chiSquare); // p = 0.001 for 26 degrees of freedom
+    }
+
+    @Test
+    void testFillsOnlyRequestedRange() {
+        byte[] codes = new byte[20];
+        Arrays.fill(codes, (byte) -1);
+        LineGenerator.fill(new SplittableRandom(7), codes, 3, 15);
+
+        for (int i = 0; i < codes.length; i++) {
+            if (i < 3 || i >= 18) {
+                assertEquals(-1, codes[i]);
+            } else {
+                assertTrue(codes[i] >= 0 && codes[i] < Line.CODE_COUNT);
+            }
+        }
+    }
+}
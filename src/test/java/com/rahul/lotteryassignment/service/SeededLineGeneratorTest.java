@@ -0,0 +1,83 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.dto.Line;
+import com.rahul.lotteryassignment.dto.Ticket;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SeededLineGenerator} and sequence backed tickets.
+ */
+class SeededLineGeneratorTest {
+
+    private final SeededLineGenerator generator = new SeededLineGenerator(20241017L);
+
+    @Test
+    void testReplayIsReproducible() {
+        assertArrayEquals(generator.replay(1234L, 1000), new SeededLineGenerator(20241017L).replay(1234L, 1000));
+        assertFalse(Arrays.equals(generator.replay(1234L, 1000), generator.replay(1235L, 1000)));
+        assertFalse(Arrays.equals(generator.replay(1234L, 1000), new SeededLineGenerator(1L).replay(1234L, 1000)));
+    }
+
+    /**
+     * Any single line or range must match the full replay, so lines can be recomputed independently.
+     */
+    @Test
+    void testRandomAccessMatchesReplay() {
+        byte[] all = generator.replay(99L, 200);
+        IntStream.range(0, all.length).forEach(i -> assertEquals(all[i], generator.codeAt(99L, i)));
+
+        byte[] range = new byte[50];
+        generator.fill(99L, 37, range, 0, range.length);
+        for (int i = 0; i < range.length; i++) {
+            assertEquals(all[37 + i], range[i]);
+        }
+    }
+
+    /**
+     * The bulk replay of a batch of tickets must give back the lines each ticket stored.
+     */
+    @Test
+    void testBulkReplayMatchesStoredLines() {
+        Ticket[] tickets = new Ticket[40];
+        long[] ticketIds = new long[tickets.length];
+        int[] lineCounts = new int[tickets.length];
+        for (int i = 0; i < tickets.length; i++) {
+            tickets[i] = new Ticket((1L << 40) + i * 1024L);
+            tickets[i].addSequenceLines(generator, i * 7 + 1);
+            tickets[i].addSequenceLines(generator, i);
+            ticketIds[i] = tickets[i].getId();
+            lineCounts[i] = tickets[i].getLineCount();
+        }
+
+        byte[][] replayed = generator.replay(ticketIds, lineCounts, 4);
+        for (int i = 0; i < tickets.length; i++) {
+            byte[] stored = new byte[lineCounts[i]];
+            tickets[i].copyLineCodes(0, stored, 0, stored.length);
+            assertArrayEquals(stored, replayed[i]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> generator.replay(ticketIds, new int[1], 4));
+    }
+
+    @Test
+    void testTicketKeepsSequenceLinesUntilModified() {
+        Ticket ticket = new Ticket(7L);
+        ticket.addSequenceLines(generator, 30);
+        ticket.addSequenceLines(generator, 10);
+        assertTrue(ticket.isSequenceBacked());
+        byte[] expected = generator.replay(7L, 40);
+        for (int i = 0; i < 40; i++) {
+            assertEquals(Line.of(expected[i]), ticket.getLines().get(i));
+        }
+
+        ticket.addLineCodes(new byte[]{26}, 1);
+        assertFalse(ticket.isSequenceBacked());
+        assertEquals(41, ticket.getLineCount());
+        assertEquals(expected[39], ticket.getLineCode(39));
+        assertEquals(26, ticket.getLineCode(40));
+    }
+}
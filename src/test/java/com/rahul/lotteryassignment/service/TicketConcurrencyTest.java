@@ -0,0 +1,208 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.constant.LineMode;
+import com.rahul.lotteryassignment.dto.Line;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.exception.CustomException;
+import com.rahul.lotteryassignment.metrics.TicketMetrics;
+import com.rahul.lotteryassignment.persistence.TicketJournal;
+import com.rahul.lotteryassignment.repository.TicketRepository;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests for concurrent changes and reads of one ticket.
+ * <p>
+ * In the style of jcstress, each test starts its actors together many times over, records the
+ * outcome of every trial and asserts that only the outcomes allowed by the ticket's guarantees
+ * ever occur: readers see whole states, appends are never lost and a check is a single
+ * transition that appends either precede or are refused by.
+ * </p>
+ */
+class TicketConcurrencyTest {
+
+    private static final int TRIALS = 2000;
+
+    private final TicketStore store = new TicketRepository();
+    private final TicketService service = new TicketService(store, new TicketIdGenerator(0), new LineGenerator(),
+            new SeededLineGenerator(1L), LineMode.RANDOM, TicketJournal.NONE, new TicketMetrics(store));
+
+    /**
+     * Readers racing with appends and the check must only ever see states some change left behind.
+     */
+    @Test
+    void testReadersSeeWholeStates() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<String> torn = new CopyOnWriteArrayList<>();
+        try {
+            for (int trial = 0; trial < TRIALS / 10; trial++) {
+                long id = service.createTicket(50).getId();
+                AtomicBoolean writing = new AtomicBoolean(true);
+                CyclicBarrier start = new CyclicBarrier(4);
+                List<Future<?>> readers = new CopyOnWriteArrayList<>();
+                for (int r = 0; r < 3; r++) {
+                    readers.add(executor.submit(() -> {
+                        start.await();
+                        Ticket live = store.findById(id).orElseThrow();
+                        do {
+                            String problem = inconsistency(live.snapshot());
+                            if (problem != null) {
+                                torn.add(problem);
+                            }
+                        } while (writing.get());
+                        return null;
+                    }));
+                }
+                start.await();
+                for (int i = 0; i < 20; i++) {
+                    service.addLines(id, 7);
+                }
+                service.checkTicketStatus(id);
+                writing.set(false);
+                for (Future<?> reader : readers) {
+                    reader.get(1, TimeUnit.MINUTES);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(List.of(), torn);
+    }
+
+    /**
+     * An append racing with the check either lands before it, and is sorted into the checked
+     * ticket, or is refused. Lines never appear on a ticket after it was checked.
+     */
+    @Test
+    void testAppendAndCheckAreLinearizable() throws Exception {
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int trial = 0; trial < TRIALS; trial++) {
+                long id = service.createTicket(1).getId();
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<String> append = executor.submit(() -> {
+                    start.await();
+                    try {
+                        return "added " + service.addLines(id, 1).getLineCount();
+                    } catch (CustomException e) {
+                        return e.getErrorCode() == ErrorCode.NOT_MODIFIABLE ? "refused" : e.getErrorCode().name();
+                    }
+                });
+                Future<Integer> check = executor.submit(() -> {
+                    start.await();
+                    return service.checkTicketStatus(id).getLineCount();
+                });
+                Ticket after = store.findById(id).orElseThrow();
+                String outcome = append.get(1, TimeUnit.MINUTES) + ", checked " + check.get(1, TimeUnit.MINUTES)
+                        + ", final " + awaitChecked(after).getLineCount();
+                outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+                store.remove(id);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(Set.of("added 2, checked 2, final 2", "refused, checked 1, final 1").containsAll(outcomes.keySet()),
+                () -> "Forbidden outcomes in " + outcomes);
+    }
+
+    /**
+     * Many threads appending to one hot ticket must not lose a single line or change.
+     */
+    @Test
+    void testConcurrentAppendsLoseNothing() throws Exception {
+        int threads = 8;
+        int appends = 500;
+        Ticket created = service.createTicket(3);
+        long id = created.getId();
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> appenders = new CopyOnWriteArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                appenders.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < appends; i++) {
+                        service.addLines(id, 2);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> appender : appenders) {
+                appender.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Ticket ticket = store.findById(id).orElseThrow().snapshot();
+        assertEquals(3 + threads * appends * 2, ticket.getLineCount());
+        assertEquals(created.getVersion() + threads * appends, ticket.getVersion());
+        assertNull(inconsistency(ticket));
+    }
+
+    /**
+     * A snapshot keeps its state while the ticket changes, and refuses changes itself.
+     */
+    @Test
+    void testSnapshotIsFrozen() {
+        Ticket ticket = new Ticket(1L);
+        ticket.addLines(List.of(Line.of(0, 1, 2), Line.of(1, 1, 1)));
+        Ticket snapshot = ticket.snapshot();
+        List<Line> lines = snapshot.getLines();
+
+        ticket.addLines(List.of(Line.of(0, 1, 1)));
+        ticket.check();
+
+        assertEquals(List.of(Line.of(0, 1, 2), Line.of(1, 1, 1)), lines);
+        assertEquals(lines, snapshot.getLines());
+        assertFalse(snapshot.isChecked());
+        assertEquals(List.of(Line.of(0, 1, 1), Line.of(1, 1, 1), Line.of(0, 1, 2)), ticket.getLines());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.addLines(List.of(Line.of(0, 0, 0))));
+        assertFalse(ticket.check());
+    }
+
+    /**
+     * @return A description of how the lines, counts and flag of a snapshot disagree, or {@code null}
+     */
+    private static String inconsistency(Ticket snapshot) {
+        List<Line> lines = snapshot.getLines();
+        int counted = 0;
+        for (int result : new int[]{10, 5, 1, 0}) {
+            counted += snapshot.getResultCount(result);
+        }
+        long score = lines.stream().mapToLong(Line::getResult).sum();
+        if (lines.size() != snapshot.getLineCount() || counted != lines.size() || score != snapshot.getTotalScore()) {
+            return "Version " + snapshot.getVersion() + ": " + lines.size() + " lines, count " + snapshot.getLineCount()
+                    + ", histogram " + counted + ", score " + score + " vs " + snapshot.getTotalScore();
+        }
+        if (snapshot.isChecked()) {
+            for (int i = 1; i < lines.size(); i++) {
+                if (lines.get(i - 1).getResult() < lines.get(i).getResult()) {
+                    return "Version " + snapshot.getVersion() + " is checked but not sorted at line " + i;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Ticket awaitChecked(Ticket ticket) {
+        assertTrue(ticket.isChecked());
+        return ticket;
+    }
+}
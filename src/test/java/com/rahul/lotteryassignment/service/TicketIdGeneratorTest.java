@@ -0,0 +1,94 @@
+package com.rahul.lotteryassignment.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TicketIdGenerator}.
+ */
+class TicketIdGeneratorTest {
+
+    /**
+     * IDs handed out concurrently by many threads must never repeat.
+     */
+    @Test
+    void testIdsAreUniqueAcrossThreads() throws InterruptedException {
+        TicketIdGenerator generator = new TicketIdGenerator(7);
+        int threads = 8;
+        int idsPerThread = 50_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < idsPerThread; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(threads * idsPerThread, ids.size());
+        ids.forEach(id -> assertEquals(7, id & TicketIdGenerator.MAX_NODE_ID)); // Node bits are preserved
+    }
+
+    /**
+     * A restarted generator must not reissue IDs, even when the sequence ran ahead of the clock.
+     */
+    @Test
+    void testIdsIncreaseAfterRestart() {
+        AtomicLong clock = new AtomicLong(TicketIdGenerator.EPOCH + 1_000);
+        TicketIdGenerator first = new TicketIdGenerator(1, clock::get);
+        long lastBeforeRestart = 0;
+        for (int i = 0; i < 10_000; i++) { // More than one millisecond worth of sequence
+            lastBeforeRestart = first.nextId();
+        }
+
+        clock.addAndGet(10);
+        TicketIdGenerator restarted = new TicketIdGenerator(1, clock::get);
+        assertTrue(restarted.nextId() > lastBeforeRestart);
+        assertEquals(clock.get(), TicketIdGenerator.timestampOf(restarted.nextId()).toEpochMilli());
+    }
+
+    /**
+     * A thread idle since it leased a block must not issue IDs below those other threads issued meanwhile.
+     */
+    @Test
+    void testIdleThreadDropsOldBlock() throws Exception {
+        AtomicLong clock = new AtomicLong(TicketIdGenerator.EPOCH + 1_000);
+        TicketIdGenerator generator = new TicketIdGenerator(1, clock::get);
+        ExecutorService idle = Executors.newSingleThreadExecutor();
+        try {
+            long first = idle.submit(generator::nextId).get();
+            clock.addAndGet(5);
+            long other = generator.nextId();
+            long later = idle.submit(generator::nextId).get();
+            assertTrue(first < other);
+            assertTrue(later > other, () -> later + " issued after " + other);
+            assertEquals(clock.get(), TicketIdGenerator.timestampOf(later).toEpochMilli());
+        } finally {
+            idle.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRejectsInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new TicketIdGenerator(TicketIdGenerator.MAX_NODE_ID + 1));
+    }
+}
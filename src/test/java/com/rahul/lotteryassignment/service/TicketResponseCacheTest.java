@@ -0,0 +1,56 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.dto.Line;
+import com.rahul.lotteryassignment.dto.RawJson;
+import com.rahul.lotteryassignment.dto.Ticket;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketResponseCacheTest {
+
+    private final AtomicInteger serialized = new AtomicInteger();
+    private final Function<Ticket, RawJson> serializer = ticket -> {
+        serialized.incrementAndGet();
+        return RawJson.of(new byte[100]);
+    };
+
+    @Test
+    void testServesSameVersionFromCache() {
+        TicketResponseCache cache = new TicketResponseCache(1 << 20);
+        Ticket ticket = checkedTicket(1L);
+
+        RawJson first = cache.get(ticket, serializer);
+        assertSame(first, cache.get(ticket.snapshot(), serializer));
+        assertEquals(1, serialized.get());
+
+        ticket.setChecked(false);
+        ticket.check();
+        assertNotSame(first, cache.get(ticket, serializer)); // A later version is serialized again
+        assertEquals(2, serialized.get());
+    }
+
+    @Test
+    void testStaysWithinBudget() {
+        TicketResponseCache cache = new TicketResponseCache(64 * 1024);
+        for (long id = 0; id < 10_000; id++) {
+            cache.get(checkedTicket(id), serializer);
+        }
+        assertTrue(cache.size() <= 64 * 1024, () -> "Holds " + cache.size() + " bytes");
+        assertTrue(cache.size() > 0);
+
+        cache.get(checkedTicket(20_000L), ticket -> RawJson.of(new byte[1 << 20])); // Larger than the cache
+        assertTrue(cache.size() <= 64 * 1024);
+    }
+
+    private static Ticket checkedTicket(long id) {
+        Ticket ticket = new Ticket(id);
+        ticket.addLines(List.of(Line.of(0, 1, 1), Line.of(1, 1, 1)));
+        ticket.check();
+        return ticket;
+    }
+}
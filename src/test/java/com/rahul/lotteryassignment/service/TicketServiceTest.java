@@ -0,0 +1,144 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.constant.CheckStatus;
+import com.rahul.lotteryassignment.constant.ErrorCode;
+import com.rahul.lotteryassignment.constant.JournalSyncMode;
+import com.rahul.lotteryassignment.constant.LineMode;
+import com.rahul.lotteryassignment.dto.Line;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.dto.TicketCheckResult;
+import com.rahul.lotteryassignment.exception.CustomException;
+import com.rahul.lotteryassignment.metrics.TicketMetrics;
+import com.rahul.lotteryassignment.persistence.FileTicketJournal;
+import com.rahul.lotteryassignment.persistence.JournalReplayer;
+import com.rahul.lotteryassignment.persistence.TicketJournal;
+import com.rahul.lotteryassignment.repository.TicketRepository;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the bulk operations of {@link TicketService}.
+ */
+class TicketServiceTest {
+
+    private final TicketStore store = new TicketRepository();
+    private final TicketService service = new TicketService(store, new TicketIdGenerator(0), new LineGenerator(),
+            new SeededLineGenerator(1L), LineMode.RANDOM, TicketJournal.NONE, new TicketMetrics(store));
+
+    @Test
+    void testCheckTicketsReportsEveryOutcome() {
+        long first = service.createTicket(5).getId();
+        long second = service.checkTicketStatus(service.createTicket(5).getId()).getId();
+        List<TicketCheckResult> results = new ArrayList<>();
+
+        service.checkTickets(Stream.of(first, second, -1L), results::addAll);
+
+        assertEquals(List.of(CheckStatus.CHECKED, CheckStatus.ALREADY_CHECKED, CheckStatus.NOT_FOUND),
+                results.stream().map(TicketCheckResult::getStatus).toList());
+        assertEquals(store.findById(first).orElseThrow().getTotalScore(), results.get(0).getTotalScore());
+        assertTrue(store.findById(first).orElseThrow().isChecked());
+        assertEquals(List.of(first, second), service.ticketIdsBetween(first, second).toList());
+        assertEquals(List.of(), service.uncheckedTicketIds(null).toList());
+    }
+
+    /**
+     * Lines added while a bulk check runs must either all be sorted into the checked ticket or be rejected.
+     */
+    @Test
+    void testAddLinesNeverInterleavesWithCheck() throws InterruptedException {
+        int[] lineCounts = new int[3000];
+        Arrays.fill(lineCounts, 3);
+        List<Long> ids = new ArrayList<>();
+        service.createTickets(lineCounts, tickets -> tickets.forEach(ticket -> ids.add(ticket.getId())));
+        Map<Long, AtomicInteger> added = new ConcurrentHashMap<>();
+        List<ErrorCode> rejections = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread adder = new Thread(() -> {
+            started.countDown();
+            for (Long id : ids) {
+                try {
+                    service.addLines(id, 7);
+                    added.computeIfAbsent(id, key -> new AtomicInteger()).addAndGet(7);
+                } catch (CustomException e) {
+                    rejections.add(e.getErrorCode());
+                }
+            }
+        });
+        adder.start();
+        started.await();
+        service.checkTickets(ids.stream(), results -> { });
+        adder.join();
+
+        assertTrue(rejections.stream().allMatch(ErrorCode.NOT_MODIFIABLE::equals));
+
+        for (Long id : ids) {
+            Ticket ticket = store.findById(id).orElseThrow();
+            assertTrue(ticket.isChecked());
+            assertEquals(3 + added.getOrDefault(id, new AtomicInteger()).get(), ticket.getLineCount());
+            List<Line> lines = ticket.getLines();
+            for (int i = 1; i < lines.size(); i++) {
+                assertTrue(lines.get(i - 1).getResult() >= lines.get(i).getResult());
+            }
+            assertEquals(lines.stream().mapToLong(Line::getResult).sum(), ticket.getTotalScore());
+        }
+    }
+
+    /**
+     * Tickets checked by an unchecked sweep right after their creation must come back checked
+     * after a restart, so no check may be journaled ahead of the creation it follows.
+     */
+    @Test
+    void testRestartAfterConcurrentCreateAndCheck(@TempDir Path directory) throws IOException, InterruptedException {
+        SeededLineGenerator sequence = new SeededLineGenerator(1L);
+        TicketStore live = new TicketRepository();
+        FileTicketJournal journal = new FileTicketJournal(directory, JournalSyncMode.NONE, 1, 1 << 16);
+        journal.recover(new JournalReplayer(live, sequence, 1));
+        journal.start();
+        TicketService journaled = new TicketService(live, new TicketIdGenerator(0), new LineGenerator(), sequence,
+                LineMode.RANDOM, journal, new TicketMetrics(live));
+        AtomicBoolean creating = new AtomicBoolean(true);
+        Thread sweeper = new Thread(() -> {
+            while (creating.get()) {
+                journaled.checkTickets(journaled.uncheckedTicketIds(null), results -> { });
+            }
+        });
+        sweeper.start();
+        int[] lineCounts = new int[16];
+        Arrays.fill(lineCounts, 4);
+        for (int i = 0; i < 500; i++) {
+            journaled.createTicket(4);
+            journaled.createTickets(lineCounts, tickets -> { });
+        }
+        creating.set(false);
+        sweeper.join();
+        journal.close();
+
+        TicketStore recovered = new TicketRepository();
+        try (FileTicketJournal reopened = new FileTicketJournal(directory, JournalSyncMode.NONE, 1, 1 << 16)) {
+            reopened.recover(new JournalReplayer(recovered, sequence, 2));
+        }
+        assertEquals(live.count(), recovered.count());
+        assertTrue(live.findAll().stream().anyMatch(Ticket::isChecked));
+        live.forEach(ticket -> {
+            Ticket restored = recovered.findById(ticket.getId()).orElseThrow();
+            assertEquals(ticket.isChecked(), restored.isChecked(), "Ticket " + ticket.getId());
+            assertEquals(ticket.getLines(), restored.getLines(), "Ticket " + ticket.getId());
+        });
+    }
+}
@@ -0,0 +1,103 @@
+package com.rahul.lotteryassignment.service;
+
+import com.rahul.lotteryassignment.constant.LineMode;
+import com.rahul.lotteryassignment.dto.SettlementProgress;
+import com.rahul.lotteryassignment.dto.Ticket;
+import com.rahul.lotteryassignment.metrics.TicketMetrics;
+import com.rahul.lotteryassignment.persistence.TicketJournal;
+import com.rahul.lotteryassignment.repository.TicketRepository;
+import com.rahul.lotteryassignment.repository.TicketStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for settlement runs and their resumption from a checkpoint.
+ */
+class TicketSettlementTest {
+
+    @TempDir
+    Path directory;
+
+    private final TicketStore store = new TicketRepository();
+    private final TicketIdGenerator idGenerator = new TicketIdGenerator(0);
+    private final TicketService service = new TicketService(store, idGenerator, new LineGenerator(),
+            new SeededLineGenerator(1L), LineMode.RANDOM, TicketJournal.NONE, new TicketMetrics(store));
+    private final DrawService drawService = new DrawService(store, idGenerator, TicketJournal.NONE);
+    private TicketSettlement settlement;
+
+    @AfterEach
+    void close() {
+        settlement.close();
+    }
+
+    /**
+     * A run settles the closed draws and leaves the tickets of the open draw alone.
+     */
+    @Test
+    void testSettlesClosedDraws() throws IOException {
+        settlement = new TicketSettlement(service, store, directory.resolve("settlement.checkpoint"), 10, 2, 1.0);
+        List<Long> ids = createTickets(95);
+        service.checkTicketStatus(ids.get(3));
+        drawService.closeCurrentDraw();
+        List<Long> open = createTickets(5);
+
+        SettlementProgress progress = settlement.settle();
+
+        assertFalse(progress.isRunning());
+        assertEquals(94, progress.getTicketsChecked());
+        assertEquals(10, progress.getChunksCompleted());
+        assertTrue(ids.stream().allMatch(id -> store.findById(id).orElseThrow().isChecked()));
+        assertTrue(open.stream().noneMatch(id -> store.findById(id).orElseThrow().isChecked()));
+        assertFalse(Files.exists(directory.resolve("settlement.checkpoint")));
+    }
+
+    /**
+     * A run resumed from a checkpoint settles only the tickets after the cursor, up to the ID fixed when it started.
+     */
+    @Test
+    void testResumesFromCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve("settlement.checkpoint");
+        settlement = new TicketSettlement(service, store, checkpoint, 10, 2, 1.0);
+        List<Long> ids = createTickets(30);
+        Files.writeString(checkpoint, "upToId=" + ids.get(19) + "\ncursor=" + ids.get(9) + "\n");
+
+        SettlementProgress progress = settlement.settle();
+
+        assertEquals(10, progress.getTicketsChecked());
+        assertEquals(List.of(false, true, false), List.of(
+                store.findById(ids.get(9)).orElseThrow().isChecked(),
+                store.findById(ids.get(19)).orElseThrow().isChecked(),
+                store.findById(ids.get(20)).orElseThrow().isChecked()));
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    /**
+     * Without a checkpoint file a run settles the same tickets and writes no file.
+     */
+    @Test
+    void testSettlesWithoutCheckpoint() throws IOException {
+        settlement = new TicketSettlement(service, store, null, 10, 2, 1.0);
+        List<Long> ids = createTickets(25);
+        drawService.closeCurrentDraw();
+
+        assertEquals(25, settlement.settle().getTicketsChecked());
+        assertTrue(ids.stream().allMatch(id -> store.findById(id).orElseThrow().isChecked()));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private List<Long> createTickets(int count) {
+        return IntStream.range(0, count).mapToObj(i -> service.createTicket(2)).map(Ticket::getId).toList();
+    }
+}